@@ -0,0 +1,191 @@
+package com.dw.tool.util;
+
+/**
+ * 压缩 BCD 编解码
+ * <p>
+ * 每字节两位十进制数，高半字节为十位。按 256 项查表转换，不分配对象。
+ * 不带后缀的方法高位字节在前，LE 为低位字节在前（DL/T 645 数据域）。
+ * 单个字段最多 9 字节（18 位十进制数），不会超出 long 范围。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 22:40
+ */
+public class BcdCodec {
+
+    /**
+     * 单个字段最大字节数
+     */
+    public static final int MAX_LENGTH = 9;
+
+    /**
+     * 字节到 0~99 的映射，非 BCD 字节为 -1
+     */
+    private static final byte[] DECODE = new byte[256];
+
+    /**
+     * 0~99 到字节的映射
+     */
+    private static final byte[] ENCODE = new byte[100];
+
+    /**
+     * 字节到两位数字字符串的映射，非 BCD 字节为 "99"（与 ByteArrHelper.getBCDStr 一致）
+     */
+    private static final String[] DIGITS = new String[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int high = i >>> 4;
+            int low = i & 0x0F;
+            boolean valid = high <= 9 && low <= 9;
+            DECODE[i] = (byte) (valid ? high * 10 + low : -1);
+            DIGITS[i] = valid ? new String(new char[]{(char) ('0' + high), (char) ('0' + low)}) : "99";
+        }
+        for (int i = 0; i < 100; i++) {
+            ENCODE[i] = (byte) ((i / 10) << 4 | i % 10);
+        }
+    }
+
+    private BcdCodec() {
+    }
+
+    /**
+     * 单个字节转 0~99
+     *
+     * @throws IllegalArgumentException 非 BCD 字节
+     */
+    public static int decodeByte(int b) {
+        int value = DECODE[b & 0xFF];
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid BCD byte 0x" + Integer.toHexString(b & 0xFF));
+        }
+        return value;
+    }
+
+    /**
+     * 单个字节的两位数字字符串，非 BCD 字节返回 "99"
+     */
+    public static String toDigits(byte b) {
+        return DIGITS[b & 0xFF];
+    }
+
+    /**
+     * 解码，高位字节在前，例如 0x12 0x34 为 1234
+     *
+     * @param bytes  字节数组
+     * @param offset 起始位置
+     * @param length 字节数，不超过 {@link #MAX_LENGTH}
+     * @throws IllegalArgumentException 包含非 BCD 半字节
+     */
+    public static long decode(byte[] bytes, int offset, int length) {
+        checkLength(length);
+        long value = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            value = value * 100 + decodeByte(bytes[i]);
+        }
+        return value;
+    }
+
+    /**
+     * 解码，低位字节在前，例如 0x34 0x12 为 1234
+     *
+     * @param bytes  字节数组
+     * @param offset 起始位置
+     * @param length 字节数，不超过 {@link #MAX_LENGTH}
+     * @throws IllegalArgumentException 包含非 BCD 半字节
+     */
+    public static long decodeLE(byte[] bytes, int offset, int length) {
+        checkLength(length);
+        long value = 0;
+        for (int i = offset + length - 1; i >= offset; i--) {
+            value = value * 100 + decodeByte(bytes[i]);
+        }
+        return value;
+    }
+
+    /**
+     * 批量解码连续排列的等长字段，高位字节在前
+     *
+     * @param bytes       报文
+     * @param offset      第一个字段的起始位置
+     * @param fieldLength 每个字段的字节数
+     * @param count       字段数
+     * @param dst         结果
+     * @param dstOffset   结果起始位置
+     */
+    public static void decode(byte[] bytes, int offset, int fieldLength, int count, long[] dst, int dstOffset) {
+        for (int i = 0; i < count; i++) {
+            dst[dstOffset + i] = decode(bytes, offset + i * fieldLength, fieldLength);
+        }
+    }
+
+    /**
+     * 批量解码连续排列的等长字段，低位字节在前，例如 645 一次读回的多个电能量
+     *
+     * @param bytes       报文
+     * @param offset      第一个字段的起始位置
+     * @param fieldLength 每个字段的字节数
+     * @param count       字段数
+     * @param dst         结果
+     * @param dstOffset   结果起始位置
+     */
+    public static void decodeLE(byte[] bytes, int offset, int fieldLength, int count, long[] dst, int dstOffset) {
+        for (int i = 0; i < count; i++) {
+            dst[dstOffset + i] = decodeLE(bytes, offset + i * fieldLength, fieldLength);
+        }
+    }
+
+    /**
+     * 编码，高位字节在前
+     *
+     * @param value  非负数
+     * @param bytes  目标数组
+     * @param offset 起始位置
+     * @param length 字节数，不超过 {@link #MAX_LENGTH}
+     * @throws IllegalArgumentException 负数或 length 字节放不下
+     */
+    public static void encode(long value, byte[] bytes, int offset, int length) {
+        checkValue(value, length);
+        for (int i = offset + length - 1; i >= offset; i--) {
+            bytes[i] = ENCODE[(int) (value % 100)];
+            value /= 100;
+        }
+    }
+
+    /**
+     * 编码，低位字节在前
+     *
+     * @param value  非负数
+     * @param bytes  目标数组
+     * @param offset 起始位置
+     * @param length 字节数，不超过 {@link #MAX_LENGTH}
+     * @throws IllegalArgumentException 负数或 length 字节放不下
+     */
+    public static void encodeLE(long value, byte[] bytes, int offset, int length) {
+        checkValue(value, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            bytes[i] = ENCODE[(int) (value % 100)];
+            value /= 100;
+        }
+    }
+
+    private static void checkLength(int length) {
+        if (length < 0 || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("BCD length must be between 0 and " + MAX_LENGTH + ": " + length);
+        }
+    }
+
+    private static void checkValue(long value, int length) {
+        checkLength(length);
+        if (value < 0) {
+            throw new IllegalArgumentException("BCD value must not be negative: " + value);
+        }
+        long limit = 1;
+        for (int i = 0; i < length; i++) {
+            limit *= 100;
+        }
+        if (value >= limit) {
+            throw new IllegalArgumentException("BCD value " + value + " does not fit in " + length + " bytes");
+        }
+    }
+}
@@ -3,6 +3,9 @@ package com.dw.tool.util;
 import cn.hutool.core.util.ArrayUtil;
 import org.apache.commons.codec.binary.Base64;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 /**
  * @author zhaohf
  * @date 2019/1/20
@@ -32,17 +35,7 @@ public class ByteArrHelper {
         if (ArrayUtil.isEmpty(buf)) {
             return "[]";
         }
-        StringBuilder sb = new StringBuilder();
-        for (byte b : buf) {
-            String str = Integer.toHexString(b);
-            if (str.length() > 2) {
-                str = str.substring(str.length() - 2);
-            } else if (str.length() < 2) {
-                str = "0" + str;
-            }
-            sb.append(str);
-        }
-        return sb.toString().toUpperCase();
+        return HexUtils.bytesToHexString(buf);
     }
 
     /**
@@ -53,15 +46,7 @@ public class ByteArrHelper {
      * @return {@link String}
      */
     public String getBCDStr(byte[] subByte) {
-        byte b = subByte[0];
-        byte b1 = (byte) (b & 0x0f);
-        byte b2 = (byte) ((b >>> 4) & 0x0f);
-        String str = ("" + b2) + b1;
-        if (str.length() == 2) {
-            return str;
-        } else {
-            return "99";
-        }
+        return BcdCodec.toDigits(subByte[0]);
     }
 
     /**
@@ -71,9 +56,9 @@ public class ByteArrHelper {
      * @return {@link String}
      */
     public String getBCDStrByArr(byte[] subByte) {
-        StringBuilder buf = new StringBuilder();
+        StringBuilder buf = new StringBuilder(subByte.length * 2);
         for (byte b : subByte) {
-            buf.append(getBCDStr(new byte[]{b}));
+            buf.append(BcdCodec.toDigits(b));
         }
         return buf.toString();
     }
@@ -85,13 +70,7 @@ public class ByteArrHelper {
      * @return {@link String}
      */
     public String toHexString(byte buf) {
-        String str = Integer.toHexString(buf);
-        if (str.length() > 2) {
-            str = str.substring(str.length() - 2);
-        } else if (str.length() < 2) {
-            str = "0" + str;
-        }
-        return str.toUpperCase();
+        return HexUtils.byteToHex(buf);
     }
 
     /**
@@ -134,40 +113,35 @@ public class ByteArrHelper {
     /**
      * 截取指定位置到末尾的字节数组 start是数组脚标 从0开始
      *
+     * 只读取其中字段时使用 {@link FrameView}，不需要复制
+     *
      * @param data  /
      * @param start /
      * @return /
      */
     public byte[] subByte(byte[] data, int start) {
-        byte[] buf = new byte[data.length - start];
-        for (int n = 0, i = start; i < data.length; i++, n++) {
-            buf[n] = data[i];
-        }
-        return buf;
+        return Arrays.copyOfRange(data, start, data.length);
     }
 
     /**
      * 截取指定位置的字节数组 start end是数组脚标 从0开始 算start 不算end
      *
+     * 只读取其中字段时使用 {@link FrameView}，不需要复制
+     *
      * @param data  /
      * @param start /
      * @param end   /
      * @return /
      */
     public byte[] subByte(byte[] data, int start, int end) {
-        byte[] buf = new byte[end - start];
-        for (int n = 0, i = start; i < end; i++, n++) {
-            buf[n] = data[i];
-        }
-        return buf;
+        return Arrays.copyOfRange(data, start, end);
     }
 
     public String subByte2HexStr(byte[] data, int start, int end) {
-        byte[] buf = new byte[end - start];
-        for (int n = 0, i = start; i < end; i++, n++) {
-            buf[n] = data[i];
+        if (end <= start) {
+            return "[]";
         }
-        return toHexString(buf);
+        return HexUtils.bytesToHexString(data, start, end - start);
     }
 
     /**
@@ -284,17 +258,8 @@ public class ByteArrHelper {
         if (hex.length() % 2 != 0) {
             hex = "0" + hex;
         }
-        hex = hex.toUpperCase();
         byte[] res = new byte[hex.length() / 2];
-        for (int i = 0; i < res.length; i++) {
-            int n = i * 2;
-            int n_1 = n + 1;
-            char c = hex.charAt(n);
-            char c_1 = hex.charAt(n_1);
-            int buf = HEX_STR.indexOf(c);
-            int buf_1 = HEX_STR.indexOf(c_1);
-            res[i] = (byte) (((buf << 4) & 0x000000F0) ^ (buf_1 & 0x0000000f));
-        }
+        HexUtils.decode(hex, 0, hex.length(), res, 0);
         return res;
     }
 
@@ -343,32 +308,27 @@ public class ByteArrHelper {
         hexString = hexString.toLowerCase();
         hexString = hexString.replaceAll("0x", "");
         final byte[] byteArray = new byte[hexString.length() / 2];
-        int k = 0;
-        for (int i = 0; i < byteArray.length; i++) {
-            byte high = (byte) (Character.digit(hexString.charAt(k), 16) & 0xff);
-            byte low = (byte) (Character.digit(hexString.charAt(k + 1), 16) & 0xff);
-            byteArray[i] = (byte) (high << 4 | low);
-            k += 2;
-        }
+        HexUtils.decode(hexString, 0, byteArray.length * 2, byteArray, 0);
         return byteArray;
     }
 
 
     /**
-     * 使用org.apache.commons.codec.binary.Base64压缩字符串
+     * deflate 压缩字符串（UTF-8），结果用 Base64 编码；很短的字符串压缩后不会变小，按原样存储
      *
      * @param str 要压缩的字符串
      * @return /
+     * @see FrameCompressor
      */
     public static String compress(String str) {
         if (str == null || str.length() == 0) {
             return str;
         }
-        return Base64.encodeBase64String(str.getBytes());
+        return Base64.encodeBase64String(FrameCompressor.DEFLATE.compress(str.getBytes(StandardCharsets.UTF_8)));
     }
 
     /**
-     * 使用org.apache.commons.codec.binary.Base64解压缩
+     * 解压 {@link #compress(String)} 的结果，兼容只做了 Base64 编码的旧数据
      *
      * @param compressedStr 压缩字符串
      * @return /
@@ -377,7 +337,11 @@ public class ByteArrHelper {
         if (compressedStr == null) {
             return null;
         }
-        return new String(Base64.decodeBase64(compressedStr));
+        byte[] bytes = Base64.decodeBase64(compressedStr);
+        if (FrameCompressor.isCompressed(bytes, 0, bytes.length)) {
+            return new String(FrameCompressor.DEFLATE.decompress(bytes), StandardCharsets.UTF_8);
+        }
+        return new String(bytes);
     }
 
 
@@ -0,0 +1,304 @@
+package com.dw.tool.util;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 变化检测
+ * <p>
+ * 保存一台设备上次上送的值，每次轮询后整块比较，只返回需要上送的字段：
+ * <ul>
+ *     <li>模拟量：与上次上送值之差超过死区（绝对值，或上次上送值的百分比）</li>
+ *     <li>开关量：任何变化</li>
+ *     <li>距上次上送超过刷新周期的字段，即使没有变化也上送一次</li>
+ *     <li>第一次比较、{@link #reset()} 之后全部上送</li>
+ * </ul>
+ * 模拟量字段按添加顺序编号，与 {@link RegisterDecoder} 的字段顺序一致，可以直接比较其解码结果；
+ * 开关量单独编号。状态保存在基本类型数组中，比较不分配对象。
+ * <p>
+ * 每台设备一个实例，非线程安全；配合 {@link PollScheduler} 使用时同一设备的任务依次执行，无需额外同步。
+ * <pre>
+ * ChangeDetector detector = ChangeDetector.builder().absolute(3, 0.5).percent(2, 1).bits(16)
+ *         .refresh(15, TimeUnit.MINUTES).build();
+ * int n = detector.compare(values, 0, changed);
+ * for (int i = 0; i &lt; n; i++) {
+ *     publish(changed[i], values[changed[i]]);
+ * }
+ * </pre>
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 02:40
+ */
+public final class ChangeDetector {
+
+    private static final byte ANY = 0;
+    private static final byte ABSOLUTE = 1;
+    private static final byte PERCENT = 2;
+
+    /**
+     * 模拟量配置
+     */
+    private final byte[] modes;
+    private final double[] deadbands;
+
+    /**
+     * 刷新周期（单位：纳秒），Long.MAX_VALUE 表示不刷新
+     */
+    private final long refreshNanos;
+
+    /**
+     * 模拟量状态：上次上送值、当前死区（百分比死区随上送值变化）、上次上送时间
+     */
+    private final double[] values;
+    private final double[] thresholds;
+    private final long[] publishedAt;
+    private final boolean[] published;
+
+    /**
+     * 开关量状态
+     */
+    private final boolean[] bits;
+    private final long[] bitPublishedAt;
+    private final boolean[] bitPublished;
+
+    private long compared;
+    private long changed;
+
+    private ChangeDetector(Builder builder) {
+        int count = builder.count;
+        this.modes = Arrays.copyOf(builder.modes, count);
+        this.deadbands = Arrays.copyOf(builder.deadbands, count);
+        this.refreshNanos = builder.refreshNanos;
+        this.values = new double[count];
+        this.thresholds = new double[count];
+        this.publishedAt = new long[count];
+        this.published = new boolean[count];
+        this.bits = new boolean[builder.bitCount];
+        this.bitPublishedAt = new long[builder.bitCount];
+        this.bitPublished = new boolean[builder.bitCount];
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getAnalogCount() {
+        return values.length;
+    }
+
+    public int getBitCount() {
+        return bits.length;
+    }
+
+    /**
+     * 比较一块模拟量
+     *
+     * @param current 本次读到的值
+     * @param offset  第 0 个字段在 current 中的下标
+     * @param changed 输出需要上送的字段序号，长度不小于 {@link #getAnalogCount()}
+     * @return 需要上送的字段数
+     */
+    public int compare(double[] current, int offset, int[] changed) {
+        return compare(current, offset, System.nanoTime(), changed);
+    }
+
+    /**
+     * 比较一块模拟量
+     *
+     * @param nanos 当前时间，取自 {@link System#nanoTime()}
+     */
+    public int compare(double[] current, int offset, long nanos, int[] changed) {
+        int count = values.length;
+        checkBounds(current.length, offset, count, changed.length);
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            double value = current[offset + i];
+            double last = values[i];
+            double diff = Math.abs(value - last);
+            // diff 为 NaN（一方为 NaN，或同号无穷大相减）时按 Double.compare 判断是否变化
+            boolean exceeded = !(diff <= thresholds[i]) && Double.compare(value, last) != 0;
+            if (exceeded || !published[i] || nanos - publishedAt[i] >= refreshNanos) {
+                values[i] = value;
+                thresholds[i] = modes[i] == PERCENT ? percentThreshold(value, deadbands[i]) : deadbands[i];
+                publishedAt[i] = nanos;
+                published[i] = true;
+                changed[n++] = i;
+            }
+        }
+        this.compared += count;
+        this.changed += n;
+        return n;
+    }
+
+    /**
+     * 比较一块开关量
+     *
+     * @param current 本次读到的值
+     * @param offset  第 0 个开关量在 current 中的下标
+     * @param changed 输出需要上送的开关量序号，长度不小于 {@link #getBitCount()}
+     * @return 需要上送的开关量数
+     */
+    public int compareBits(boolean[] current, int offset, int[] changed) {
+        return compareBits(current, offset, System.nanoTime(), changed);
+    }
+
+    public int compareBits(boolean[] current, int offset, long nanos, int[] changed) {
+        int count = bits.length;
+        checkBounds(current.length, offset, count, changed.length);
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            boolean value = current[offset + i];
+            if (value != bits[i] || !bitPublished[i] || nanos - bitPublishedAt[i] >= refreshNanos) {
+                bits[i] = value;
+                bitPublishedAt[i] = nanos;
+                bitPublished[i] = true;
+                changed[n++] = i;
+            }
+        }
+        this.compared += count;
+        this.changed += n;
+        return n;
+    }
+
+    /**
+     * 上次上送的模拟量值
+     */
+    public double getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * 上次上送的开关量值
+     */
+    public boolean getBit(int index) {
+        return bits[index];
+    }
+
+    /**
+     * 下次比较时全部上送，如设备重连后
+     */
+    public void reset() {
+        Arrays.fill(published, false);
+        Arrays.fill(bitPublished, false);
+    }
+
+    /**
+     * 累计比较的字段数
+     */
+    public long getCompared() {
+        return compared;
+    }
+
+    /**
+     * 累计需要上送的字段数
+     */
+    public long getChanged() {
+        return changed;
+    }
+
+    /**
+     * 百分比死区：上次上送值为无穷大或 NaN 时与 0 一样，任何变化都上送，否则死区为无穷大后不再上送
+     */
+    private static double percentThreshold(double value, double percent) {
+        return Double.isInfinite(value) || Double.isNaN(value) ? 0 : Math.abs(value) * percent / 100;
+    }
+
+    private static void checkBounds(int length, int offset, int count, int changedLength) {
+        if (offset < 0 || offset + count > length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", required " + count + ", length " + length);
+        }
+        if (changedLength < count) {
+            throw new IllegalArgumentException("changed array too small: " + changedLength + " < " + count);
+        }
+    }
+
+    /**
+     * 构建器，可以反复 build，为每台设备创建一个实例
+     */
+    public static final class Builder {
+
+        private int count;
+        private byte[] modes = new byte[16];
+        private double[] deadbands = new double[16];
+        private int bitCount;
+        private long refreshNanos = Long.MAX_VALUE;
+
+        private Builder() {
+        }
+
+        /**
+         * 添加一个模拟量，任何变化都上送
+         */
+        public Builder anyChange() {
+            return anyChange(1);
+        }
+
+        public Builder anyChange(int fields) {
+            return add(fields, ANY, 0);
+        }
+
+        /**
+         * 添加模拟量，与上次上送值之差超过 deadband 时上送
+         */
+        public Builder absolute(double deadband) {
+            return absolute(1, deadband);
+        }
+
+        public Builder absolute(int fields, double deadband) {
+            return add(fields, ABSOLUTE, deadband);
+        }
+
+        /**
+         * 添加模拟量，与上次上送值之差超过其 percent% 时上送；上次上送值为 0、无穷大或 NaN 时任何变化都上送
+         */
+        public Builder percent(double percent) {
+            return percent(1, percent);
+        }
+
+        public Builder percent(int fields, double percent) {
+            return add(fields, PERCENT, percent);
+        }
+
+        /**
+         * 开关量个数
+         */
+        public Builder bits(int count) {
+            if (count < 0) {
+                throw new IllegalArgumentException("count must not be negative");
+            }
+            this.bitCount = count;
+            return this;
+        }
+
+        /**
+         * 刷新周期，超过该时间没有上送的字段上送一次；不设置时不刷新
+         */
+        public Builder refresh(long interval, TimeUnit unit) {
+            if (interval <= 0) {
+                throw new IllegalArgumentException("interval must be positive");
+            }
+            this.refreshNanos = unit.toNanos(interval);
+            return this;
+        }
+
+        public ChangeDetector build() {
+            return new ChangeDetector(this);
+        }
+
+        private Builder add(int fields, byte mode, double deadband) {
+            if (fields <= 0 || !(deadband >= 0)) {
+                throw new IllegalArgumentException("fields " + fields + ", deadband " + deadband);
+            }
+            if (count + fields > modes.length) {
+                int capacity = Math.max(modes.length * 2, count + fields);
+                modes = Arrays.copyOf(modes, capacity);
+                deadbands = Arrays.copyOf(deadbands, capacity);
+            }
+            Arrays.fill(modes, count, count + fields, mode);
+            Arrays.fill(deadbands, count, count + fields, deadband);
+            count += fields;
+            return this;
+        }
+    }
+}
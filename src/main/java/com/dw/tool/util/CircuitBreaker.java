@@ -0,0 +1,112 @@
+package com.dw.tool.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个设备的熔断器
+ * <p>
+ * 连续失败达到阈值后熔断（OPEN），熔断期间请求直接失败，不再占用连接和线程；
+ * 熔断时间到后放行一个探测请求（HALF_OPEN），探测成功则恢复（CLOSED），失败则重新熔断。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 17:30
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+
+    /**
+     * 连续失败多少次后熔断
+     */
+    private final int failureThreshold;
+
+    /**
+     * 熔断持续时间（单位：纳秒），之后放行探测请求
+     */
+    private final long openNanos;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile State state = State.CLOSED;
+    private volatile long openUntil;
+
+    /**
+     * 构造函数
+     *
+     * @param name             名称，用于日志，一般为 ip:port
+     * @param failureThreshold 连续失败多少次后熔断
+     * @param openMillis       熔断持续时间（单位：毫秒）
+     */
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("failureThreshold must be positive");
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    /**
+     * 是否允许发送请求，熔断时间到后只放行一个探测请求
+     */
+    public boolean allowRequest() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        // 熔断时间到，或探测请求超过熔断时间仍未返回结果，放行一个新的探测请求
+        long now = System.nanoTime();
+        if (now - openUntil >= 0) {
+            synchronized (this) {
+                if (state != State.CLOSED && now - openUntil >= 0) {
+                    state = State.HALF_OPEN;
+                    openUntil = now + openNanos;
+                    log.info("熔断时间到，放行探测请求 >> {}", name);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state != State.CLOSED) {
+            synchronized (this) {
+                if (state != State.CLOSED) {
+                    state = State.CLOSED;
+                    log.info("设备恢复，关闭熔断 >> {}", name);
+                }
+            }
+        }
+    }
+
+    public void onFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        State current = state;
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= failureThreshold)) {
+            synchronized (this) {
+                if (state == current) {
+                    openUntil = System.nanoTime() + openNanos;
+                    state = State.OPEN;
+                    log.warn("连续失败 {} 次，熔断 {}ms >> {}", failures, TimeUnit.NANOSECONDS.toMillis(openNanos), name);
+                }
+            }
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
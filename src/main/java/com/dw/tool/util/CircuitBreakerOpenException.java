@@ -0,0 +1,27 @@
+package com.dw.tool.util;
+
+import java.io.IOException;
+
+/**
+ * 设备处于熔断状态，请求未发送直接失败
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 17:30
+ */
+public class CircuitBreakerOpenException extends IOException {
+
+    public CircuitBreakerOpenException(String name) {
+        super("circuit breaker is open: " + name);
+    }
+
+    /**
+     * 重试过程中熔断，保留熔断前最后一次失败的原因
+     *
+     * @param name  熔断器名称
+     * @param cause 最后一次失败的异常，可以为 null
+     */
+    public CircuitBreakerOpenException(String name, Throwable cause) {
+        super("circuit breaker is open: " + name, cause);
+    }
+}
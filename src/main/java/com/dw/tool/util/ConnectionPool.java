@@ -6,60 +6,162 @@ import lombok.extern.slf4j.Slf4j;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
-import java.net.SocketTimeoutException;
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * TCP 连接池
+ * <p>
+ * 每个 ip:port 拥有独立的子连接池，子池内最多 {@code maxConnections} 个连接，
+ * 所有子池的连接总数不超过 {@code maxTotalConnections}。
+ * <p>
+ * 连接池不使用全局锁：子池之间互不竞争，子池内部的空闲队列、借出名额均为无锁结构，
+ * 借出、归还某个 ip:port 的连接不会阻塞其他 ip:port。
+ * <p>
+ * 空闲超时与最大存活时间由所有连接池共享的时间轮检查，每个连接一个定时任务，
+ * 回收的开销只与到期的连接数有关。不再使用时调用 {@link #close()} 关闭所有连接。
  *
  * @author yanggj
  * @version 1.0.0
  * @date 2023/11/3 21:11
  */
 @Slf4j
-public class ConnectionPool {
+public class ConnectionPool implements AutoCloseable {
 
     /**
-     * 连接列表
+     * 所有连接池共享的时间轮，用于空闲回收
      */
-    private final Map<String, PooledSocket> connections = new ConcurrentHashMap<>();
+    private static final HashedTimerWheel TIMER = new HashedTimerWheel("connection-pool-timer", 100, TimeUnit.MILLISECONDS, 512);
 
     /**
-     * 最大连接数
+     * 回收检查的最小间隔（单位：纳秒），检查时间已过但连接不能回收时不在每个刻度上重复检查
+     */
+    private static final long MIN_EVICTION_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * 子连接池列表，key 为 ip:port
+     */
+    private final Map<String, EndpointPool> connections = new ConcurrentHashMap<>();
+
+    /**
+     * 单个 ip:port 的最大连接数
      */
     private final int maxConnections;
 
+    /**
+     * 所有 ip:port 的连接总数上限
+     */
+    private final int maxTotalConnections;
+
+    /**
+     * 全局连接许可，每打开一个连接占用一个许可
+     */
+    private final Semaphore totalPermits;
+
+    /**
+     * 连接池指标
+     */
+    private final TransportMetrics metrics = new TransportMetrics();
+
+    /**
+     * 预建立连接的默认并行线程数
+     */
+    private static final int DEFAULT_PREWARM_PARALLELISM = 32;
+
     /**
      * 连接空闲超时时间（单位：毫秒）
      */
     private final long timeout;
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 连接空闲多久后关闭（单位：纳秒），为 timeout 的 10 倍
+     */
+    private final long idleNanos;
+
+    /**
+     * 连接最大存活时间（单位：纳秒），0 表示不限制
+     */
+    private final long maxLifetimeNanos;
+
+    /**
+     * 建立连接超时时间（单位：毫秒）
+     */
+    private final int connectTimeout;
+
+    private volatile boolean closed;
 
     /**
      * 构造函数
      *
-     * @param maxConnections 最大连接数
+     * @param maxConnections 单个 ip:port 的最大连接数
      * @param timeout        连接空闲超时时间（单位：毫秒）
      */
     public ConnectionPool(int maxConnections, long timeout) {
+        this(maxConnections, Integer.MAX_VALUE, timeout);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param maxConnections      单个 ip:port 的最大连接数
+     * @param maxTotalConnections 所有 ip:port 的连接总数上限
+     * @param timeout             连接空闲超时时间（单位：毫秒）
+     */
+    public ConnectionPool(int maxConnections, int maxTotalConnections, long timeout) {
+        this(maxConnections, maxTotalConnections, timeout, (int) Math.min(Integer.MAX_VALUE, timeout));
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param maxConnections      单个 ip:port 的最大连接数
+     * @param maxTotalConnections 所有 ip:port 的连接总数上限
+     * @param timeout             连接空闲超时时间（单位：毫秒）
+     * @param connectTimeout      建立连接超时时间（单位：毫秒）
+     */
+    public ConnectionPool(int maxConnections, int maxTotalConnections, long timeout, int connectTimeout) {
+        this(maxConnections, maxTotalConnections, timeout, connectTimeout, 0);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param maxConnections      单个 ip:port 的最大连接数
+     * @param maxTotalConnections 所有 ip:port 的连接总数上限
+     * @param timeout             连接空闲超时时间（单位：毫秒）
+     * @param connectTimeout      建立连接超时时间（单位：毫秒）
+     * @param maxLifetime         连接最大存活时间（单位：毫秒），到期后空闲时关闭，0 表示不限制
+     */
+    public ConnectionPool(int maxConnections, int maxTotalConnections, long timeout, int connectTimeout, long maxLifetime) {
+        if (maxConnections <= 0 || maxTotalConnections <= 0 || connectTimeout <= 0 || timeout <= 0 || maxLifetime < 0) {
+            throw new IllegalArgumentException("maxConnections, maxTotalConnections, timeout and connectTimeout must be positive");
+        }
         this.maxConnections = maxConnections;
+        this.maxTotalConnections = maxTotalConnections;
+        this.totalPermits = new Semaphore(maxTotalConnections);
         this.timeout = timeout;
-
-        // 定时清理空闲连接
-        ScheduledExecutorService executor = new ScheduledThreadPoolExecutor(1);
-        executor.scheduleAtFixedRate(this::cleanIdleConnections, timeout, timeout, TimeUnit.MILLISECONDS);
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(timeout) * 10;
+        this.maxLifetimeNanos = TimeUnit.MILLISECONDS.toNanos(maxLifetime);
+        this.connectTimeout = connectTimeout;
     }
 
     /**
      * 获取TCP客户端连接
+     * <p>
+     * 子池中有空闲连接时直接返回，不等待；子池已满时最多等待 {@code timeout} 毫秒。
+     * 使用完毕后必须调用 {@link #release(String, int, Socket)} 归还，
+     * 或调用 {@link #close(String, int, Socket)} 丢弃。
      *
      * @param serverIP   服务端IP地址
      * @param serverPort 服务端端口号
@@ -67,132 +169,426 @@ public class ConnectionPool {
      * @throws IOException 连接异常
      */
     public Socket getConnection(String serverIP, int serverPort) throws IOException {
+        if (closed) {
+            throw new IOException("连接池已关闭");
+        }
         String key = getKey(serverIP, serverPort);
-        lock.writeLock().lock();
+        EndpointPool pool = getEndpointPool(key);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeout);
+
+        // 先占用子池名额，子池已满时等待其他线程归还
+        if (!tryAcquire(pool.permits, deadline)) {
+            throw new IOException("无法获取连接：等待超时 " + key);
+        }
+        PooledSocket pooledSocket;
         try {
-            PooledSocket pooledSocket = connections.get(key);
-            // 连接不可用时，新建连接
+            pooledSocket = pool.pollIdle();
             if (pooledSocket == null) {
-                pooledSocket = createConnection(serverIP, serverPort, key);
-                connections.put(key, pooledSocket);
-            } else {
-                if (pooledSocket.isInvalid() || pooledSocket.isIdle()) {
-                    pooledSocket.close();
-                    pooledSocket = createConnection(serverIP, serverPort, key);
-                    connections.put(key, pooledSocket);
-                }
+                pooledSocket = openConnection(serverIP, serverPort, pool, deadline);
             }
-            int retryCount = 0;
-            int retryInterval = 200;
-            int maxRetryCount = (int) timeout / retryInterval;
-            synchronized (pooledSocket) {
-                while (pooledSocket.isInUse() && retryCount < maxRetryCount) {
-                    try {
-                        // 等待连接可用
-                        pooledSocket.wait(retryInterval);
-                        retryCount++;
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        // 处理线程中断异常
-                    }
-                }
-            }
-            if (pooledSocket.isInUse()) {
-                throw new IOException("无法获取连接：超过最大重试次数");
-            }
-            log.debug("获取连接 >> ip {} 端口 {}", serverIP, serverPort);
-            pooledSocket.use();
-            return pooledSocket.socket;
-        } finally {
-            lock.writeLock().unlock();
+        } catch (IOException | RuntimeException e) {
+            pool.permits.release();
+            throw e;
         }
+        log.debug("获取连接 >> ip {} 端口 {}", serverIP, serverPort);
+        pooledSocket.use();
+        pool.metrics.activeConnections.incrementAndGet();
+        pool.metrics.recordBorrowWait(System.nanoTime() - start);
+        return pooledSocket.socket;
     }
 
-    public void release(String serverIP, int serverPort) {
-        String key = getKey(serverIP, serverPort);
-        lock.writeLock().lock();
-        try {
-            PooledSocket pooledSocket = connections.get(key);
-            if (pooledSocket != null) {
-                pooledSocket.release();
-                // 连接不可用则清除
-                if (pooledSocket.isInvalid()) {
-                    pooledSocket.close();
-                }
+    /**
+     * 归还连接，连接不可用时直接关闭
+     *
+     * @param serverIP   服务端IP地址
+     * @param serverPort 服务端端口号
+     * @param socket     {@link #getConnection(String, int)} 获取到的连接
+     */
+    public void release(String serverIP, int serverPort, Socket socket) {
+        EndpointPool pool = connections.get(getKey(serverIP, serverPort));
+        if (pool == null || socket == null) {
+            return;
+        }
+        PooledSocket pooledSocket = pool.sockets.get(socket);
+        if (pooledSocket == null || !pooledSocket.isInUse()) {
+            return;
+        }
+        pooledSocket.release();
+        pool.metrics.activeConnections.decrementAndGet();
+        // 连接不可用、已到最大存活时间或连接池已关闭则清除
+        if (closed) {
+            discard(pool, pooledSocket, CloseReason.SHUTDOWN);
+        } else if (pooledSocket.isInvalid() || pooledSocket.isExpired(pooledSocket.lastUseNanos)) {
+            discard(pool, pooledSocket, closeReason(pooledSocket));
+        } else {
+            pool.idle.offerFirst(pooledSocket);
+            // 归还的同时连接池被关闭
+            if (closed && pool.idle.remove(pooledSocket)) {
+                discard(pool, pooledSocket, CloseReason.SHUTDOWN);
             }
-        } finally {
-            lock.writeLock().unlock();
         }
+        pool.permits.release();
     }
 
-    public void close(String serverIP, int serverPort) {
-        String key = getKey(serverIP, serverPort);
-        lock.writeLock().lock();
-        try {
-            PooledSocket pooledSocket = connections.get(key);
-            if (pooledSocket != null) {
-                // 连接不可用则清除
-                pooledSocket.close();
-            }
-        } finally {
-            lock.writeLock().unlock();
+    /**
+     * 关闭并丢弃连接
+     *
+     * @param serverIP   服务端IP地址
+     * @param serverPort 服务端端口号
+     * @param socket     {@link #getConnection(String, int)} 获取到的连接
+     */
+    public void close(String serverIP, int serverPort, Socket socket) {
+        EndpointPool pool = connections.get(getKey(serverIP, serverPort));
+        if (pool == null || socket == null) {
+            return;
+        }
+        PooledSocket pooledSocket = pool.sockets.get(socket);
+        if (pooledSocket == null) {
+            return;
+        }
+        boolean inUse = pooledSocket.isInUse();
+        pooledSocket.release();
+        pool.idle.remove(pooledSocket);
+        discard(pool, pooledSocket, CloseReason.BROKEN);
+        if (inUse) {
+            pool.metrics.activeConnections.decrementAndGet();
+            pool.permits.release();
         }
     }
 
     /**
-     * 创建TCP客户端连接
+     * 获取连接上绑定的对象（例如读写缓冲区），不存在时创建，随连接一起释放
+     * <p>
+     * 只能由当前借用该连接的线程调用。
      *
      * @param serverIP   服务端IP地址
      * @param serverPort 服务端端口号
+     * @param socket     {@link #getConnection(String, int)} 获取到的连接
+     * @param factory    绑定对象不存在时的创建方法
+     * @return 绑定对象
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getAttachment(String serverIP, int serverPort, Socket socket, IOFunction<Socket, T> factory) throws IOException {
+        EndpointPool pool = connections.get(getKey(serverIP, serverPort));
+        PooledSocket pooledSocket = pool == null ? null : pool.sockets.get(socket);
+        if (pooledSocket == null) {
+            throw new IllegalArgumentException("socket is not managed by this pool");
+        }
+        if (pooledSocket.attachment == null) {
+            pooledSocket.attachment = factory.apply(socket);
+        }
+        return (T) pooledSocket.attachment;
+    }
+
+    /**
+     * 可抛出 IOException 的函数
+     */
+    @FunctionalInterface
+    public interface IOFunction<T, R> {
+        R apply(T t) throws IOException;
+    }
+
+    /**
+     * 连接池指标，{@link TCPClientUtil} 的收发耗时、重试、超时也记录在其中
+     */
+    public TransportMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 当前打开的连接总数
+     */
+    public int getTotalConnections() {
+        return maxTotalConnections - totalPermits.availablePermits();
+    }
+
+    /**
+     * 占用全局名额并创建新连接，全局名额已满时优先回收其他子池的空闲连接
+     */
+    private PooledSocket openConnection(String serverIP, int serverPort, EndpointPool pool, long deadline) throws IOException {
+        if (!totalPermits.tryAcquire()) {
+            evictOneIdle();
+            if (!tryAcquire(totalPermits, deadline)) {
+                throw new IOException("无法获取连接：超过连接总数上限 " + maxTotalConnections);
+            }
+        }
+        try {
+            // 建立连接的时间不超过本次获取连接剩余的等待时间
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            int timeoutMillis = (int) Math.max(1, Math.min(connectTimeout, remaining));
+            PooledSocket pooledSocket = createConnection(serverIP, serverPort, timeoutMillis, pool.metrics);
+            pool.sockets.put(pooledSocket.socket, pooledSocket);
+            scheduleEviction(pool, pooledSocket);
+            return pooledSocket;
+        } catch (IOException | RuntimeException e) {
+            totalPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 创建TCP客户端连接
+     * <p>
+     * 超时或连接失败不在此重试，由调用方决定是否重试，避免无响应的设备长时间阻塞调用线程。
+     *
+     * @param serverIP        服务端IP地址
+     * @param serverPort      服务端端口号
+     * @param connectTimeout  建立连接超时时间（单位：毫秒）
+     * @param endpointMetrics 指标
      * @return 返回Socket对象
      * @throws IOException 连接异常
      */
-    private PooledSocket createConnection(String serverIP, int serverPort, String key) throws IOException {
+    private PooledSocket createConnection(String serverIP, int serverPort, int connectTimeout, EndpointMetrics endpointMetrics) throws IOException {
         log.debug("创建新连接 >> ip {} 端口 {}", serverIP, serverPort);
         Socket socket = new Socket();
         try {
-            socket.connect(new InetSocketAddress(serverIP, serverPort));
-            socket.setKeepAlive(true);
-            socket.setSoTimeout((int) timeout);
-            return new PooledSocket(socket);
-        } catch (SocketTimeoutException e1) {
-            socket.connect(new InetSocketAddress(serverIP, serverPort));
+            long start = System.nanoTime();
+            socket.connect(new InetSocketAddress(serverIP, serverPort), connectTimeout);
+            endpointMetrics.recordConnect(System.nanoTime() - start);
+            endpointMetrics.openConnections.incrementAndGet();
             socket.setKeepAlive(true);
             socket.setSoTimeout((int) timeout);
             return new PooledSocket(socket);
         } catch (IOException e) {
-            log.error("创建连接异常", e);
-            if (socket.isConnected()) {
-                try {
-                    socket.close();
-                } catch (IOException ex) {
-                    log.error("关闭连接异常", ex);
-                }
+            endpointMetrics.recordFailure();
+            log.error("创建连接异常 >> ip {} 端口 {}: {}", serverIP, serverPort, e.toString());
+            try {
+                socket.close();
+            } catch (IOException ex) {
+                log.error("关闭连接异常", ex);
             }
             throw e;
         }
     }
 
     /**
-     * 清理不可用连接
+     * 并行预建立连接，每个 ip:port 建立一个连接
+     *
+     * @param endpoints 设备地址
+     * @return 成功建立的连接数
+     * @see #prewarm(Collection, int, int)
+     */
+    public int prewarm(Collection<InetSocketAddress> endpoints) {
+        return prewarm(endpoints, 1, DEFAULT_PREWARM_PARALLELISM);
+    }
+
+    /**
+     * 并行预建立连接，放入各子池的空闲队列
+     * <p>
+     * 用于启动时或网络恢复后，避免第一轮采集时逐个串行握手。
+     * 子池中已有足够连接、借出名额或连接总数已满、连接池已关闭时跳过，建立失败只记录日志。
+     *
+     * @param endpoints              设备地址
+     * @param connectionsPerEndpoint 每个 ip:port 的目标连接数，不超过 maxConnections
+     * @param parallelism            同时建立连接的线程数
+     * @return 成功建立的连接数
      */
-    private void cleanIdleConnections() {
-        lock.writeLock().lock();
+    public int prewarm(Collection<InetSocketAddress> endpoints, int connectionsPerEndpoint, int parallelism) {
+        int target = Math.min(connectionsPerEndpoint, maxConnections);
+        int tasks = endpoints.size() * target;
+        if (tasks <= 0 || closed) {
+            return 0;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, tasks)), r -> {
+            Thread thread = new Thread(r, "connection-pool-prewarm");
+            thread.setDaemon(true);
+            return thread;
+        });
         try {
-            connections.entrySet().removeIf(entry -> {
-                PooledSocket pooledSocket = entry.getValue();
-                if (pooledSocket.isInvalid() || pooledSocket.isIdle()) {
-                    log.info("清理不可用连接 >> ip {} 端口 {}", pooledSocket.getIp(), pooledSocket.getPort());
-                    pooledSocket.close();
-                    return true;
+            List<Future<Boolean>> futures = new ArrayList<>(tasks);
+            for (InetSocketAddress endpoint : endpoints) {
+                for (int i = 0; i < target; i++) {
+                    futures.add(executor.submit(() -> prewarm(endpoint.getHostString(), endpoint.getPort(), target)));
+                }
+            }
+            int created = 0;
+            for (Future<Boolean> future : futures) {
+                if (future.get()) {
+                    created++;
                 }
+            }
+            log.info("预建立连接完成 >> 目标 {} 成功 {}", tasks, created);
+            return created;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("prewarm failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 为单个 ip:port 建立一个空闲连接
+     * <p>
+     * 先在子池中预留名额，再占用一个借出许可，保证与同时借用、新建连接的线程合计不超过 maxConnections；
+     * 连接池已关闭时不再建立，建立期间被关闭则直接丢弃。
+     */
+    private boolean prewarm(String serverIP, int serverPort, int target) {
+        if (closed) {
+            return false;
+        }
+        EndpointPool pool = getEndpointPool(getKey(serverIP, serverPort));
+        if (!pool.reservePrewarm(target)) {
+            return false;
+        }
+        boolean permitted = false;
+        boolean totalPermitted = false;
+        try {
+            permitted = pool.permits.tryAcquire();
+            totalPermitted = permitted && totalPermits.tryAcquire();
+            if (!totalPermitted || closed) {
+                return false;
+            }
+            PooledSocket pooledSocket = createConnection(serverIP, serverPort, connectTimeout, pool.metrics);
+            totalPermitted = false;
+            pool.sockets.put(pooledSocket.socket, pooledSocket);
+            scheduleEviction(pool, pooledSocket);
+            pool.idle.offerLast(pooledSocket);
+            // 建立连接的同时连接池被关闭
+            if (closed && pool.idle.remove(pooledSocket)) {
+                discard(pool, pooledSocket, CloseReason.SHUTDOWN);
                 return false;
-            });
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
         } finally {
-            lock.writeLock().unlock();
+            if (totalPermitted) {
+                totalPermits.release();
+            }
+            if (permitted) {
+                pool.permits.release();
+            }
+            pool.prewarming.decrementAndGet();
         }
     }
 
+    /**
+     * 关闭连接并归还全局名额，同一连接只会被关闭一次，按关闭原因计入指标
+     */
+    private void discard(EndpointPool pool, PooledSocket pooledSocket, CloseReason reason) {
+        if (pool.sockets.remove(pooledSocket.socket) != null) {
+            if (pooledSocket.evictTimer != null) {
+                pooledSocket.evictTimer.cancel();
+            }
+            pooledSocket.close();
+            totalPermits.release();
+            pool.metrics.openConnections.decrementAndGet();
+            if (reason == CloseReason.EVICTED) {
+                pool.metrics.evicted.increment();
+            } else if (reason == CloseReason.BROKEN) {
+                pool.metrics.broken.increment();
+            }
+        }
+    }
+
+    /**
+     * 不可用的连接按异常关闭统计，其余（空闲超时、到达最大存活时间）按回收统计
+     */
+    private static CloseReason closeReason(PooledSocket pooledSocket) {
+        return pooledSocket.isInvalid() ? CloseReason.BROKEN : CloseReason.EVICTED;
+    }
+
+    /**
+     * 全局名额不足时，关闭所有子池中最久未使用的一个空闲连接
+     * <p>
+     * 各子池空闲队列的队尾为该子池最久未使用的连接，比较各队尾的最后使用时间选出最早的一个；
+     * 选中的连接被其他线程同时借出时重新选择。
+     */
+    private void evictOneIdle() {
+        while (true) {
+            EndpointPool oldestPool = null;
+            PooledSocket oldest = null;
+            for (EndpointPool pool : connections.values()) {
+                PooledSocket candidate = pool.idle.peekLast();
+                if (candidate != null && (oldest == null || candidate.lastUseNanos - oldest.lastUseNanos < 0)) {
+                    oldestPool = pool;
+                    oldest = candidate;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            if (oldestPool.idle.removeLastOccurrence(oldest)) {
+                log.debug("连接总数已满，回收空闲连接 >> ip {} 端口 {}", oldest.getIp(), oldest.getPort());
+                discard(oldestPool, oldest, CloseReason.EVICTED);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 在时间轮上安排连接的下一次回收检查
+     */
+    private void scheduleEviction(EndpointPool pool, PooledSocket pooledSocket) {
+        long delay = pooledSocket.nextCheckNanos() - System.nanoTime();
+        if (pooledSocket.isInUse()) {
+            // 借出中的连接在归还时检查存活时间，归还后至少 idleNanos 才会空闲超时，此前不必检查
+            delay = Math.max(delay, idleNanos);
+        }
+        pooledSocket.evictTimer = TIMER.schedule(() -> checkEviction(pool, pooledSocket),
+                Math.max(delay, MIN_EVICTION_DELAY_NANOS), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 回收检查，在时间轮线程上执行：空闲超时、到达最大存活时间或不可用的空闲连接直接关闭，
+     * 借出中的连接在归还时再检查，否则按最后使用时间重新安排，间隔不小于 {@link #MIN_EVICTION_DELAY_NANOS}
+     */
+    private void checkEviction(EndpointPool pool, PooledSocket pooledSocket) {
+        if (!pool.sockets.containsKey(pooledSocket.socket)) {
+            return;
+        }
+        long now = System.nanoTime();
+        boolean evictable = pooledSocket.isInvalid() || pooledSocket.isIdle(now) || pooledSocket.isExpired(now);
+        // remove 成功才说明连接没有被其他线程同时借出，子池的空闲队列不超过 maxConnections 个
+        if (evictable && !pooledSocket.isInUse() && pool.idle.remove(pooledSocket)) {
+            log.info("清理不可用连接 >> ip {} 端口 {}", pooledSocket.getIp(), pooledSocket.getPort());
+            discard(pool, pooledSocket, closeReason(pooledSocket));
+            return;
+        }
+        scheduleEviction(pool, pooledSocket);
+    }
+
+    /**
+     * 关闭连接池，关闭所有空闲连接，借出中的连接在归还时关闭
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (EndpointPool pool : connections.values()) {
+            PooledSocket pooledSocket;
+            while ((pooledSocket = pool.idle.pollFirst()) != null) {
+                discard(pool, pooledSocket, CloseReason.SHUTDOWN);
+            }
+        }
+    }
+
+    /**
+     * 在截止时间前获取许可，有许可时不等待
+     */
+    private static boolean tryAcquire(Semaphore semaphore, long deadline) throws IOException {
+        if (semaphore.tryAcquire()) {
+            return true;
+        }
+        try {
+            return semaphore.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("获取连接被中断", e);
+        }
+    }
+
+    /**
+     * 获取子连接池，已存在时不加锁（JDK 8 的 computeIfAbsent 即使 key 已存在也会锁住哈希桶）
+     */
+    private EndpointPool getEndpointPool(String key) {
+        EndpointPool pool = connections.get(key);
+        return pool != null ? pool : connections.computeIfAbsent(key, EndpointPool::new);
+    }
+
     /**
      * 生成连接列表中的key
      */
@@ -200,16 +596,97 @@ public class ConnectionPool {
         return serverIP + ":" + serverPort;
     }
 
+    /**
+     * 单个 ip:port 的子连接池
+     */
+    /**
+     * 连接关闭原因
+     */
+    private enum CloseReason {
+        /**
+         * 空闲超时、到达最大存活时间或为腾出全局名额而回收
+         */
+        EVICTED,
+        /**
+         * 连接不可用或调用方在收发出错后关闭
+         */
+        BROKEN,
+        /**
+         * 连接池关闭
+         */
+        SHUTDOWN
+    }
+
+    private class EndpointPool {
+        private final EndpointMetrics metrics;
+        /**
+         * 借出名额，限制单个 ip:port 同时使用的连接数
+         */
+        private final Semaphore permits = new Semaphore(maxConnections, true);
+        /**
+         * 子池中所有打开的连接
+         */
+        private final Map<Socket, PooledSocket> sockets = new ConcurrentHashMap<>();
+        /**
+         * 空闲连接，队头为最近归还的连接
+         */
+        private final ConcurrentLinkedDeque<PooledSocket> idle = new ConcurrentLinkedDeque<>();
+        /**
+         * 正在预建立的连接数
+         */
+        private final AtomicInteger prewarming = new AtomicInteger();
+
+        EndpointPool(String key) {
+            this.metrics = ConnectionPool.this.metrics.endpoint(key);
+        }
+
+        /**
+         * 已有连接与正在预建立的连接合计不足 target 时预留一个名额，成功后由调用方减回 prewarming
+         */
+        private boolean reservePrewarm(int target) {
+            while (true) {
+                int pending = prewarming.get();
+                if (sockets.size() + pending >= target) {
+                    return false;
+                }
+                if (prewarming.compareAndSet(pending, pending + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * 取出一个可用的空闲连接，不可用或空闲超时的连接直接关闭
+         */
+        private PooledSocket pollIdle() {
+            PooledSocket pooledSocket;
+            long now = System.nanoTime();
+            while ((pooledSocket = idle.pollFirst()) != null) {
+                if (pooledSocket.isInvalid() || pooledSocket.isIdle(now) || pooledSocket.isExpired(now)) {
+                    discard(this, pooledSocket, closeReason(pooledSocket));
+                    continue;
+                }
+                return pooledSocket;
+            }
+            return null;
+        }
+    }
+
     /**
      * 连接信息类
      */
     private class PooledSocket {
         private final Socket socket; // 连接
-        private LocalDateTime lastUseTime; // 最后一次使用时间
-        private Boolean inUse; // 是否在用
+        private final long createNanos; // 创建时间 System.nanoTime()
+        private volatile long lastUseNanos; // 最后一次使用时间 System.nanoTime()
+        private volatile boolean inUse; // 是否在用
+        private Object attachment; // 连接上绑定的对象，由借用线程访问
+        private volatile HashedTimerWheel.Timeout evictTimer; // 回收检查定时任务
 
         public PooledSocket(Socket socket) {
             this.socket = socket;
+            this.createNanos = System.nanoTime();
+            this.lastUseNanos = createNanos;
             this.inUse = false;
         }
 
@@ -229,32 +706,43 @@ public class ConnectionPool {
          * 更新最后一次使用时间
          */
         public void use() {
-            this.lastUseTime = LocalDateTime.now();
+            this.lastUseNanos = System.nanoTime();
             this.inUse = true;
         }
 
         public void release() {
-            this.lastUseTime = LocalDateTime.now();
+            this.lastUseNanos = System.nanoTime();
             this.inUse = false;
         }
 
         /**
          * 判断连接是否空闲
          *
-         * @param now 当前时间
+         * @param now 当前时间 System.nanoTime()
          * @return 如果连接空闲超过超时时间，则返回true；否则返回false
          */
-        public synchronized boolean isIdle(LocalDateTime now) {
-            return lastUseTime.plus(timeout * 10, ChronoUnit.MILLIS).isBefore(now);
+        public boolean isIdle(long now) {
+            return now - lastUseNanos > idleNanos;
         }
 
         /**
-         * 判断连接是否空闲
+         * 判断连接是否超过最大存活时间
          *
-         * @return 如果连接空闲超过超时时间，则返回true；否则返回false
+         * @param now 当前时间 System.nanoTime()
          */
-        public synchronized boolean isIdle() {
-            return isIdle(LocalDateTime.now());
+        public boolean isExpired(long now) {
+            return maxLifetimeNanos > 0 && now - createNanos >= maxLifetimeNanos;
+        }
+
+        /**
+         * 下一次需要检查的时间：空闲超时时间与最大存活时间中较早的一个
+         */
+        private long nextCheckNanos() {
+            long next = lastUseNanos + idleNanos;
+            if (maxLifetimeNanos > 0 && createNanos + maxLifetimeNanos - next < 0) {
+                next = createNanos + maxLifetimeNanos;
+            }
+            return next;
         }
 
         /**
@@ -0,0 +1,262 @@
+package com.dw.tool.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * DL/T 645-2007 报文编解码
+ * <p>
+ * 帧格式：[FE FE FE FE] 68 A0 A1 A2 A3 A4 A5 68 C L DATA CS 16
+ * <ul>
+ *     <li>FE：前导唤醒字节，发送时可选，接收时跳过</li>
+ *     <li>A0~A5：表地址，BCD 码，低字节在前</li>
+ *     <li>C：控制码，L：数据域长度</li>
+ *     <li>DATA：数据域，发送方每字节加 0x33，接收方每字节减 0x33</li>
+ *     <li>CS：从第一个 68 到 CS 前一字节的算术和，模 256</li>
+ * </ul>
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 16:40
+ */
+public class Dlt645Codec {
+
+    public static final int ADDRESS_LENGTH = 6;
+
+    /**
+     * 帧起始符
+     */
+    public static final byte START = 0x68;
+
+    /**
+     * 帧结束符
+     */
+    public static final byte END = 0x16;
+
+    /**
+     * 前导唤醒字节
+     */
+    public static final byte PREAMBLE = (byte) 0xFE;
+
+    /**
+     * 读数据控制码
+     */
+    public static final int READ_DATA = 0x11;
+
+    /**
+     * 广播地址 AAAAAAAAAAAA
+     */
+    public static final String BROADCAST_ADDRESS = "AAAAAAAAAAAA";
+
+    /**
+     * 不含前导字节和数据域的帧长度：68 A0..A5 68 C L CS 16
+     */
+    private static final int FRAME_OVERHEAD = 12;
+
+    /**
+     * 数据域长度字节 L 相对第一个 68 的偏移
+     */
+    private static final int LENGTH_OFFSET = 9;
+
+    private static final int DATA_OFFSET = 10;
+
+    private static final byte[] DEFAULT_PREAMBLE = {PREAMBLE, PREAMBLE, PREAMBLE, PREAMBLE};
+
+    /**
+     * DL/T 645 分帧器：跳过 FE 前导字节，总长度为 L + 12
+     */
+    public static final FrameDecoder FRAME_DECODER = new FrameDecoder() {
+        @Override
+        public int frameLength(ByteBuffer buffer) {
+            if (buffer.remaining() <= LENGTH_OFFSET) {
+                return -1;
+            }
+            return (buffer.get(buffer.position() + LENGTH_OFFSET) & 0xFF) + FRAME_OVERHEAD;
+        }
+
+        @Override
+        public int preambleLength(ByteBuffer buffer) {
+            int count = 0;
+            while (count < buffer.remaining() && buffer.get(buffer.position() + count) == PREAMBLE) {
+                count++;
+            }
+            return count;
+        }
+    };
+
+    private Dlt645Codec() {
+    }
+
+    /**
+     * 编码读数据请求（控制码 11H），带 4 个 FE 前导字节
+     *
+     * @param address        表地址，12 位字符串，高位在前
+     * @param dataIdentifier 数据标识 DI3DI2DI1DI0，例如 0x00010000 正向有功总电能
+     * @return 请求报文
+     */
+    public static byte[] encodeRead(String address, long dataIdentifier) {
+        byte[] data = {
+                (byte) dataIdentifier,
+                (byte) (dataIdentifier >>> 8),
+                (byte) (dataIdentifier >>> 16),
+                (byte) (dataIdentifier >>> 24)
+        };
+        return encode(encodeAddress(address), READ_DATA, data, 0, data.length, true);
+    }
+
+    /**
+     * 编码报文
+     *
+     * @param address     表地址，6 字节，低字节在前
+     * @param controlCode 控制码
+     * @param data        数据域原文，编码时加 0x33，不修改传入的数组
+     * @param offset      数据域起始位置
+     * @param length      数据域长度
+     * @param preamble    是否添加 4 个 FE 前导字节
+     * @return 报文
+     */
+    public static byte[] encode(byte[] address, int controlCode, byte[] data, int offset, int length, boolean preamble) {
+        if (address.length != ADDRESS_LENGTH) {
+            throw new IllegalArgumentException("address must be 6 bytes");
+        }
+        if (length > 0xFF) {
+            throw new IllegalArgumentException("data length must not exceed 255");
+        }
+        int start = preamble ? DEFAULT_PREAMBLE.length : 0;
+        byte[] frame = new byte[start + FRAME_OVERHEAD + length];
+        if (preamble) {
+            System.arraycopy(DEFAULT_PREAMBLE, 0, frame, 0, start);
+        }
+        frame[start] = START;
+        System.arraycopy(address, 0, frame, start + 1, ADDRESS_LENGTH);
+        frame[start + 7] = START;
+        frame[start + 8] = (byte) controlCode;
+        frame[start + LENGTH_OFFSET] = (byte) length;
+        int dataStart = start + DATA_OFFSET;
+        System.arraycopy(data, offset, frame, dataStart, length);
+        add33(frame, dataStart, length);
+        int csIndex = dataStart + length;
+        frame[csIndex] = (byte) checksum(frame, start, csIndex - start);
+        frame[csIndex + 1] = END;
+        return frame;
+    }
+
+    /**
+     * 解码报文
+     *
+     * @param frame 报文，可以带 FE 前导字节
+     * @return 解码结果
+     * @throws IllegalArgumentException 报文格式错误或校验和错误
+     */
+    public static Dlt645Frame decode(byte[] frame) {
+        return decode(frame, 0, frame.length);
+    }
+
+    /**
+     * 解码报文
+     *
+     * @param frame  报文所在数组，可以带 FE 前导字节
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 解码结果
+     * @throws IllegalArgumentException 报文格式错误或校验和错误
+     */
+    public static Dlt645Frame decode(byte[] frame, int offset, int length) {
+        int end = offset + length;
+        int start = offset;
+        while (start < end && frame[start] == PREAMBLE) {
+            start++;
+        }
+        if (end - start < FRAME_OVERHEAD) {
+            throw new IllegalArgumentException("frame too short");
+        }
+        if (frame[start] != START || frame[start + 7] != START) {
+            throw new IllegalArgumentException("invalid frame start");
+        }
+        int dataLength = frame[start + LENGTH_OFFSET] & 0xFF;
+        int csIndex = start + DATA_OFFSET + dataLength;
+        if (csIndex + 2 > end) {
+            throw new IllegalArgumentException("frame length mismatch");
+        }
+        if (frame[csIndex + 1] != END) {
+            throw new IllegalArgumentException("invalid frame end");
+        }
+        int checksum = checksum(frame, start, csIndex - start);
+        if (checksum != (frame[csIndex] & 0xFF)) {
+            throw new IllegalArgumentException(String.format("checksum mismatch, expect %02X actual %02X", checksum, frame[csIndex] & 0xFF));
+        }
+        byte[] address = new byte[ADDRESS_LENGTH];
+        System.arraycopy(frame, start + 1, address, 0, ADDRESS_LENGTH);
+        byte[] data = new byte[dataLength];
+        System.arraycopy(frame, start + DATA_OFFSET, data, 0, dataLength);
+        subtract33(data, 0, dataLength);
+        return new Dlt645Frame(address, frame[start + 8], data);
+    }
+
+    /**
+     * 算术和校验，模 256
+     */
+    public static int checksum(byte[] bytes, int offset, int length) {
+        return SwarUtils.checksum(bytes, offset, length);
+    }
+
+    /**
+     * 数据域每字节加 0x33，原地修改
+     */
+    public static void add33(byte[] bytes, int offset, int length) {
+        SwarUtils.add33(bytes, offset, length);
+    }
+
+    /**
+     * 数据域每字节减 0x33，原地修改
+     */
+    public static void subtract33(byte[] bytes, int offset, int length) {
+        SwarUtils.subtract33(bytes, offset, length);
+    }
+
+    /**
+     * 表地址字符串转地址域
+     *
+     * @param address 12 位字符串，高位在前，不足 12 位时前面补 0
+     * @return 地址域，6 字节，低字节在前
+     */
+    public static byte[] encodeAddress(String address) {
+        if (address.length() > ADDRESS_LENGTH * 2) {
+            throw new IllegalArgumentException("address must not exceed 12 digits");
+        }
+        byte[] bytes = new byte[ADDRESS_LENGTH];
+        int pad = ADDRESS_LENGTH * 2 - address.length();
+        for (int i = 0; i < ADDRESS_LENGTH; i++) {
+            int high = digit(address, i * 2 - pad);
+            int low = digit(address, i * 2 + 1 - pad);
+            bytes[ADDRESS_LENGTH - 1 - i] = (byte) (high << 4 | low);
+        }
+        return bytes;
+    }
+
+    /**
+     * 地址域转表地址字符串
+     *
+     * @param address 地址域，6 字节，低字节在前
+     * @return 12 位字符串，高位在前
+     */
+    public static String decodeAddress(byte[] address) {
+        char[] chars = new char[ADDRESS_LENGTH * 2];
+        for (int i = 0; i < ADDRESS_LENGTH; i++) {
+            int b = address[ADDRESS_LENGTH - 1 - i] & 0xFF;
+            chars[i * 2] = Character.toUpperCase(Character.forDigit(b >>> 4, 16));
+            chars[i * 2 + 1] = Character.toUpperCase(Character.forDigit(b & 0x0F, 16));
+        }
+        return new String(chars);
+    }
+
+    private static int digit(String address, int index) {
+        if (index < 0) {
+            return 0;
+        }
+        int digit = Character.digit(address.charAt(index), 16);
+        if (digit < 0) {
+            throw new IllegalArgumentException("invalid address " + address);
+        }
+        return digit;
+    }
+}
@@ -0,0 +1,120 @@
+package com.dw.tool.util;
+
+/**
+ * DL/T 645-2007 报文
+ * <p>
+ * 68 A0..A5 68 C L DATA CS 16，地址域低字节在前，数据域已减去 0x33。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 16:40
+ */
+public class Dlt645Frame {
+
+    /**
+     * 控制码 D7：传送方向，1 为从站应答
+     */
+    public static final int DIRECTION_RESPONSE = 0x80;
+
+    /**
+     * 控制码 D6：从站异常应答标志
+     */
+    public static final int ERROR_RESPONSE = 0x40;
+
+    /**
+     * 控制码 D5：有后续数据帧
+     */
+    public static final int FOLLOW_UP = 0x20;
+
+    /**
+     * 控制码 D4~D0：功能码
+     */
+    public static final int FUNCTION_MASK = 0x1F;
+
+    /**
+     * 地址域，6 字节，低字节在前
+     */
+    private final byte[] address;
+
+    /**
+     * 控制码
+     */
+    private final int controlCode;
+
+    /**
+     * 数据域，已减去 0x33
+     */
+    private final byte[] data;
+
+    public Dlt645Frame(byte[] address, int controlCode, byte[] data) {
+        if (address.length != Dlt645Codec.ADDRESS_LENGTH) {
+            throw new IllegalArgumentException("address must be 6 bytes");
+        }
+        this.address = address;
+        this.controlCode = controlCode & 0xFF;
+        this.data = data;
+    }
+
+    public byte[] getAddress() {
+        return address;
+    }
+
+    /**
+     * 表地址，12 位十进制字符串，高位在前，例如 000000000001
+     */
+    public String getAddressString() {
+        return Dlt645Codec.decodeAddress(address);
+    }
+
+    public int getControlCode() {
+        return controlCode;
+    }
+
+    public int getFunctionCode() {
+        return controlCode & FUNCTION_MASK;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public boolean isResponse() {
+        return (controlCode & DIRECTION_RESPONSE) != 0;
+    }
+
+    public boolean isError() {
+        return (controlCode & ERROR_RESPONSE) != 0;
+    }
+
+    public boolean hasFollowUp() {
+        return (controlCode & FOLLOW_UP) != 0;
+    }
+
+    /**
+     * 数据标识 DI3..DI0，读数据应答的数据域前 4 字节，低字节在前
+     *
+     * @return 数据标识，数据域不足 4 字节时返回 -1
+     */
+    public long getDataIdentifier() {
+        if (data.length < 4) {
+            return -1;
+        }
+        return (data[0] & 0xFFL) | (data[1] & 0xFFL) << 8 | (data[2] & 0xFFL) << 16 | (data[3] & 0xFFL) << 24;
+    }
+
+    /**
+     * 异常应答的错误信息字
+     *
+     * @return 错误信息字，非异常应答时返回 -1
+     */
+    public int getErrorCode() {
+        return isError() && data.length > 0 ? data[0] & 0xFF : -1;
+    }
+
+    @Override
+    public String toString() {
+        return "Dlt645Frame{address=" + getAddressString()
+                + ", controlCode=" + String.format("%02X", controlCode)
+                + ", data=" + HexUtils.bytesToHexString(data) + '}';
+    }
+}
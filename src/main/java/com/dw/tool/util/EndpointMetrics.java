@@ -0,0 +1,191 @@
+package com.dw.tool.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个 ip:port 的连接池与收发指标，记录方法不分配对象
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 19:05
+ */
+public class EndpointMetrics implements RetryScheduler.RetryListener {
+
+    private final String endpoint;
+
+    /**
+     * 获取连接的等待时间（含新建连接）
+     */
+    final LatencyHistogram borrowWait = new LatencyHistogram();
+
+    /**
+     * 建立 TCP 连接的耗时
+     */
+    final LatencyHistogram connectTime = new LatencyHistogram();
+
+    /**
+     * 请求发出到收到完整响应的耗时
+     */
+    final LatencyHistogram roundTrip = new LatencyHistogram();
+
+    /**
+     * 已打开的连接数
+     */
+    final AtomicInteger openConnections = new AtomicInteger();
+
+    /**
+     * 已借出的连接数
+     */
+    final AtomicInteger activeConnections = new AtomicInteger();
+
+    final LongAdder created = new LongAdder();
+
+    /**
+     * 空闲超时、到达最大存活时间或为腾出全局名额而关闭的连接数
+     */
+    final LongAdder evicted = new LongAdder();
+
+    /**
+     * 连接不可用或收发出错后关闭的连接数
+     */
+    final LongAdder broken = new LongAdder();
+
+    final LongAdder retries = new LongAdder();
+    final LongAdder timeouts = new LongAdder();
+    final LongAdder failures = new LongAdder();
+
+    EndpointMetrics(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public void recordBorrowWait(long nanos) {
+        borrowWait.record(nanos);
+    }
+
+    public void recordConnect(long nanos) {
+        connectTime.record(nanos);
+        created.increment();
+    }
+
+    public void recordRoundTrip(long nanos) {
+        roundTrip.record(nanos);
+    }
+
+    public void recordRetry() {
+        retries.increment();
+    }
+
+    @Override
+    public void onRetry() {
+        recordRetry();
+    }
+
+    public void recordTimeout() {
+        timeouts.increment();
+    }
+
+    public void recordFailure() {
+        failures.increment();
+    }
+
+    public Snapshot snapshot() {
+        int open = openConnections.get();
+        int active = activeConnections.get();
+        return new Snapshot(endpoint, active, Math.max(0, open - active),
+                created.sum(), evicted.sum(), broken.sum(), retries.sum(), timeouts.sum(), failures.sum(),
+                borrowWait.snapshot(), connectTime.snapshot(), roundTrip.snapshot());
+    }
+
+    /**
+     * 指标快照
+     */
+    public static class Snapshot {
+        private final String endpoint;
+        private final int activeConnections;
+        private final int idleConnections;
+        private final long created;
+        private final long evicted;
+        private final long broken;
+        private final long retries;
+        private final long timeouts;
+        private final long failures;
+        private final LatencyHistogram.Snapshot borrowWait;
+        private final LatencyHistogram.Snapshot connectTime;
+        private final LatencyHistogram.Snapshot roundTrip;
+
+        public Snapshot(String endpoint, int activeConnections, int idleConnections,
+                        long created, long evicted, long broken, long retries, long timeouts, long failures,
+                        LatencyHistogram.Snapshot borrowWait, LatencyHistogram.Snapshot connectTime,
+                        LatencyHistogram.Snapshot roundTrip) {
+            this.endpoint = endpoint;
+            this.activeConnections = activeConnections;
+            this.idleConnections = idleConnections;
+            this.created = created;
+            this.evicted = evicted;
+            this.broken = broken;
+            this.retries = retries;
+            this.timeouts = timeouts;
+            this.failures = failures;
+            this.borrowWait = borrowWait;
+            this.connectTime = connectTime;
+            this.roundTrip = roundTrip;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public int getActiveConnections() {
+            return activeConnections;
+        }
+
+        public int getIdleConnections() {
+            return idleConnections;
+        }
+
+        public long getCreated() {
+            return created;
+        }
+
+        public long getEvicted() {
+            return evicted;
+        }
+
+        public long getBroken() {
+            return broken;
+        }
+
+        public long getRetries() {
+            return retries;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public LatencyHistogram.Snapshot getBorrowWait() {
+            return borrowWait;
+        }
+
+        public LatencyHistogram.Snapshot getConnectTime() {
+            return connectTime;
+        }
+
+        public LatencyHistogram.Snapshot getRoundTrip() {
+            return roundTrip;
+        }
+
+        @Override
+        public String toString() {
+            return endpoint + " {active=" + activeConnections + ", idle=" + idleConnections
+                    + ", created=" + created + ", evicted=" + evicted + ", broken=" + broken + ", retries=" + retries
+                    + ", timeouts=" + timeouts + ", failures=" + failures
+                    + ", borrowWait=" + borrowWait + ", connectTime=" + connectTime + ", roundTrip=" + roundTrip + '}';
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.dw.tool.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 批量轮询设备
+ * <p>
+ * 同一 ip:port 的指令按队列依次发送，最多 perEndpoint 个并发；所有设备合计最多 maxConcurrency 个并发。
+ * JDK 21 及以上使用虚拟线程，否则使用固定大小的线程池。每条指令完成后立即回调结果，
+ * 整批耗时取决于最慢的设备，而不是所有设备耗时之和。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 19:40
+ */
+@Slf4j
+public class FleetPoller implements Closeable {
+
+    /**
+     * 所有设备合计最大并发数
+     */
+    private final int maxConcurrency;
+
+    /**
+     * 单个 ip:port 最大并发数
+     */
+    private final int perEndpoint;
+
+    private final Semaphore permits;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    /**
+     * 构造函数
+     *
+     * @param maxConcurrency 所有设备合计最大并发数，未使用虚拟线程时即为线程数
+     * @param perEndpoint    单个 ip:port 最大并发数，RS-485 网关一般为 1
+     */
+    public FleetPoller(int maxConcurrency, int perEndpoint) {
+        if (maxConcurrency <= 0 || perEndpoint <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.perEndpoint = perEndpoint;
+        this.permits = new Semaphore(maxConcurrency);
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : Executors.newFixedThreadPool(maxConcurrency, r -> {
+            Thread thread = new Thread(r, "fleet-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * JDK 21 及以上通过反射创建虚拟线程执行器，否则返回 null
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 批量发送指令，每条指令完成后在执行线程上回调结果
+     *
+     * @param commands 指令
+     * @param onResult 结果回调，需线程安全
+     * @return 全部指令完成后结束
+     */
+    public CompletableFuture<Void> pollAll(List<EndpointCommand> commands, Consumer<PollResult> onResult) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (commands.isEmpty()) {
+            done.complete(null);
+            return done;
+        }
+        // 按 ip:port 分组，每组由最多 perEndpoint 个任务依次取指令执行，不会有线程阻塞在单个设备的排队上
+        Map<String, Queue<EndpointCommand>> queues = new LinkedHashMap<>();
+        for (EndpointCommand command : commands) {
+            queues.computeIfAbsent(command.getEndpoint(), k -> new ConcurrentLinkedQueue<>()).add(command);
+        }
+        AtomicInteger remaining = new AtomicInteger(commands.size());
+        for (Queue<EndpointCommand> queue : queues.values()) {
+            int workers = Math.min(perEndpoint, queue.size());
+            for (int i = 0; i < workers; i++) {
+                try {
+                    executor.execute(() -> drain(queue, onResult, remaining, done));
+                } catch (RejectedExecutionException e) {
+                    done.completeExceptionally(e);
+                    return done;
+                }
+            }
+        }
+        return done;
+    }
+
+    /**
+     * 批量发送指令并等待全部完成
+     *
+     * @param commands 指令
+     * @return 结果，顺序为完成顺序
+     */
+    public List<PollResult> pollAll(List<EndpointCommand> commands) throws InterruptedException {
+        List<PollResult> results = new ArrayList<>(commands.size());
+        try {
+            pollAll(commands, result -> {
+                synchronized (results) {
+                    results.add(result);
+                }
+            }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    private void drain(Queue<EndpointCommand> queue, Consumer<PollResult> onResult,
+                       AtomicInteger remaining, CompletableFuture<Void> done) {
+        EndpointCommand command;
+        while ((command = queue.poll()) != null) {
+            PollResult result;
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result = new PollResult(command, null, e, 0);
+                complete(result, onResult, remaining, done);
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                byte[] response = command.execute();
+                result = new PollResult(command, response, null, System.nanoTime() - start);
+            } catch (IOException | RuntimeException e) {
+                result = new PollResult(command, null, e, System.nanoTime() - start);
+            } finally {
+                permits.release();
+            }
+            complete(result, onResult, remaining, done);
+        }
+    }
+
+    private static void complete(PollResult result, Consumer<PollResult> onResult,
+                                 AtomicInteger remaining, CompletableFuture<Void> done) {
+        try {
+            onResult.accept(result);
+        } catch (RuntimeException e) {
+            log.error("批量轮询结果回调异常 >> {}", result.getCommand().getEndpoint(), e);
+        }
+        if (remaining.decrementAndGet() == 0) {
+            done.complete(null);
+        }
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 发往单个设备的指令
+     */
+    public static class EndpointCommand {
+
+        public enum Protocol {
+            MODBUS_RTU, DLT645
+        }
+
+        private final String ip;
+        private final int port;
+        private final byte[] command;
+        private final Protocol protocol;
+
+        public EndpointCommand(String ip, int port, byte[] command, Protocol protocol) {
+            this.ip = ip;
+            this.port = port;
+            this.command = command;
+            this.protocol = protocol;
+        }
+
+        public static EndpointCommand modbus(String ip, int port, byte[] command) {
+            return new EndpointCommand(ip, port, command, Protocol.MODBUS_RTU);
+        }
+
+        public static EndpointCommand dlt645(String ip, int port, byte[] command) {
+            return new EndpointCommand(ip, port, command, Protocol.DLT645);
+        }
+
+        byte[] execute() throws IOException {
+            return protocol == Protocol.DLT645
+                    ? TCPClientUtil.sendAndReceive645(ip, port, command)
+                    : TCPClientUtil.modbusSendAndReceive(ip, port, command);
+        }
+
+        public String getEndpoint() {
+            return ip + ":" + port;
+        }
+
+        public String getIp() {
+            return ip;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public byte[] getCommand() {
+            return command;
+        }
+
+        public Protocol getProtocol() {
+            return protocol;
+        }
+    }
+
+    /**
+     * 单条指令的结果
+     */
+    public static class PollResult {
+        private final EndpointCommand command;
+        private final byte[] response;
+        private final Throwable error;
+        private final long elapsedNanos;
+
+        PollResult(EndpointCommand command, byte[] response, Throwable error, long elapsedNanos) {
+            this.command = command;
+            this.response = response;
+            this.error = error;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        public EndpointCommand getCommand() {
+            return command;
+        }
+
+        /**
+         * 响应报文，失败时为 null
+         */
+        public byte[] getResponse() {
+            return response;
+        }
+
+        /**
+         * 失败原因，成功时为 null
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+    }
+}
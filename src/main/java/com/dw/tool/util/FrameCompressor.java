@@ -0,0 +1,817 @@
+package com.dw.tool.util;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 报文、遥测数据压缩
+ * <p>
+ * 两类算法：{@link Mode#FAST} 为 LZ4 块格式，适合转发链路上实时压缩；DEFLATE 系列压缩率更高，适合落盘和批量上送。
+ * Deflater、Inflater 在所有实例间池化复用，不依赖 GC 回收本地内存。压缩结果带 2 字节头和原始长度，
+ * 压缩后不比原数据小时按原样存储，因此结果最多比原数据多 {@link #MAX_HEADER_LENGTH} 字节。
+ * <p>
+ * 单帧报文很短，单独压缩几乎没有收益，此时可以用同类报文构造字典（{@link #buildDictionary}），
+ * 压缩和解压必须使用相同的字典。实例线程安全。
+ * <pre>
+ * byte[] packed = FrameCompressor.FAST.compress(frame);
+ * byte[] frame = FrameCompressor.FAST.decompress(packed);
+ *
+ * try (OutputStream out = FrameCompressor.DEFLATE.compressingStream(new FileOutputStream(file))) {
+ *     out.write(...);
+ * }
+ * </pre>
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 23:30
+ */
+public final class FrameCompressor {
+
+    public enum Mode {
+        /**
+         * LZ4 块格式
+         */
+        FAST(0),
+        DEFLATE_FAST(Deflater.BEST_SPEED),
+        DEFLATE(6),
+        DEFLATE_BEST(Deflater.BEST_COMPRESSION);
+
+        private final int level;
+
+        Mode(int level) {
+            this.level = level;
+        }
+    }
+
+    /**
+     * 压缩结果头部最大字节数：魔数、格式、字典校验（4 字节）、原始长度（最多 5 字节）
+     */
+    public static final int MAX_HEADER_LENGTH = 11;
+
+    /**
+     * 流式接口每块的原始数据大小
+     */
+    public static final int BLOCK_SIZE = 64 * 1024;
+
+    public static final FrameCompressor FAST = new FrameCompressor(Mode.FAST);
+
+    public static final FrameCompressor DEFLATE = new FrameCompressor(Mode.DEFLATE);
+
+    private static final int MAGIC = 0x1F;
+    private static final int FORMAT_STORED = 0;
+    private static final int FORMAT_DEFLATE = 1;
+    private static final int FORMAT_FAST = 2;
+    private static final int FORMAT_MASK = 0x0F;
+    private static final int FLAG_DICTIONARY = 0x80;
+
+    /**
+     * 线程内缓冲区超过该大小时用完即丢弃，不长期占用内存
+     */
+    private static final int MAX_RETAINED_SCRATCH = 4 * BLOCK_SIZE;
+
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    private static final Map<Mode, Pool<Deflater>> DEFLATERS = new EnumMap<>(Mode.class);
+
+    private static final Pool<Inflater> INFLATERS = new Pool<>(() -> new Inflater(true), Inflater::end);
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    static {
+        for (Mode mode : Mode.values()) {
+            if (mode != Mode.FAST) {
+                DEFLATERS.put(mode, new Pool<>(() -> new Deflater(mode.level, true), Deflater::end));
+            }
+        }
+    }
+
+    private final Mode mode;
+
+    private final byte[] dictionary;
+
+    private final int dictionaryId;
+
+    /**
+     * FAST 模式下加入了字典内容的哈希表，压缩时复制使用
+     */
+    private final int[] primedTable;
+
+    public FrameCompressor(Mode mode) {
+        this(mode, null);
+    }
+
+    /**
+     * @param mode       算法
+     * @param dictionary 字典，可以为 null；FAST 只使用最后 64KB
+     */
+    public FrameCompressor(Mode mode, byte[] dictionary) {
+        this.mode = mode;
+        if (dictionary == null || dictionary.length == 0) {
+            this.dictionary = null;
+            this.dictionaryId = 0;
+            this.primedTable = null;
+        } else {
+            int length = mode == Mode.FAST ? Math.min(dictionary.length, Lz4Block.MAX_OFFSET) : dictionary.length;
+            this.dictionary = Arrays.copyOfRange(dictionary, dictionary.length - length, dictionary.length);
+            Adler32 adler32 = new Adler32();
+            adler32.update(this.dictionary, 0, length);
+            this.dictionaryId = (int) adler32.getValue();
+            if (mode == Mode.FAST) {
+                this.primedTable = new int[1 << Lz4Block.HASH_LOG];
+                Lz4Block.prime(this.dictionary, 0, length, primedTable);
+            } else {
+                this.primedTable = null;
+            }
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 压缩 length 字节所需的最大输出空间
+     */
+    public static int maxCompressedLength(int length) {
+        return length + MAX_HEADER_LENGTH;
+    }
+
+    /**
+     * 是否为本类的压缩结果，用于兼容未压缩的旧数据
+     */
+    public static boolean isCompressed(byte[] src, int offset, int length) {
+        return length >= 3 && src[offset] == MAGIC && (src[offset + 1] & ~FLAG_DICTIONARY & 0xFF) <= FORMAT_FAST;
+    }
+
+    /**
+     * 压缩结果对应的原始长度，已按压缩数据的长度校验，可以直接用于分配输出
+     *
+     * @throws IllegalArgumentException 不是本类的压缩结果，或原始长度超过压缩数据可能解出的长度
+     */
+    public static int decompressedLength(byte[] src, int offset, int length) {
+        int end = offset + length;
+        int p = checkHeader(src, offset, length);
+        if ((src[offset + 1] & FLAG_DICTIONARY) != 0) {
+            p += 4;
+        }
+        int originalLength = readVarint(src, p, end);
+        checkOriginalLength(src[offset + 1] & FORMAT_MASK, originalLength, end - p - varintSize(originalLength));
+        return originalLength;
+    }
+
+    /**
+     * 用同类报文样本构造字典，常见的内容放在后面；总长度超过 maxSize 时丢弃最前面的字节
+     *
+     * @param samples 样本，按出现频率从低到高排列
+     * @param maxSize 字典最大字节数，deflate 最多利用 32KB，FAST 最多 64KB
+     */
+    public static byte[] buildDictionary(Collection<byte[]> samples, int maxSize) {
+        long total = 0;
+        for (byte[] sample : samples) {
+            total += sample.length;
+        }
+        byte[] dictionary = new byte[(int) Math.min(total, maxSize)];
+        long skip = total - dictionary.length;
+        int p = 0;
+        for (byte[] sample : samples) {
+            if (skip >= sample.length) {
+                skip -= sample.length;
+                continue;
+            }
+            int from = (int) skip;
+            skip = 0;
+            System.arraycopy(sample, from, dictionary, p, sample.length - from);
+            p += sample.length - from;
+        }
+        return dictionary;
+    }
+
+    public byte[] compress(byte[] src) {
+        return compress(src, 0, src.length);
+    }
+
+    public byte[] compress(byte[] src, int offset, int length) {
+        byte[] out = SCRATCH.get().output(maxCompressedLength(length));
+        int n = compress(src, offset, length, out, 0);
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * 压缩到调用方提供的数组，不分配结果数组
+     *
+     * @param dst       剩余空间不小于 {@link #maxCompressedLength(int)}
+     * @param dstOffset 写入位置
+     * @return 写入的字节数
+     */
+    public int compress(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        checkRange(src, offset, length);
+        if (dstOffset < 0 || dst.length - dstOffset < maxCompressedLength(length)) {
+            throw new IllegalArgumentException("Destination too small, need " + maxCompressedLength(length) + " bytes");
+        }
+        int p = dstOffset;
+        dst[p++] = MAGIC;
+        int flagPosition = p++;
+        int flags = 0;
+        if (dictionary != null) {
+            flags = FLAG_DICTIONARY;
+            p = putInt(dst, p, dictionaryId);
+        }
+        p = putVarint(dst, p, length);
+        // 压缩结果必须比原数据短，否则按原样存储
+        int limit = p + length;
+        int end;
+        int format;
+        if (mode == Mode.FAST) {
+            end = compressFast(src, offset, length, dst, p, limit);
+            format = FORMAT_FAST;
+        } else {
+            end = compressDeflate(src, offset, length, dst, p, limit);
+            format = FORMAT_DEFLATE;
+        }
+        if (end < 0) {
+            System.arraycopy(src, offset, dst, p, length);
+            end = limit;
+            format = FORMAT_STORED;
+        }
+        dst[flagPosition] = (byte) (flags | format);
+        return end - dstOffset;
+    }
+
+    public byte[] decompress(byte[] src) {
+        return decompress(src, 0, src.length);
+    }
+
+    public byte[] decompress(byte[] src, int offset, int length) {
+        checkRange(src, offset, length);
+        byte[] out = new byte[decompressedLength(src, offset, length)];
+        decompress(src, offset, length, out, 0);
+        return out;
+    }
+
+    /**
+     * 解压到调用方提供的数组
+     *
+     * @param dst       剩余空间不小于 {@link #decompressedLength(byte[], int, int)}
+     * @param dstOffset 写入位置
+     * @return 写入的字节数
+     * @throws IllegalArgumentException 数据损坏或字典不一致
+     */
+    public int decompress(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        checkRange(src, offset, length);
+        int end = offset + length;
+        int p = checkHeader(src, offset, length);
+        int flags = src[offset + 1] & 0xFF;
+        int format = flags & FORMAT_MASK;
+        boolean useDictionary = (flags & FLAG_DICTIONARY) != 0 && format != FORMAT_STORED;
+        if ((flags & FLAG_DICTIONARY) != 0) {
+            if (end - p < 4) {
+                throw corrupt("truncated header");
+            }
+            if (useDictionary && (dictionary == null || getInt(src, p) != dictionaryId)) {
+                throw new IllegalArgumentException("Compressed data requires a different dictionary");
+            }
+            p += 4;
+        }
+        int originalLength = readVarint(src, p, end);
+        p += varintSize(originalLength);
+        checkOriginalLength(format, originalLength, end - p);
+        if (dstOffset < 0 || dst.length - dstOffset < originalLength) {
+            throw new IllegalArgumentException("Destination too small, need " + originalLength + " bytes");
+        }
+        switch (format) {
+            case FORMAT_STORED:
+                System.arraycopy(src, p, dst, dstOffset, originalLength);
+                break;
+            case FORMAT_DEFLATE:
+                inflate(src, p, end - p, dst, dstOffset, originalLength, useDictionary);
+                break;
+            case FORMAT_FAST:
+                decompressFast(src, p, end, dst, dstOffset, originalLength, useDictionary);
+                break;
+            default:
+                throw corrupt("unknown format " + format);
+        }
+        return originalLength;
+    }
+
+    /**
+     * 压缩 src 的 position 到 limit，写入 dst；src 移到 limit，dst 前移写入的字节数
+     *
+     * @throws BufferOverflowException dst 剩余空间不足
+     */
+    public void compress(ByteBuffer src, ByteBuffer dst) {
+        Scratch scratch = SCRATCH.get();
+        int length = src.remaining();
+        byte[] in;
+        int inOffset;
+        if (src.hasArray()) {
+            in = src.array();
+            inOffset = src.arrayOffset() + src.position();
+        } else {
+            in = scratch.input(length);
+            inOffset = 0;
+            src.duplicate().get(in, 0, length);
+        }
+        int max = maxCompressedLength(length);
+        if (dst.hasArray() && dst.remaining() >= max) {
+            int n = compress(in, inOffset, length, dst.array(), dst.arrayOffset() + dst.position());
+            dst.position(dst.position() + n);
+        } else {
+            byte[] out = scratch.output(max);
+            dst.put(out, 0, compress(in, inOffset, length, out, 0));
+        }
+        src.position(src.limit());
+    }
+
+    /**
+     * 解压 src 的 position 到 limit，写入 dst；src 移到 limit，dst 前移写入的字节数
+     *
+     * @throws BufferOverflowException dst 剩余空间不足
+     */
+    public void decompress(ByteBuffer src, ByteBuffer dst) {
+        Scratch scratch = SCRATCH.get();
+        int length = src.remaining();
+        byte[] in;
+        int inOffset;
+        if (src.hasArray()) {
+            in = src.array();
+            inOffset = src.arrayOffset() + src.position();
+        } else {
+            in = scratch.input(length);
+            inOffset = 0;
+            src.duplicate().get(in, 0, length);
+        }
+        int originalLength = decompressedLength(in, inOffset, length);
+        if (dst.remaining() < originalLength) {
+            throw new BufferOverflowException();
+        }
+        if (dst.hasArray()) {
+            decompress(in, inOffset, length, dst.array(), dst.arrayOffset() + dst.position());
+            dst.position(dst.position() + originalLength);
+        } else {
+            byte[] out = scratch.output(originalLength);
+            dst.put(out, 0, decompress(in, inOffset, length, out, 0));
+        }
+        src.position(src.limit());
+    }
+
+    /**
+     * 压缩输出流，按 {@link #BLOCK_SIZE} 分块压缩，每块前为变长编码的块长度，以长度 0 结束。
+     * flush 会立即输出未满的块；close 写入结束标记并关闭 out。
+     */
+    public OutputStream compressingStream(OutputStream out) {
+        return new CompressingOutputStream(out);
+    }
+
+    /**
+     * 读取 {@link #compressingStream(OutputStream)} 写出的数据
+     */
+    public InputStream decompressingStream(InputStream in) {
+        return new DecompressingInputStream(in);
+    }
+
+    private int compressFast(byte[] src, int offset, int length, byte[] dst, int dp, int dstLimit) {
+        Scratch scratch = SCRATCH.get();
+        int[] table = scratch.table;
+        if (dictionary == null) {
+            Arrays.fill(table, 0);
+            return Lz4Block.compress(src, offset, offset, offset + length, dst, dp, dstLimit, table);
+        }
+        // 字典放在数据前面，匹配可以引用字典内容
+        System.arraycopy(primedTable, 0, table, 0, table.length);
+        int dictionaryLength = dictionary.length;
+        byte[] work = scratch.work(dictionary, length);
+        System.arraycopy(src, offset, work, dictionaryLength, length);
+        return Lz4Block.compress(work, 0, dictionaryLength, dictionaryLength + length, dst, dp, dstLimit, table);
+    }
+
+    private void decompressFast(byte[] src, int sp, int srcEnd, byte[] dst, int dstOffset, int length, boolean useDictionary) {
+        if (!useDictionary) {
+            Lz4Block.decompress(src, sp, srcEnd, dst, dstOffset, dstOffset, dstOffset + length);
+            return;
+        }
+        int dictionaryLength = dictionary.length;
+        byte[] work = SCRATCH.get().work(dictionary, length);
+        Lz4Block.decompress(src, sp, srcEnd, work, 0, dictionaryLength, dictionaryLength + length);
+        System.arraycopy(work, dictionaryLength, dst, dstOffset, length);
+    }
+
+    private int compressDeflate(byte[] src, int offset, int length, byte[] dst, int dp, int dstLimit) {
+        Pool<Deflater> pool = DEFLATERS.get(mode);
+        Deflater deflater = pool.borrow();
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(src, offset, length);
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (dp == dstLimit) {
+                    return -1;
+                }
+                dp += deflater.deflate(dst, dp, dstLimit - dp);
+            }
+            return dp;
+        } finally {
+            deflater.reset();
+            pool.release(deflater);
+        }
+    }
+
+    private void inflate(byte[] src, int offset, int length, byte[] dst, int dstOffset, int originalLength, boolean useDictionary) {
+        Inflater inflater = INFLATERS.borrow();
+        try {
+            if (useDictionary) {
+                inflater.setDictionary(dictionary);
+            }
+            inflater.setInput(src, offset, length);
+            for (int p = dstOffset, end = dstOffset + originalLength; p < end; ) {
+                int n = inflater.inflate(dst, p, end - p);
+                if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw corrupt("truncated deflate stream");
+                }
+                p += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt compressed data: " + e.getMessage(), e);
+        } finally {
+            inflater.reset();
+            INFLATERS.release(inflater);
+        }
+    }
+
+    /**
+     * 头部中的原始长度在分配输出、解压之前校验，损坏或伪造的长度不会导致分配超大数组：
+     * 原样存储时必须与数据长度相等；LZ4 每个压缩字节最多展开为 255 字节，deflate 最多约 1032 倍
+     */
+    private static void checkOriginalLength(int format, int originalLength, int payloadLength) {
+        long max;
+        switch (format) {
+            case FORMAT_STORED:
+                if (originalLength != payloadLength) {
+                    throw corrupt("stored length mismatch");
+                }
+                return;
+            case FORMAT_FAST:
+                max = (payloadLength + 1L) * 255;
+                break;
+            case FORMAT_DEFLATE:
+                max = (payloadLength + 1L) * 1032;
+                break;
+            default:
+                throw corrupt("unknown format " + format);
+        }
+        if (originalLength > max) {
+            throw corrupt("length " + originalLength + " exceeds what " + payloadLength + " bytes can hold");
+        }
+    }
+
+    private static int checkHeader(byte[] src, int offset, int length) {
+        checkRange(src, offset, length);
+        if (!isCompressed(src, offset, length)) {
+            throw corrupt("bad header");
+        }
+        return offset + 2;
+    }
+
+    private static void checkRange(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > bytes.length - length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", array length " + bytes.length);
+        }
+    }
+
+    private static int putInt(byte[] dst, int p, int value) {
+        dst[p] = (byte) (value >>> 24);
+        dst[p + 1] = (byte) (value >>> 16);
+        dst[p + 2] = (byte) (value >>> 8);
+        dst[p + 3] = (byte) value;
+        return p + 4;
+    }
+
+    private static int getInt(byte[] src, int p) {
+        return (src[p] & 0xFF) << 24 | (src[p + 1] & 0xFF) << 16 | (src[p + 2] & 0xFF) << 8 | (src[p + 3] & 0xFF);
+    }
+
+    private static int putVarint(byte[] dst, int p, int value) {
+        while ((value & ~0x7F) != 0) {
+            dst[p++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        dst[p++] = (byte) value;
+        return p;
+    }
+
+    private static int readVarint(byte[] src, int p, int end) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (p >= end) {
+                throw corrupt("truncated header");
+            }
+            int b = src[p++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0) {
+                    throw corrupt("bad length");
+                }
+                return value;
+            }
+        }
+        throw corrupt("bad length");
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static IllegalArgumentException corrupt(String reason) {
+        return new IllegalArgumentException("Corrupt compressed data: " + reason);
+    }
+
+    /**
+     * 简单的无锁对象池，超过容量的对象直接释放
+     */
+    private static final class Pool<T> {
+
+        private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final Supplier<T> factory;
+        private final Consumer<T> destroyer;
+
+        Pool(Supplier<T> factory, Consumer<T> destroyer) {
+            this.factory = factory;
+            this.destroyer = destroyer;
+        }
+
+        T borrow() {
+            T t = queue.poll();
+            if (t == null) {
+                return factory.get();
+            }
+            size.decrementAndGet();
+            return t;
+        }
+
+        void release(T t) {
+            if (size.incrementAndGet() <= POOL_SIZE) {
+                queue.offer(t);
+            } else {
+                size.decrementAndGet();
+                destroyer.accept(t);
+            }
+        }
+    }
+
+    /**
+     * 线程内复用的缓冲区
+     */
+    private static final class Scratch {
+
+        final int[] table = new int[1 << Lz4Block.HASH_LOG];
+        private byte[] input = new byte[0];
+        private byte[] output = new byte[0];
+        private byte[] work = new byte[0];
+        private byte[] workDictionary;
+
+        byte[] input(int size) {
+            if (size <= input.length) {
+                return input;
+            }
+            return size > MAX_RETAINED_SCRATCH ? new byte[size] : (input = new byte[Math.max(size, 1024)]);
+        }
+
+        byte[] output(int size) {
+            if (size <= output.length) {
+                return output;
+            }
+            return size > MAX_RETAINED_SCRATCH ? new byte[size] : (output = new byte[Math.max(size, 1024)]);
+        }
+
+        /**
+         * 开头为字典、其后至少还有 length 字节空间的数组；连续使用同一字典时不重复复制
+         */
+        byte[] work(byte[] dictionary, int length) {
+            int size = dictionary.length + length;
+            if (size > work.length) {
+                if (size > MAX_RETAINED_SCRATCH) {
+                    byte[] temporary = new byte[size];
+                    System.arraycopy(dictionary, 0, temporary, 0, dictionary.length);
+                    return temporary;
+                }
+                work = new byte[Math.max(size, 1024)];
+                workDictionary = null;
+            }
+            if (workDictionary != dictionary) {
+                System.arraycopy(dictionary, 0, work, 0, dictionary.length);
+                workDictionary = dictionary;
+            }
+            return work;
+        }
+    }
+
+    private final class CompressingOutputStream extends FilterOutputStream {
+
+        /**
+         * 压缩块前预留的块长度空间
+         */
+        private static final int LENGTH_PREFIX = 5;
+
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private final byte[] compressed = new byte[LENGTH_PREFIX + maxCompressedLength(BLOCK_SIZE)];
+        private int count;
+        private boolean closed;
+
+        CompressingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == BLOCK_SIZE) {
+                writeBlock();
+            }
+            block[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkRange(b, off, len);
+            while (len > 0) {
+                if (count == BLOCK_SIZE) {
+                    writeBlock();
+                }
+                int n = Math.min(len, BLOCK_SIZE - count);
+                System.arraycopy(b, off, block, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeBlock();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                writeBlock();
+                out.write(0);
+                out.flush();
+            } finally {
+                out.close();
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            if (count == 0) {
+                return;
+            }
+            int n = compress(block, 0, count, compressed, LENGTH_PREFIX);
+            int p = LENGTH_PREFIX - varintSize(n);
+            putVarint(compressed, p, n);
+            out.write(compressed, p, LENGTH_PREFIX + n - p);
+            count = 0;
+        }
+    }
+
+    private final class DecompressingInputStream extends FilterInputStream {
+
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private final byte[] compressed = new byte[maxCompressedLength(BLOCK_SIZE)];
+        private int position;
+        private int count;
+        private boolean eof;
+
+        DecompressingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == count && !nextBlock()) {
+                return -1;
+            }
+            return block[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkRange(b, off, len);
+            if (len == 0) {
+                return 0;
+            }
+            if (position == count && !nextBlock()) {
+                return -1;
+            }
+            int n = Math.min(len, count - position);
+            System.arraycopy(block, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = 0;
+            while (skipped < n && (position < count || nextBlock())) {
+                int step = (int) Math.min(n - skipped, count - position);
+                position += step;
+                skipped += step;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return count - position;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            throw new IOException("mark/reset not supported");
+        }
+
+        private boolean nextBlock() throws IOException {
+            if (eof) {
+                return false;
+            }
+            int length = readLength();
+            if (length == 0) {
+                eof = true;
+                return false;
+            }
+            if (length > compressed.length) {
+                throw new IOException("Corrupt compressed stream: block length " + length);
+            }
+            for (int p = 0; p < length; ) {
+                int n = in.read(compressed, p, length - p);
+                if (n < 0) {
+                    throw new EOFException("Unexpected end of compressed stream");
+                }
+                p += n;
+            }
+            try {
+                if (decompressedLength(compressed, 0, length) > BLOCK_SIZE) {
+                    throw new IOException("Corrupt compressed stream: block too large");
+                }
+                count = decompress(compressed, 0, length, block, 0);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            position = 0;
+            return true;
+        }
+
+        private int readLength() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = in.read();
+                if (b < 0) {
+                    throw new EOFException("Unexpected end of compressed stream");
+                }
+                value |= (b & 0x7F) << shift;
+                if (b < 0x80) {
+                    return value;
+                }
+            }
+            throw new IOException("Corrupt compressed stream: bad block length");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.dw.tool.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 报文分帧器：根据已接收的字节判断一帧报文是否接收完整
+ * <p>
+ * 传入的 {@link ByteBuffer} 中 position 到 limit 之间为已接收、尚未处理的数据，
+ * 实现类只能使用绝对位置读取（{@code buffer.get(index)}），不得修改 position、limit。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 11:02
+ */
+@FunctionalInterface
+public interface FrameDecoder {
+
+    /**
+     * 计算完整报文的字节长度
+     *
+     * @param buffer 已接收的数据
+     * @return 完整报文的字节长度，数据不足以判断长度时返回 -1
+     */
+    int frameLength(ByteBuffer buffer);
+
+    /**
+     * 报文开头需要丢弃的前导字节数，例如 DL/T 645 的 FE 唤醒字节
+     *
+     * @param buffer 已接收的数据
+     * @return 需要丢弃的字节数
+     */
+    default int preambleLength(ByteBuffer buffer) {
+        return 0;
+    }
+}
@@ -0,0 +1,289 @@
+package com.dw.tool.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 报文视图
+ * <p>
+ * 直接读取 byte[] 或 ByteBuffer 中的一段，不复制数据。下标相对视图起始位置，读取时检查越界，
+ * 读取方法不分配对象；{@link #slice(int, int, FrameView)} 可以复用已有视图，解析整帧响应时不产生任何对象。
+ * <p>
+ * 方法名不带后缀的为大端（ABCD），LE 为小端（DCBA），WordSwap 为字内大端、字序颠倒（CDAB），
+ * 对应 Modbus 设备常见的几种寄存器排列。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 21:50
+ */
+public final class FrameView {
+
+    private byte[] array;
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+
+    public FrameView() {
+        this.array = new byte[0];
+    }
+
+    public FrameView(byte[] array) {
+        wrap(array, 0, array.length);
+    }
+
+    public FrameView(byte[] array, int offset, int length) {
+        wrap(array, offset, length);
+    }
+
+    /**
+     * ByteBuffer 中 position 到 limit 的字节，之后 buffer 的 position、limit 变化不影响视图
+     */
+    public FrameView(ByteBuffer buffer) {
+        wrap(buffer);
+    }
+
+    /**
+     * 重新指向 byte[] 中的一段
+     *
+     * @return this
+     */
+    public FrameView wrap(byte[] array, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > array.length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", array length " + array.length);
+        }
+        this.array = array;
+        this.buffer = null;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    /**
+     * 重新指向 ByteBuffer 中 position 到 limit 的字节
+     *
+     * @return this
+     */
+    public FrameView wrap(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return wrap(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        this.array = null;
+        // 绝对读取受 limit 限制，持有副本使调用方之后调整 position、limit 不影响视图
+        this.buffer = buffer.duplicate();
+        this.offset = buffer.position();
+        this.length = buffer.remaining();
+        return this;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * 子视图，与当前视图共享数据
+     *
+     * @param index  起始下标
+     * @param length 字节数
+     */
+    public FrameView slice(int index, int length) {
+        return slice(index, length, new FrameView());
+    }
+
+    /**
+     * 子视图，写入 target 复用已有对象
+     *
+     * @param index  起始下标
+     * @param length 字节数
+     * @param target 目标视图，可以是当前视图
+     * @return target
+     */
+    public FrameView slice(int index, int length, FrameView target) {
+        check(index, length);
+        target.array = array;
+        target.buffer = buffer;
+        target.offset = offset + index;
+        target.length = length;
+        return target;
+    }
+
+    public int u8(int index) {
+        check(index, 1);
+        return raw(index);
+    }
+
+    public byte i8(int index) {
+        check(index, 1);
+        return (byte) raw(index);
+    }
+
+    public int u16(int index) {
+        check(index, 2);
+        return raw(index) << 8 | raw(index + 1);
+    }
+
+    public int u16LE(int index) {
+        check(index, 2);
+        return raw(index + 1) << 8 | raw(index);
+    }
+
+    public short i16(int index) {
+        return (short) u16(index);
+    }
+
+    public short i16LE(int index) {
+        return (short) u16LE(index);
+    }
+
+    public int i32(int index) {
+        check(index, 4);
+        return raw(index) << 24 | raw(index + 1) << 16 | raw(index + 2) << 8 | raw(index + 3);
+    }
+
+    public int i32LE(int index) {
+        check(index, 4);
+        return raw(index + 3) << 24 | raw(index + 2) << 16 | raw(index + 1) << 8 | raw(index);
+    }
+
+    /**
+     * CDAB：低字在前，字内大端
+     */
+    public int i32WordSwap(int index) {
+        check(index, 4);
+        return raw(index + 2) << 24 | raw(index + 3) << 16 | raw(index) << 8 | raw(index + 1);
+    }
+
+    public long u32(int index) {
+        return i32(index) & 0xFFFFFFFFL;
+    }
+
+    public long u32LE(int index) {
+        return i32LE(index) & 0xFFFFFFFFL;
+    }
+
+    public long u32WordSwap(int index) {
+        return i32WordSwap(index) & 0xFFFFFFFFL;
+    }
+
+    public long i64(int index) {
+        return (long) i32(index) << 32 | (i32(index + 4) & 0xFFFFFFFFL);
+    }
+
+    public long i64LE(int index) {
+        return (long) i32LE(index + 4) << 32 | (i32LE(index) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 4 个字逆序，字内大端（GHEFCDAB）
+     */
+    public long i64WordSwap(int index) {
+        return (long) i32WordSwap(index + 4) << 32 | (i32WordSwap(index) & 0xFFFFFFFFL);
+    }
+
+    public float float32(int index) {
+        return Float.intBitsToFloat(i32(index));
+    }
+
+    public float float32LE(int index) {
+        return Float.intBitsToFloat(i32LE(index));
+    }
+
+    public float float32WordSwap(int index) {
+        return Float.intBitsToFloat(i32WordSwap(index));
+    }
+
+    public double float64(int index) {
+        return Double.longBitsToDouble(i64(index));
+    }
+
+    public double float64LE(int index) {
+        return Double.longBitsToDouble(i64LE(index));
+    }
+
+    public double float64WordSwap(int index) {
+        return Double.longBitsToDouble(i64WordSwap(index));
+    }
+
+    /**
+     * 压缩 BCD，高位字节在前，例如 0x12 0x34 为 1234
+     *
+     * @param index  起始下标
+     * @param length 字节数，不超过 9
+     * @throws IllegalArgumentException 包含非 BCD 半字节
+     * @see BcdCodec
+     */
+    public long bcd(int index, int length) {
+        checkBcd(index, length);
+        long value = 0;
+        for (int i = index; i < index + length; i++) {
+            value = value * 100 + BcdCodec.decodeByte(raw(i));
+        }
+        return value;
+    }
+
+    /**
+     * 压缩 BCD，低位字节在前（DL/T 645 数据域），例如 0x34 0x12 为 1234
+     *
+     * @param index  起始下标
+     * @param length 字节数，不超过 9
+     * @throws IllegalArgumentException 包含非 BCD 半字节
+     */
+    public long bcdLE(int index, int length) {
+        checkBcd(index, length);
+        long value = 0;
+        for (int i = index + length - 1; i >= index; i--) {
+            value = value * 100 + BcdCodec.decodeByte(raw(i));
+        }
+        return value;
+    }
+
+    /**
+     * 复制到 byte[]
+     */
+    public void copyTo(int index, byte[] dst, int dstOffset, int length) {
+        check(index, length);
+        if (array != null) {
+            System.arraycopy(array, offset + index, dst, dstOffset, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                dst[dstOffset + i] = buffer.get(offset + index + i);
+            }
+        }
+    }
+
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[length];
+        copyTo(0, bytes, 0, length);
+        return bytes;
+    }
+
+    /**
+     * 十六进制字符串，用于日志
+     */
+    @Override
+    public String toString() {
+        if (array != null) {
+            return HexUtils.bytesToHexString(array, offset, length);
+        }
+        char[] chars = new char[length * 2];
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.limit(offset + length).position(offset);
+        HexUtils.encode(duplicate, chars, 0);
+        return new String(chars);
+    }
+
+    private int raw(int index) {
+        return (array != null ? array[offset + index] : buffer.get(offset + index)) & 0xFF;
+    }
+
+    private void check(int index, int size) {
+        if (index < 0 || size < 0 || index > length - size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size + ", view length " + length);
+        }
+    }
+
+    private void checkBcd(int index, int length) {
+        if (length > BcdCodec.MAX_LENGTH) {
+            throw new IllegalArgumentException("BCD length must not exceed " + BcdCodec.MAX_LENGTH + " bytes: " + length);
+        }
+        check(index, length);
+    }
+}
@@ -0,0 +1,216 @@
+package com.dw.tool.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 哈希时间轮
+ * <p>
+ * 时间轮按 tick 划分为若干槽，定时任务按到期时间放入对应槽中，工作线程每个 tick 只处理当前槽，
+ * 因此每次推进的开销与到期的任务数成正比，与任务总数无关。到期时间的精度为一个 tick，
+ * 适合连接空闲回收这类大量、可容忍少量延迟的定时任务。
+ * <p>
+ * 任务在工作线程上执行，不能阻塞。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 20:10
+ */
+@Slf4j
+public class HashedTimerWheel {
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+
+    /**
+     * 新加入的任务，由工作线程在下一个 tick 放入槽中
+     */
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+
+    private final long startTime;
+
+    /**
+     * 已推进的 tick 数，只由工作线程访问
+     */
+    private long tick;
+
+    /**
+     * 构造函数，创建后立即启动守护线程
+     *
+     * @param name         工作线程名称
+     * @param tickDuration 每个槽的时间跨度
+     * @param unit         时间单位
+     * @param wheelSize    槽数，向上取整为 2 的幂
+     */
+    public HashedTimerWheel(String name, long tickDuration, TimeUnit unit, int wheelSize) {
+        if (tickDuration <= 0 || wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("invalid tickDuration or wheelSize");
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.startTime = System.nanoTime();
+        Thread worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 添加定时任务
+     *
+     * @param task  到期后在工作线程上执行的任务
+     * @param delay 延迟时间
+     * @param unit  时间单位
+     * @return 可用于取消任务
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = new Timeout(task, System.nanoTime() - startTime + Math.max(0, unit.toNanos(delay)));
+        pending.add(timeout);
+        return timeout;
+    }
+
+    private void run() {
+        while (true) {
+            long deadline = tickNanos * (tick + 1);
+            long sleepNanos = startTime + deadline - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                continue;
+            }
+            transferPending();
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long expireTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (expireTick - tick) / wheel.length;
+            // 已过期的任务放入当前槽，本次 tick 执行
+            wheel[(int) (Math.max(expireTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * 定时任务句柄
+     */
+    public static class Timeout {
+        private static final int INIT = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+
+        /**
+         * 相对时间轮启动时间的到期时间（单位：纳秒）
+         */
+        private final long deadline;
+
+        private final AtomicInteger state = new AtomicInteger(INIT);
+
+        // 以下字段只由工作线程访问
+        private long remainingRounds;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * 取消任务，已执行的任务返回 false
+         * <p>
+         * 取消的任务在所在槽下次被推进时移除。
+         */
+        public boolean cancel() {
+            return state.compareAndSet(INIT, CANCELLED);
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(INIT, EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable e) {
+                log.error("定时任务执行异常", e);
+            }
+        }
+    }
+
+    /**
+     * 槽，双向链表，只由工作线程访问
+     */
+    private static class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            if (tail == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        private void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+        }
+    }
+}
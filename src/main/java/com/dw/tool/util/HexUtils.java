@@ -2,6 +2,8 @@ package com.dw.tool.util;
 
 import cn.hutool.core.util.StrUtil;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.regex.Pattern;
 
 /**
@@ -13,6 +15,31 @@ public class HexUtils {
 
     private static final char[] HEX_ARRAY = "0123456789ABCDEF".toCharArray();
 
+    /**
+     * 编码表，第 2b、2b+1 个字符为字节 b 的十六进制高位、低位
+     */
+    private static final char[] HEX_TABLE = new char[512];
+
+    /**
+     * 解码表，下标为字符，值为 0~15，非十六进制字符为 -1
+     */
+    private static final byte[] DIGIT_TABLE = new byte[128];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            HEX_TABLE[i << 1] = HEX_ARRAY[i >>> 4];
+            HEX_TABLE[(i << 1) + 1] = HEX_ARRAY[i & 0x0F];
+        }
+        Arrays.fill(DIGIT_TABLE, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            DIGIT_TABLE['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            DIGIT_TABLE['A' + i] = (byte) (10 + i);
+            DIGIT_TABLE['a' + i] = (byte) (10 + i);
+        }
+    }
+
     private static final String HEX_PATTERN = "^[0-9a-fA-F]+$";
 
     public static String calculateChecksum(String hexString) {
@@ -39,15 +66,126 @@ public class HexUtils {
      * 将十六进制字符串转换为字节数组
      */
     public static byte[] hexStringToBytes(String hexString) {
-        int length = hexString.length();
-        byte[] bytes = new byte[length / 2];
-        for (int i = 0; i < length; i += 2) {
-            bytes[i / 2] = (byte) ((Character.digit(hexString.charAt(i), 16) << 4)
-                    + Character.digit(hexString.charAt(i + 1), 16));
-        }
+        byte[] bytes = new byte[hexString.length() / 2];
+        decode(hexString, 0, hexString.length(), bytes, 0);
         return bytes;
     }
 
+    /**
+     * 十六进制编码，写入调用方提供的字符数组，不分配对象
+     *
+     * @param src       字节数组
+     * @param offset    起始位置
+     * @param length    字节数
+     * @param dst       目标字符数组，需要 2 * length 个字符的空间
+     * @param dstOffset 目标起始位置
+     * @return 写入后的目标位置
+     */
+    public static int encode(byte[] src, int offset, int length, char[] dst, int dstOffset) {
+        int j = dstOffset;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int index = (src[i] & 0xFF) << 1;
+            dst[j++] = HEX_TABLE[index];
+            dst[j++] = HEX_TABLE[index + 1];
+        }
+        return j;
+    }
+
+    /**
+     * 十六进制编码 ByteBuffer 中 position 到 limit 的字节，不改变 position
+     *
+     * @param src       字节
+     * @param dst       目标字符数组，需要 2 * src.remaining() 个字符的空间
+     * @param dstOffset 目标起始位置
+     * @return 写入后的目标位置
+     */
+    public static int encode(ByteBuffer src, char[] dst, int dstOffset) {
+        if (src.hasArray()) {
+            return encode(src.array(), src.arrayOffset() + src.position(), src.remaining(), dst, dstOffset);
+        }
+        int j = dstOffset;
+        for (int i = src.position(), end = src.limit(); i < end; i++) {
+            int index = (src.get(i) & 0xFF) << 1;
+            dst[j++] = HEX_TABLE[index];
+            dst[j++] = HEX_TABLE[index + 1];
+        }
+        return j;
+    }
+
+    /**
+     * 十六进制编码并追加到 StringBuilder，用于拼接日志
+     *
+     * @param sb     目标
+     * @param src    字节数组
+     * @param offset 起始位置
+     * @param length 字节数
+     * @return sb
+     */
+    public static StringBuilder appendHex(StringBuilder sb, byte[] src, int offset, int length) {
+        sb.ensureCapacity(sb.length() + 2 * length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int index = (src[i] & 0xFF) << 1;
+            sb.append(HEX_TABLE[index]).append(HEX_TABLE[index + 1]);
+        }
+        return sb;
+    }
+
+    /**
+     * 十六进制解码，写入调用方提供的字节数组，大小写均可，不分配对象
+     *
+     * @param src       十六进制字符
+     * @param offset    起始位置
+     * @param length    字符数，必须为偶数
+     * @param dst       目标字节数组，需要 length / 2 个字节的空间
+     * @param dstOffset 目标起始位置
+     * @return 写入的字节数
+     * @throws IllegalArgumentException 长度为奇数或包含非十六进制字符
+     */
+    public static int decode(CharSequence src, int offset, int length, byte[] dst, int dstOffset) {
+        if ((length & 1) != 0) {
+            throw new IllegalArgumentException("Hex string length must be even");
+        }
+        int j = dstOffset;
+        for (int i = offset, end = offset + length; i < end; i += 2) {
+            dst[j++] = (byte) ((digit(src, i) << 4) | digit(src, i + 1));
+        }
+        return length >> 1;
+    }
+
+    /**
+     * 十六进制解码，从 dst 的 position 开始写入
+     *
+     * @param src    十六进制字符
+     * @param offset 起始位置
+     * @param length 字符数，必须为偶数
+     * @param dst    目标缓冲区，需要 length / 2 个字节的剩余空间
+     * @return 写入的字节数
+     * @throws IllegalArgumentException 长度为奇数或包含非十六进制字符
+     */
+    public static int decode(CharSequence src, int offset, int length, ByteBuffer dst) {
+        if ((length & 1) != 0) {
+            throw new IllegalArgumentException("Hex string length must be even");
+        }
+        if (dst.hasArray()) {
+            int written = decode(src, offset, length, dst.array(), dst.arrayOffset() + dst.position());
+            dst.position(dst.position() + written);
+            return written;
+        }
+        for (int i = offset, end = offset + length; i < end; i += 2) {
+            dst.put((byte) ((digit(src, i) << 4) | digit(src, i + 1)));
+        }
+        return length >> 1;
+    }
+
+    private static int digit(CharSequence src, int index) {
+        char c = src.charAt(index);
+        int digit = c < 128 ? DIGIT_TABLE[c] : -1;
+        if (digit < 0) {
+            throw new IllegalArgumentException("Invalid hex character '" + c + "' at " + index);
+        }
+        return digit;
+    }
+
     /**
      * @param num      待转数字
      * @param byteSize 字节数
@@ -63,34 +201,25 @@ public class HexUtils {
      * 将byte数组转换为十六进制字符串
      */
     public static String bytesToHexString(byte[] bytes, int length) {
-        StringBuilder stringBuilder = new StringBuilder();
-        for (int i = 0; i < length; i++) {
-            stringBuilder.append(byteToHex(bytes[i]));
-        }
-        return stringBuilder.toString();
+        return bytesToHexString(bytes, 0, length);
     }
 
     public static String bytesToHexString(byte[] bytes, int offset, int length) {
-        StringBuilder stringBuilder = new StringBuilder(2 * length);
-        for (int i = offset; i < offset + length; i++) {
-            stringBuilder.append(byteToHex(bytes[i]));
-        }
-        return stringBuilder.toString();
+        char[] chars = new char[2 * length];
+        encode(bytes, offset, length, chars, 0);
+        return new String(chars);
     }
 
     public static String bytesToHexString(byte[] bytes) {
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(byteToHex(b));
-        }
-        return sb.toString();
+        return bytesToHexString(bytes, 0, bytes.length);
     }
 
-    private static String byteToHex(byte b) {
-        char[] hexChars = new char[2];
-        hexChars[0] = HEX_ARRAY[(b & 0xF0) >> 4];
-        hexChars[1] = HEX_ARRAY[b & 0x0F];
-        return new String(hexChars);
+    /**
+     * 单个字节的十六进制字符串，大写
+     */
+    public static String byteToHex(byte b) {
+        int index = (b & 0xFF) << 1;
+        return new String(HEX_TABLE, index, 2);
     }
 
     /**
@@ -100,35 +229,44 @@ public class HexUtils {
      * @return 校验和 16进制字符串，一个字节
      */
     public static String calculateChecksum(byte[] data) {
-        int checksum = 0;
-        for (byte datum : data) {
-            checksum += datum & 0xFF;
-            checksum %= 256;
-        }
+        int checksum = SwarUtils.checksum(data, 0, data.length);
         String hexString = Integer.toHexString(checksum);
         return StrUtil.fillBefore(hexString, '0', 2);
     }
 
+    /**
+     * BCD 十六进制字符串转十进制数，超过 int 范围时抛出 ArithmeticException，9 位以上使用 {@link #bcdHexStringToLong(String)}
+     */
     public static int bcdHexStringToDecimal(String hexStr) {
+        return Math.toIntExact(bcdHexStringToLong(hexStr));
+    }
 
+    /**
+     * BCD 十六进制字符串转十进制数，最多 18 位；byte[] 中的 BCD 字段使用 {@link BcdCodec}
+     * <p>
+     * 与原实现一致，A ~ F 不做校验，按其数值参与计算（电表用 EE、FF 填充无数据项时结果没有意义，由调用方判断）。
+     *
+     * @throws IllegalArgumentException 长度为奇数、超过 18 位或含有非十六进制字符
+     */
+    public static long bcdHexStringToLong(String hexStr) {
         if (hexStr == null || hexStr.isEmpty()) {
             return 0;
         }
-
-        int result = 0;
-
-        // 计算每一位的值并相加，最终得到十进制数
-        for (int i = 0; i < hexStr.length(); i += 2) {
-            char c1 = hexStr.charAt(i);
-            char c2 = hexStr.charAt(i + 1);
-
-            // 将两个字符转为数值，并将高4位和低4位合并成一个byte
-            byte b = (byte) ((Character.digit(c1, 16) << 4) | Character.digit(c2, 16));
-
-            // 将BCD码转为十进制数，并乘以当前位数的权值
-            result = result * 100 + ((b & 0xf0) >> 4) * 10 + (b & 0x0f);
+        if ((hexStr.length() & 1) != 0) {
+            throw new IllegalArgumentException("BCD string length must be even: " + hexStr);
+        }
+        if (hexStr.length() > BcdCodec.MAX_LENGTH * 2) {
+            throw new IllegalArgumentException("BCD string too long: " + hexStr);
+        }
+        // 每个字符为一位，等同于逐字节 result * 100 + 高 4 位 * 10 + 低 4 位
+        long result = 0;
+        for (int i = 0; i < hexStr.length(); i++) {
+            int nibble = Character.digit(hexStr.charAt(i), 16);
+            if (nibble < 0) {
+                throw new IllegalArgumentException("Invalid hex character '" + hexStr.charAt(i) + "' at " + i);
+            }
+            result = result * 10 + nibble;
         }
-
         return result;
     }
 
@@ -140,15 +278,15 @@ public class HexUtils {
         return operateOnHexString(hexString, 0x33, true);
     }
 
-    // 反转十六进制字符串
+    // 反转十六进制字符串，按字节（两个字符）反转；byte[] 原地反转见 SwarUtils.reverse
     public static String reverseHexString(String hexString) {
-        StringBuilder reversedBuilder = new StringBuilder();
-
-        for (int i = hexString.length() - 2; i >= 0; i -= 2) {
-            reversedBuilder.append(hexString.substring(i, i + 2));
+        int length = hexString.length() & ~1;
+        char[] reversed = new char[length];
+        for (int i = hexString.length() - 2, j = 0; i >= 0; i -= 2, j += 2) {
+            reversed[j] = hexString.charAt(i);
+            reversed[j + 1] = hexString.charAt(i + 1);
         }
-
-        return reversedBuilder.toString();
+        return new String(reversed);
     }
 
     public static float hexToFloat(String hexString) {
@@ -175,54 +313,30 @@ public class HexUtils {
             throw new IllegalArgumentException("Hex string length must be even");
         }
 
-        StringBuilder result = new StringBuilder(length);
-
-        for (int i = 0; i < length; i += 2) {
-            char highNibble = hexString.charAt(i);
-            char lowNibble = hexString.charAt(i + 1);
-
-            int byteValue = (Character.digit(highNibble, 16) << 4) | Character.digit(lowNibble, 16);
-            if (isAddition) {
-                byteValue += operand;
-                byteValue %= 256; // 处理超过256的情况
-            } else {
-                byteValue -= operand;
-                if (byteValue < 0) {
-                    byteValue += 256;
-                }
-            }
-
-            result.append(String.format("%02X", byteValue));
+        byte[] bytes = hexStringToBytes(hexString);
+        // 模 256 加减，8 字节一组处理
+        if (isAddition) {
+            SwarUtils.add(bytes, 0, bytes.length, operand);
+        } else {
+            SwarUtils.subtract(bytes, 0, bytes.length, operand);
         }
-
-        return result.toString();
+        return bytesToHexString(bytes);
     }
 
 
-    private static final int CRC_POLYNOMIAL = 0xA001;
-    private static final int CRC_INITIAL = 0xFFFF;
-
     /**
      * 计算 Modbus CRC-16校验值
      *
      * @param str 输入字符串
-     * @return CRC-16校验值
+     * @return CRC-16校验值，低字节在前，可直接拼接在报文后
+     * @see ModbusCrc16
      */
     public static String calModbusCRC(String str) {
         byte[] bytes = hexStringToBytes(str);
-        int crc = CRC_INITIAL;
-        for (byte b : bytes) {
-            crc ^= (int) b & 0xFF;
-            for (int i = 0; i < 8; i++) {
-                if ((crc & 1) == 1) {
-                    crc = (crc >>> 1) ^ CRC_POLYNOMIAL;
-                } else {
-                    crc = crc >>> 1;
-                }
-            }
-        }
-        int result = swapBytes(crc & 0xFFFF);// 进行大小端转换
-        return String.format("%04X", result);
+        int result = swapBytes(ModbusCrc16.crc16(bytes, 0, bytes.length));// 进行大小端转换
+        char[] chars = new char[4];
+        encode(new byte[]{(byte) (result >>> 8), (byte) result}, 0, 2, chars, 0);
+        return new String(chars);
     }
 
     /**
@@ -0,0 +1,124 @@
+package com.dw.tool.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时直方图
+ * <p>
+ * 按 2 的幂划分桶（单位：微秒），第 i 个桶统计 [2^(i-1), 2^i) 微秒的样本。
+ * 记录时只做计数器自增，不分配对象，可以在生产环境常开；分位数精度为所在桶的上界。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 19:05
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时（单位：纳秒）
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        long micros = nanos / 1000;
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(bucket);
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        long meanMicros = count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum()) / count;
+        long maxMicros = TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+        return new Snapshot(count, meanMicros,
+                percentile(copy, count, 0.5, maxMicros), percentile(copy, count, 0.9, maxMicros),
+                percentile(copy, count, 0.99, maxMicros), maxMicros);
+    }
+
+    /**
+     * 分位数所在桶的上界（单位：微秒），不超过最大值；最后一个桶没有上界，取最大值
+     */
+    private static long percentile(long[] counts, long total, double quantile, long maxMicros) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == counts.length - 1 ? maxMicros : Math.min((1L << i) - 1, maxMicros);
+            }
+        }
+        return maxMicros;
+    }
+
+    /**
+     * 直方图快照，时间单位均为微秒
+     */
+    public static class Snapshot {
+        private final long count;
+        private final long meanMicros;
+        private final long p50Micros;
+        private final long p90Micros;
+        private final long p99Micros;
+        private final long maxMicros;
+
+        public Snapshot(long count, long meanMicros, long p50Micros, long p90Micros, long p99Micros, long maxMicros) {
+            this.count = count;
+            this.meanMicros = meanMicros;
+            this.p50Micros = p50Micros;
+            this.p90Micros = p90Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMeanMicros() {
+            return meanMicros;
+        }
+
+        public long getP50Micros() {
+            return p50Micros;
+        }
+
+        public long getP90Micros() {
+            return p90Micros;
+        }
+
+        public long getP99Micros() {
+            return p99Micros;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        @Override
+        public String toString() {
+            return "{count=" + count + ", mean=" + meanMicros + "us, p50=" + p50Micros + "us, p90=" + p90Micros
+                    + "us, p99=" + p99Micros + "us, max=" + maxMicros + "us}";
+        }
+    }
+}
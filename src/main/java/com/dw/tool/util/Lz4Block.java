@@ -0,0 +1,225 @@
+package com.dw.tool.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * LZ4 块格式编解码
+ * <p>
+ * 4 字节哈希找匹配、单次扫描，不做熵编码，速度远高于 deflate，压缩率较低。输出与 LZ4 block 格式兼容：
+ * 每个序列为 token、字面量长度、字面量、2 字节偏移（低字节在前）、匹配长度，最后 5 字节总是字面量。
+ * 数组中 base 之前、start 之后 64KB 以内的数据作为历史（字典），可以被匹配引用。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 23:30
+ */
+final class Lz4Block {
+
+    static final int HASH_LOG = 12;
+
+    static final int MAX_OFFSET = 0xFFFF;
+
+    private static final int MIN_MATCH = 4;
+
+    /**
+     * 最后一个匹配必须在距结尾 12 字节之前开始
+     */
+    private static final int MF_LIMIT = 12;
+
+    private static final int LAST_LITERALS = 5;
+
+    /**
+     * 连续多少次未命中后加大步长，跳过不可压缩的数据
+     */
+    private static final int SKIP_TRIGGER = 6;
+
+    private Lz4Block() {
+    }
+
+    /**
+     * 把 [base, start) 的每个位置加入哈希表，作为字典
+     *
+     * @param table 大小为 1 &lt;&lt; HASH_LOG，0 表示空，其余为位置 + 1
+     */
+    static void prime(byte[] src, int base, int start, int[] table) {
+        ByteBuffer view = ByteBuffer.wrap(src).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = base; i + MIN_MATCH <= start; i++) {
+            table[hash(view.getInt(i))] = i + 1;
+        }
+    }
+
+    /**
+     * 压缩 src[start, end)
+     *
+     * @param base     可引用的最小位置，没有字典时等于 start
+     * @param dst      目标数组
+     * @param dp       写入位置
+     * @param dstLimit 输出不得超过的位置
+     * @param table    哈希表，调用前清零或经过 {@link #prime}
+     * @return 写入后的位置，超过 dstLimit 时返回 -1
+     */
+    static int compress(byte[] src, int base, int start, int end, byte[] dst, int dp, int dstLimit, int[] table) {
+        ByteBuffer view = ByteBuffer.wrap(src).order(ByteOrder.LITTLE_ENDIAN);
+        int anchor = start;
+        int matchLimit = end - LAST_LITERALS;
+        int limit = end - MF_LIMIT;
+        int i = start;
+        int misses = 0;
+        while (i < limit) {
+            int value = view.getInt(i);
+            int h = hash(value);
+            int ref = table[h] - 1;
+            table[h] = i + 1;
+            if (ref < base || i - ref > MAX_OFFSET || view.getInt(ref) != value) {
+                i += 1 + (misses++ >>> SKIP_TRIGGER);
+                continue;
+            }
+            misses = 0;
+            // 向前扩展
+            while (i > anchor && ref > base && src[i - 1] == src[ref - 1]) {
+                i--;
+                ref--;
+            }
+            int matchLength = MIN_MATCH;
+            // 每次比较 8 字节，第一个不同字节的位置由最低位的 1 得出
+            while (i + matchLength + 8 <= matchLimit) {
+                long diff = view.getLong(i + matchLength) ^ view.getLong(ref + matchLength);
+                if (diff != 0) {
+                    matchLength += Long.numberOfTrailingZeros(diff) >>> 3;
+                    break;
+                }
+                matchLength += 8;
+            }
+            if (i + matchLength + 8 > matchLimit) {
+                while (i + matchLength < matchLimit && src[i + matchLength] == src[ref + matchLength]) {
+                    matchLength++;
+                }
+            }
+            dp = writeSequence(src, anchor, i - anchor, i - ref, matchLength, dst, dp, dstLimit);
+            if (dp < 0) {
+                return -1;
+            }
+            i += matchLength;
+            anchor = i;
+            if (i < limit) {
+                table[hash(view.getInt(i - 2))] = i - 1;
+            }
+        }
+        return writeSequence(src, anchor, end - anchor, 0, 0, dst, dp, dstLimit);
+    }
+
+    /**
+     * 解压到 dst[dp, dstEnd)，必须恰好填满
+     *
+     * @param base dst 中可引用的最小位置，字典放在 [base, dp)
+     * @throws IllegalArgumentException 数据损坏
+     */
+    static void decompress(byte[] src, int sp, int srcEnd, byte[] dst, int base, int dp, int dstEnd) {
+        while (true) {
+            if (sp >= srcEnd) {
+                throw corrupt();
+            }
+            int token = src[sp++] & 0xFF;
+            int literalLength = token >>> 4;
+            if (literalLength == 15) {
+                int b;
+                do {
+                    if (sp >= srcEnd) {
+                        throw corrupt();
+                    }
+                    b = src[sp++] & 0xFF;
+                    literalLength += b;
+                } while (b == 255);
+            }
+            if (literalLength > srcEnd - sp || literalLength > dstEnd - dp) {
+                throw corrupt();
+            }
+            System.arraycopy(src, sp, dst, dp, literalLength);
+            sp += literalLength;
+            dp += literalLength;
+            if (sp == srcEnd) {
+                if (dp != dstEnd) {
+                    throw corrupt();
+                }
+                return;
+            }
+            if (srcEnd - sp < 2) {
+                throw corrupt();
+            }
+            int offset = (src[sp] & 0xFF) | (src[sp + 1] & 0xFF) << 8;
+            sp += 2;
+            int matchLength = token & 0x0F;
+            if (matchLength == 15) {
+                int b;
+                do {
+                    if (sp >= srcEnd) {
+                        throw corrupt();
+                    }
+                    b = src[sp++] & 0xFF;
+                    matchLength += b;
+                } while (b == 255);
+            }
+            matchLength += MIN_MATCH;
+            int ref = dp - offset;
+            if (offset == 0 || ref < base || matchLength > dstEnd - dp) {
+                throw corrupt();
+            }
+            if (offset >= matchLength) {
+                System.arraycopy(dst, ref, dst, dp, matchLength);
+                dp += matchLength;
+            } else {
+                // 重叠复制，逐字节展开重复模式
+                for (int end = dp + matchLength; dp < end; ) {
+                    dst[dp++] = dst[ref++];
+                }
+            }
+        }
+    }
+
+    private static int writeSequence(byte[] src, int anchor, int literalLength, int offset, int matchLength,
+                                     byte[] dst, int dp, int dstLimit) {
+        int required = 1 + literalLength / 255 + 1 + literalLength + (matchLength > 0 ? 2 + matchLength / 255 + 1 : 0);
+        if (dp + required > dstLimit) {
+            return -1;
+        }
+        int token = dp++;
+        if (literalLength >= 15) {
+            dst[token] = (byte) 0xF0;
+            dp = writeLength(dst, dp, literalLength - 15);
+        } else {
+            dst[token] = (byte) (literalLength << 4);
+        }
+        System.arraycopy(src, anchor, dst, dp, literalLength);
+        dp += literalLength;
+        if (matchLength > 0) {
+            dst[dp++] = (byte) offset;
+            dst[dp++] = (byte) (offset >>> 8);
+            int length = matchLength - MIN_MATCH;
+            if (length >= 15) {
+                dst[token] |= 0x0F;
+                dp = writeLength(dst, dp, length - 15);
+            } else {
+                dst[token] |= (byte) length;
+            }
+        }
+        return dp;
+    }
+
+    private static int writeLength(byte[] dst, int dp, int length) {
+        while (length >= 255) {
+            dst[dp++] = (byte) 0xFF;
+            length -= 255;
+        }
+        dst[dp++] = (byte) length;
+        return dp;
+    }
+
+    private static int hash(int value) {
+        return (value * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static IllegalArgumentException corrupt() {
+        return new IllegalArgumentException("Corrupt compressed data");
+    }
+}
@@ -0,0 +1,167 @@
+package com.dw.tool.util;
+
+import java.nio.ByteBuffer;
+import java.util.zip.Checksum;
+
+/**
+ * CRC-16/Modbus（多项式 0x8005 反射即 0xA001，初始值 0xFFFF）
+ * <p>
+ * 查表计算，字节数组按每次 4 字节（slicing-by-4）处理。既可以使用静态方法
+ * {@link #update(int, byte[], int, int)} 在组帧或接收过程中逐段累加，也可以作为 {@link Checksum} 使用。
+ * RTU 报文中 CRC 低字节在前。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 21:30
+ */
+public class ModbusCrc16 implements Checksum {
+
+    /**
+     * CRC 初始值
+     */
+    public static final int INITIAL = 0xFFFF;
+
+    private static final int POLYNOMIAL = 0xA001;
+
+    /**
+     * TABLE[k][b]：字节 b 后跟 k 个 0 字节的 CRC 余数
+     */
+    private static final int[][] TABLE = new int[4][256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i;
+            for (int j = 0; j < 8; j++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ POLYNOMIAL : crc >>> 1;
+            }
+            TABLE[0][i] = crc;
+        }
+        for (int k = 1; k < 4; k++) {
+            for (int i = 0; i < 256; i++) {
+                int crc = TABLE[k - 1][i];
+                TABLE[k][i] = (crc >>> 8) ^ TABLE[0][crc & 0xFF];
+            }
+        }
+    }
+
+    private int crc = INITIAL;
+
+    /**
+     * 计算 CRC
+     *
+     * @param bytes  字节数组
+     * @param offset 起始位置
+     * @param length 字节数
+     * @return CRC，0 ~ 0xFFFF
+     */
+    public static int crc16(byte[] bytes, int offset, int length) {
+        return update(INITIAL, bytes, offset, length);
+    }
+
+    /**
+     * 在已有 CRC 的基础上继续累加
+     *
+     * @param crc    已有 CRC，首次为 {@link #INITIAL}
+     * @param bytes  字节数组
+     * @param offset 起始位置
+     * @param length 字节数
+     * @return 新的 CRC
+     */
+    public static int update(int crc, byte[] bytes, int offset, int length) {
+        int[] t0 = TABLE[0];
+        int[] t1 = TABLE[1];
+        int[] t2 = TABLE[2];
+        int[] t3 = TABLE[3];
+        int i = offset;
+        int end = offset + length;
+        for (int blockEnd = end - 3; i < blockEnd; i += 4) {
+            crc = t3[(crc ^ bytes[i]) & 0xFF]
+                    ^ t2[((crc >>> 8) ^ bytes[i + 1]) & 0xFF]
+                    ^ t1[bytes[i + 2] & 0xFF]
+                    ^ t0[bytes[i + 3] & 0xFF];
+        }
+        for (; i < end; i++) {
+            crc = (crc >>> 8) ^ t0[(crc ^ bytes[i]) & 0xFF];
+        }
+        return crc;
+    }
+
+    /**
+     * 累加 ByteBuffer 中 position 到 limit 的字节，不改变 position
+     *
+     * @param crc    已有 CRC，首次为 {@link #INITIAL}
+     * @param buffer 字节
+     * @return 新的 CRC
+     */
+    public static int update(int crc, ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return update(crc, buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        int[] t0 = TABLE[0];
+        for (int i = buffer.position(), end = buffer.limit(); i < end; i++) {
+            crc = (crc >>> 8) ^ t0[(crc ^ buffer.get(i)) & 0xFF];
+        }
+        return crc;
+    }
+
+    /**
+     * 累加单个字节
+     */
+    public static int update(int crc, int b) {
+        return (crc >>> 8) ^ TABLE[0][(crc ^ b) & 0xFF];
+    }
+
+    /**
+     * 计算 bytes[offset, offset + length) 的 CRC，低字节在前写入其后的两个字节
+     *
+     * @return 写入后的位置
+     */
+    public static int append(byte[] bytes, int offset, int length) {
+        int crc = crc16(bytes, offset, length);
+        int end = offset + length;
+        bytes[end] = (byte) crc;
+        bytes[end + 1] = (byte) (crc >>> 8);
+        return end + 2;
+    }
+
+    /**
+     * 校验以 CRC 结尾的 RTU 报文
+     *
+     * @param bytes  字节数组
+     * @param offset 起始位置
+     * @param length 报文长度，含末尾两字节 CRC
+     * @return CRC 正确返回 true
+     */
+    public static boolean verify(byte[] bytes, int offset, int length) {
+        if (length < 3) {
+            return false;
+        }
+        // 包含 CRC 在内计算的余数为 0
+        return crc16(bytes, offset, length) == 0;
+    }
+
+    @Override
+    public void update(int b) {
+        crc = update(crc, b);
+    }
+
+    @Override
+    public void update(byte[] b, int off, int len) {
+        crc = update(crc, b, off, len);
+    }
+
+    public void update(ByteBuffer buffer) {
+        crc = update(crc, buffer);
+        buffer.position(buffer.limit());
+    }
+
+    @Override
+    public long getValue() {
+        return crc;
+    }
+
+    @Override
+    public void reset() {
+        crc = INITIAL;
+    }
+}
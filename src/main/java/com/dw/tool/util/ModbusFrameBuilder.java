@@ -0,0 +1,154 @@
+package com.dw.tool.util;
+
+import com.serotonin.modbus4j.sero.util.queue.ByteQueue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Modbus 请求帧构造器
+ * <p>
+ * 从站地址、功能码、地址、数量、CRC 直接写入复用的缓冲区。每个线程通过 {@link #local()} 取得自己的实例，
+ * 稳态下组帧不分配对象；{@link #toByteQueue()} 同样复用线程内的 ByteQueue，供 modbus4j 解析为请求。
+ * <pre>
+ * ModbusFrameBuilder builder = ModbusFrameBuilder.local().readRequest(1, 3, 0, 10).appendCrc();
+ * channel.write(builder.array(), 0, builder.length());
+ * </pre>
+ * 实例不是线程安全的，也不要跨调用保存 {@link #array()} 的引用。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 23:05
+ */
+public final class ModbusFrameBuilder {
+
+    /**
+     * 最大帧长：RTU 256 字节，TCP 含 MBAP 头 260 字节
+     */
+    public static final int MAX_FRAME_LENGTH = 260;
+
+    private static final ThreadLocal<ModbusFrameBuilder> LOCAL = ThreadLocal.withInitial(ModbusFrameBuilder::new);
+
+    private final byte[] buffer = new byte[MAX_FRAME_LENGTH];
+
+    private int length;
+
+    /**
+     * 延迟创建，只组帧不交给 modbus4j 时不需要
+     */
+    private ByteQueue queue;
+
+    public ModbusFrameBuilder() {
+    }
+
+    /**
+     * 当前线程的构造器，已清空
+     */
+    public static ModbusFrameBuilder local() {
+        return LOCAL.get().reset();
+    }
+
+    public ModbusFrameBuilder reset() {
+        length = 0;
+        return this;
+    }
+
+    /**
+     * 清空并写入从站地址和功能码
+     */
+    public ModbusFrameBuilder start(int slaveId, int funCode) {
+        return reset().u8(slaveId).u8(funCode);
+    }
+
+    /**
+     * 读请求：从站地址、功能码、起始地址、数量
+     */
+    public ModbusFrameBuilder readRequest(int slaveId, int funCode, int start, int count) {
+        return start(slaveId, funCode).u16(start).u16(count);
+    }
+
+    /**
+     * 单个写请求：写线圈时值只占 1 字节，其余功能码占 2 字节
+     */
+    public ModbusFrameBuilder writeRequest(int slaveId, int funCode, int offset, int value) {
+        start(slaveId, funCode).u16(offset);
+        return funCode == FunctionCode.WRITE_COIL ? u8(value) : u16(value);
+    }
+
+    public ModbusFrameBuilder u8(int value) {
+        ensure(1);
+        buffer[length++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * 2 字节，高字节在前
+     */
+    public ModbusFrameBuilder u16(int value) {
+        ensure(2);
+        buffer[length++] = (byte) (value >>> 8);
+        buffer[length++] = (byte) value;
+        return this;
+    }
+
+    public ModbusFrameBuilder bytes(byte[] src, int offset, int len) {
+        ensure(len);
+        System.arraycopy(src, offset, buffer, length, len);
+        length += len;
+        return this;
+    }
+
+    /**
+     * 追加 CRC，低字节在前，用于 RTU 帧
+     */
+    public ModbusFrameBuilder appendCrc() {
+        ensure(2);
+        length = ModbusCrc16.append(buffer, 0, length);
+        return this;
+    }
+
+    /**
+     * 内部缓冲区，有效数据为 [0, {@link #length()})，下次组帧时会被覆盖
+     */
+    public byte[] array() {
+        return buffer;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * 写入 buffer，不改变本构造器的状态
+     */
+    public void writeTo(ByteBuffer dst) {
+        dst.put(buffer, 0, length);
+    }
+
+    /**
+     * 复用的 ByteQueue，内容为当前帧，供 ModbusRequest.createModbusRequest 解析
+     */
+    public ByteQueue toByteQueue() {
+        if (queue == null) {
+            queue = new ByteQueue(MAX_FRAME_LENGTH);
+        }
+        queue.clear();
+        queue.push(buffer, 0, length);
+        return queue;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    @Override
+    public String toString() {
+        return HexUtils.bytesToHexString(buffer, 0, length);
+    }
+
+    private void ensure(int size) {
+        if (length + size > MAX_FRAME_LENGTH) {
+            throw new IllegalStateException("Modbus frame exceeds " + MAX_FRAME_LENGTH + " bytes");
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.dw.tool.util;
+
+import com.serotonin.modbus4j.ModbusFactory;
+import com.serotonin.modbus4j.ModbusMaster;
+import com.serotonin.modbus4j.exception.ModbusInitException;
+import com.serotonin.modbus4j.exception.ModbusTransportException;
+import com.serotonin.modbus4j.ip.IpParameters;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modbus TCP 主站池
+ * <p>
+ * 每个 ip:port 最多保持 {@code maxMasters} 个已初始化的 {@link ModbusMaster}（keepAlive 模式，每个一条 TCP 连接），
+ * 通过 {@link #execute(String, int, int, MasterCallback)} 借出使用，避免每次读写都建立、断开连接。
+ * <ul>
+ *     <li>健康检查：空闲超过 {@code healthCheckInterval} 的主站借出前先用 testSlaveNode 探测，失败则重建</li>
+ *     <li>空闲回收：空闲超过 {@code idleTimeout} 的主站由共享时间轮销毁</li>
+ *     <li>失败重连：复用的主站发送失败时销毁；可重复执行的操作（读）换新建的主站重试一次，
+ *     写操作可能已到达设备，不重试，直接抛出；新建的主站失败则直接抛出</li>
+ * </ul>
+ * 不再使用时调用 {@link #close()} 销毁所有主站。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 00:40
+ */
+@Slf4j
+public class ModbusMasterPool implements AutoCloseable {
+
+    /**
+     * 所有主站池共享的时间轮，用于空闲回收
+     */
+    private static final HashedTimerWheel TIMER = new HashedTimerWheel("modbus-master-pool-timer", 100, TimeUnit.MILLISECONDS, 512);
+
+    /**
+     * 子池列表，key 为 ip:port
+     */
+    private final Map<String, EndpointPool> pools = new ConcurrentHashMap<>();
+
+    private final ModbusFactory factory = new ModbusFactory();
+
+    /**
+     * 单个 ip:port 的最大主站数
+     */
+    private final int maxMasters;
+
+    /**
+     * 子池已满时的最长等待时间（单位：毫秒）
+     */
+    private final long borrowTimeout;
+
+    private final long idleNanos;
+
+    private final long healthCheckNanos;
+
+    private volatile boolean closed;
+
+    /**
+     * 主站上执行的操作
+     */
+    @FunctionalInterface
+    public interface MasterCallback<T> {
+        T apply(ModbusMaster master) throws ModbusTransportException;
+    }
+
+    /**
+     * @param maxMasters          单个 ip:port 的最大主站数
+     * @param borrowTimeout       子池已满时的最长等待时间（单位：毫秒）
+     * @param idleTimeout         空闲多久后销毁（单位：毫秒）
+     * @param healthCheckInterval 空闲多久后借出前需要探测（单位：毫秒）
+     */
+    public ModbusMasterPool(int maxMasters, long borrowTimeout, long idleTimeout, long healthCheckInterval) {
+        if (maxMasters <= 0 || borrowTimeout <= 0 || idleTimeout <= 0 || healthCheckInterval <= 0) {
+            throw new IllegalArgumentException("maxMasters, borrowTimeout, idleTimeout and healthCheckInterval must be positive");
+        }
+        this.maxMasters = maxMasters;
+        this.borrowTimeout = borrowTimeout;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+        this.healthCheckNanos = TimeUnit.MILLISECONDS.toNanos(healthCheckInterval);
+    }
+
+    /**
+     * 借出主站执行可重复执行的操作（读）后归还，复用的主站通信失败时在新主站上重试一次
+     *
+     * @see #execute(String, int, int, boolean, MasterCallback)
+     */
+    public <T> T execute(String ip, int port, int slaveId, MasterCallback<T> callback) throws ModbusTransportException {
+        return execute(ip, port, slaveId, true, callback);
+    }
+
+    /**
+     * 借出主站执行操作后归还
+     * <p>
+     * 通信失败（包括超时）时请求可能已经到达设备，写操作重试可能重复执行，因此 retryable 为 false 时不重试。
+     *
+     * @param ip        目的ip
+     * @param port      目的port
+     * @param slaveId   从站地址，健康检查时使用
+     * @param retryable 操作可以重复执行（读），复用的主站通信失败时在新主站上重试一次
+     * @param callback  操作，不要在其中保存主站的引用
+     * @return 操作的返回值
+     * @throws ModbusTransportException 通信失败，retryable 时为重试后仍然失败
+     * @throws IllegalStateException    等待主站超时或主站池已关闭
+     */
+    public <T> T execute(String ip, int port, int slaveId, boolean retryable, MasterCallback<T> callback) throws ModbusTransportException {
+        EndpointPool pool = getEndpointPool(ip, port);
+        acquire(pool);
+        try {
+            PooledMaster pooledMaster = pool.pollIdle(slaveId);
+            boolean reused = pooledMaster != null;
+            if (!reused) {
+                pooledMaster = create(pool);
+            }
+            try {
+                return run(pool, pooledMaster, callback);
+            } catch (ModbusTransportException e) {
+                if (!reused || !retryable) {
+                    throw e;
+                }
+                // 复用的连接可能已被设备或中间网络断开，新建一次重试
+                log.info("Modbus 主站通信失败，重新连接 >> {} {}", pool.key, e.getMessage());
+                return run(pool, create(pool), callback);
+            }
+        } finally {
+            pool.permits.release();
+        }
+    }
+
+    /**
+     * 当前打开的主站数
+     */
+    public int getOpenMasters(String ip, int port) {
+        EndpointPool pool = pools.get(getKey(ip, port));
+        return pool == null ? 0 : pool.open;
+    }
+
+    /**
+     * 销毁所有空闲主站，之后的 {@link #execute} 调用失败；借出中的主站在归还时销毁
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (EndpointPool pool : pools.values()) {
+            PooledMaster pooledMaster;
+            while ((pooledMaster = pool.idle.pollFirst()) != null) {
+                discard(pool, pooledMaster);
+            }
+        }
+    }
+
+    /**
+     * 创建并初始化主站，可覆盖以使用其他参数
+     */
+    protected ModbusMaster createMaster(String ip, int port) throws ModbusInitException {
+        IpParameters params = new IpParameters();
+        params.setHost(ip);
+        params.setPort(port);
+        params.setEncapsulated(false);
+        // keepAlive 为 true 时连接在多次请求之间保持
+        ModbusMaster master = factory.createTcpMaster(params, true);
+        master.init();
+        return master;
+    }
+
+    private <T> T run(EndpointPool pool, PooledMaster pooledMaster, MasterCallback<T> callback) throws ModbusTransportException {
+        pooledMaster.lastUseNanos = System.nanoTime();
+        boolean healthy = false;
+        try {
+            T result = callback.apply(pooledMaster.master);
+            healthy = true;
+            return result;
+        } catch (RuntimeException e) {
+            // 业务异常（如设备返回异常码）不影响连接
+            healthy = true;
+            throw e;
+        } finally {
+            if (healthy) {
+                release(pool, pooledMaster);
+            } else {
+                discard(pool, pooledMaster);
+            }
+        }
+    }
+
+    private PooledMaster create(EndpointPool pool) {
+        if (closed) {
+            throw new IllegalStateException("Modbus 主站池已关闭");
+        }
+        try {
+            PooledMaster pooledMaster = new PooledMaster(createMaster(pool.ip, pool.port));
+            synchronized (pool) {
+                pool.open++;
+            }
+            log.debug("创建 Modbus 主站 >> {}", pool.key);
+            return pooledMaster;
+        } catch (ModbusInitException e) {
+            log.error("init modbusMaster failed! {}", pool.key, e);
+            throw new RuntimeException("init modbusMaster failed", e);
+        }
+    }
+
+    private void release(EndpointPool pool, PooledMaster pooledMaster) {
+        pooledMaster.lastUseNanos = System.nanoTime();
+        if (closed) {
+            discard(pool, pooledMaster);
+            return;
+        }
+        pool.idle.offerFirst(pooledMaster);
+        // 归还的同时主站池被关闭
+        if (closed && pool.idle.remove(pooledMaster)) {
+            discard(pool, pooledMaster);
+            return;
+        }
+        if (pooledMaster.evictTimer == null) {
+            scheduleEviction(pool, pooledMaster, idleNanos);
+        }
+    }
+
+    private void discard(EndpointPool pool, PooledMaster pooledMaster) {
+        if (pooledMaster.destroyed) {
+            return;
+        }
+        pooledMaster.destroyed = true;
+        if (pooledMaster.evictTimer != null) {
+            pooledMaster.evictTimer.cancel();
+        }
+        synchronized (pool) {
+            pool.open--;
+        }
+        try {
+            pooledMaster.master.destroy();
+        } catch (RuntimeException e) {
+            log.warn("销毁 Modbus 主站失败 >> {}", pool.key, e);
+        }
+    }
+
+    private void scheduleEviction(EndpointPool pool, PooledMaster pooledMaster, long delayNanos) {
+        pooledMaster.evictTimer = TIMER.schedule(() -> checkEviction(pool, pooledMaster), delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 回收检查，在时间轮线程上执行：空闲超时的主站销毁，否则按最后使用时间重新安排
+     */
+    private void checkEviction(EndpointPool pool, PooledMaster pooledMaster) {
+        if (pooledMaster.destroyed) {
+            return;
+        }
+        long idleFor = System.nanoTime() - pooledMaster.lastUseNanos;
+        // remove 成功才说明主站没有被其他线程同时借出
+        if (idleFor >= idleNanos && pool.idle.remove(pooledMaster)) {
+            log.debug("回收空闲 Modbus 主站 >> {}", pool.key);
+            discard(pool, pooledMaster);
+            return;
+        }
+        scheduleEviction(pool, pooledMaster, Math.max(idleNanos - idleFor, TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+
+    private void acquire(EndpointPool pool) {
+        if (closed) {
+            throw new IllegalStateException("Modbus 主站池已关闭");
+        }
+        try {
+            if (!pool.permits.tryAcquire(borrowTimeout, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("无法获取 Modbus 主站：等待超时 " + pool.key);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("无法获取 Modbus 主站：等待被中断 " + pool.key, e);
+        }
+    }
+
+    private EndpointPool getEndpointPool(String ip, int port) {
+        String key = getKey(ip, port);
+        EndpointPool pool = pools.get(key);
+        return pool != null ? pool : pools.computeIfAbsent(key, k -> new EndpointPool(ip, port, k));
+    }
+
+    private String getKey(String ip, int port) {
+        return ip + ":" + port;
+    }
+
+    /**
+     * 单个 ip:port 的子池
+     */
+    private class EndpointPool {
+        private final String ip;
+        private final int port;
+        private final String key;
+        /**
+         * 借出名额，限制单个 ip:port 同时使用的主站数
+         */
+        private final Semaphore permits = new Semaphore(maxMasters, true);
+        /**
+         * 空闲主站，队头为最近归还的
+         */
+        private final ConcurrentLinkedDeque<PooledMaster> idle = new ConcurrentLinkedDeque<>();
+        /**
+         * 打开的主站数，由 this 保护
+         */
+        private int open;
+
+        EndpointPool(String ip, int port, String key) {
+            this.ip = ip;
+            this.port = port;
+            this.key = key;
+        }
+
+        /**
+         * 取出一个可用的空闲主站，未初始化或探测失败的直接销毁
+         */
+        private PooledMaster pollIdle(int slaveId) {
+            PooledMaster pooledMaster;
+            while ((pooledMaster = idle.pollFirst()) != null) {
+                if (!pooledMaster.master.isInitialized()) {
+                    discard(this, pooledMaster);
+                    continue;
+                }
+                if (System.nanoTime() - pooledMaster.lastUseNanos >= healthCheckNanos
+                        && !pooledMaster.master.testSlaveNode(slaveId)) {
+                    log.info("Modbus 主站健康检查失败 >> {}", key);
+                    discard(this, pooledMaster);
+                    continue;
+                }
+                return pooledMaster;
+            }
+            return null;
+        }
+    }
+
+    private static class PooledMaster {
+        private final ModbusMaster master;
+        private volatile long lastUseNanos = System.nanoTime();
+        private volatile boolean destroyed;
+        private volatile HashedTimerWheel.Timeout evictTimer;
+
+        PooledMaster(ModbusMaster master) {
+            this.master = master;
+        }
+    }
+}
@@ -0,0 +1,469 @@
+package com.dw.tool.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Modbus 读取计划
+ * <p>
+ * 把一台设备上零散的点位（功能码、起始地址、长度）按功能码分组、按地址排序后合并成尽量少的块读取：
+ * 03/04 功能码每块不超过 {@value #MAX_REGISTERS} 个寄存器，01/02 功能码每块不超过 {@value #MAX_BITS} 个位。
+ * 相邻点位之间的空隙不超过容差时合并，空隙中的数据会被读出后丢弃；部分设备读取未定义的地址会返回异常码，
+ * 此时容差应设为 0，只合并相邻和重叠的点位。单个点位不会被拆到两个块中。
+ * <p>
+ * 读取结果按点位顺序拼接：寄存器点位的值依次放在一个 short[] 中，位点位的值依次放在一个 boolean[] 中，
+ * 每个点位的起始下标由 {@link ReadPlan#getValueOffset(int)} 给出。计划不可变，可以缓存后反复执行。
+ * <pre>
+ * ModbusReadPlanner.ReadPlan plan = new ModbusReadPlanner(8, 32).plan(points);
+ * ModbusReadPlanner.ReadResult result = ModbusTCPUtil.readPoints(master, 1, plan);
+ * short[] voltage = result.getRegisters(0);
+ * </pre>
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 01:10
+ */
+public class ModbusReadPlanner {
+
+    /**
+     * 03/04 功能码单次最多读取的寄存器数
+     */
+    public static final int MAX_REGISTERS = 125;
+
+    /**
+     * 01/02 功能码单次最多读取的位数
+     */
+    public static final int MAX_BITS = 2000;
+
+    private static final int ADDRESS_SPACE = 0x10000;
+
+    /**
+     * 寄存器点位之间允许合并的最大空隙（单位：寄存器）
+     */
+    private final int registerGap;
+
+    /**
+     * 位点位之间允许合并的最大空隙（单位：位）
+     */
+    private final int bitGap;
+
+    private final int maxRegisters;
+
+    private final int maxBits;
+
+    /**
+     * 不允许空隙，只合并相邻和重叠的点位
+     */
+    public ModbusReadPlanner() {
+        this(0, 0);
+    }
+
+    /**
+     * @param registerGap 寄存器点位之间允许合并的最大空隙（单位：寄存器）
+     * @param bitGap      位点位之间允许合并的最大空隙（单位：位）
+     */
+    public ModbusReadPlanner(int registerGap, int bitGap) {
+        this(registerGap, bitGap, MAX_REGISTERS, MAX_BITS);
+    }
+
+    /**
+     * @param registerGap  寄存器点位之间允许合并的最大空隙（单位：寄存器）
+     * @param bitGap       位点位之间允许合并的最大空隙（单位：位）
+     * @param maxRegisters 每块最多寄存器数，部分设备小于协议上限
+     * @param maxBits      每块最多位数
+     */
+    public ModbusReadPlanner(int registerGap, int bitGap, int maxRegisters, int maxBits) {
+        if (registerGap < 0 || bitGap < 0) {
+            throw new IllegalArgumentException("gap must not be negative");
+        }
+        if (maxRegisters <= 0 || maxRegisters > MAX_REGISTERS || maxBits <= 0 || maxBits > MAX_BITS) {
+            throw new IllegalArgumentException("block size out of range: " + maxRegisters + " registers, " + maxBits + " bits");
+        }
+        this.registerGap = registerGap;
+        this.bitGap = bitGap;
+        this.maxRegisters = maxRegisters;
+        this.maxBits = maxBits;
+    }
+
+    /**
+     * 生成读取计划
+     *
+     * @param points 点位，结果中的点位序号即在此列表中的下标
+     * @throws IllegalArgumentException 功能码不是 01/02/03/04，或地址、长度超出范围
+     */
+    public ReadPlan plan(List<Point> points) {
+        int count = points.size();
+        Point[] copy = points.toArray(new Point[0]);
+        int[] valueOffsets = new int[count];
+        int registerLength = 0;
+        int bitLength = 0;
+        for (int i = 0; i < count; i++) {
+            Point point = copy[i];
+            int limit = isBit(point.functionCode) ? maxBits : maxRegisters;
+            if (point.length > limit) {
+                throw new IllegalArgumentException("point length " + point.length + " exceeds block limit " + limit + ": " + point);
+            }
+            if (isBit(point.functionCode)) {
+                valueOffsets[i] = bitLength;
+                bitLength += point.length;
+            } else {
+                valueOffsets[i] = registerLength;
+                registerLength += point.length;
+            }
+        }
+
+        // 按功能码、地址排序，同一地址长的在前
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> copy[i].functionCode)
+                .thenComparingInt(i -> copy[i].address)
+                .thenComparingInt(i -> -copy[i].length));
+
+        List<Block> blocks = new ArrayList<>();
+        int first = 0;
+        while (first < count) {
+            Point head = copy[order[first]];
+            int functionCode = head.functionCode;
+            int gap = isBit(functionCode) ? bitGap : registerGap;
+            int limit = isBit(functionCode) ? maxBits : maxRegisters;
+            int start = head.address;
+            int end = head.end();
+            int last = first + 1;
+            while (last < count) {
+                Point next = copy[order[last]];
+                if (next.functionCode != functionCode || next.address - end > gap
+                        || Math.max(end, next.end()) - start > limit) {
+                    break;
+                }
+                end = Math.max(end, next.end());
+                last++;
+            }
+            int[] members = new int[last - first];
+            for (int i = first; i < last; i++) {
+                members[i - first] = order[i];
+            }
+            blocks.add(new Block(functionCode, start, end - start, members));
+            first = last;
+        }
+        return new ReadPlan(copy, blocks, valueOffsets, registerLength, bitLength);
+    }
+
+    static boolean isBit(int functionCode) {
+        return functionCode == FunctionCode.READ_COILS || functionCode == FunctionCode.READ_DISCRETE_INPUTS;
+    }
+
+    /**
+     * 按块读取数据，由 {@link ReadPlan#read(BlockReader)} 依次调用
+     */
+    public interface BlockReader {
+
+        /**
+         * 读取寄存器（功能码03/04）
+         *
+         * @return 至少 count 个寄存器
+         */
+        short[] readRegisters(int slaveId, int functionCode, int start, int count) throws Exception;
+
+        /**
+         * 读取位（功能码01/02）
+         *
+         * @return 至少 count 个位，多出的部分忽略
+         */
+        boolean[] readBits(int slaveId, int functionCode, int start, int count) throws Exception;
+    }
+
+    /**
+     * 点位
+     */
+    public static class Point {
+
+        private final int functionCode;
+        private final int address;
+        private final int length;
+        private final String name;
+
+        /**
+         * @param functionCode 读功能码：01/02/03/04
+         * @param address      起始地址，从 0 开始
+         * @param length       寄存器数或位数
+         * @param name         名称，只用于日志，可以为 null
+         */
+        public Point(int functionCode, int address, int length, String name) {
+            if (functionCode < FunctionCode.READ_COILS || functionCode > FunctionCode.READ_INPUT_REGISTERS) {
+                throw new IllegalArgumentException("unsupported function code: " + functionCode);
+            }
+            if (length <= 0 || address < 0 || address + length > ADDRESS_SPACE) {
+                throw new IllegalArgumentException("address out of range: " + address + "+" + length);
+            }
+            this.functionCode = functionCode;
+            this.address = address;
+            this.length = length;
+            this.name = name;
+        }
+
+        public static Point coil(int address, String name) {
+            return new Point(FunctionCode.READ_COILS, address, 1, name);
+        }
+
+        public static Point discreteInput(int address, String name) {
+            return new Point(FunctionCode.READ_DISCRETE_INPUTS, address, 1, name);
+        }
+
+        public static Point holding(int address, int length, String name) {
+            return new Point(FunctionCode.READ_HOLDING_REGISTERS, address, length, name);
+        }
+
+        public static Point input(int address, int length, String name) {
+            return new Point(FunctionCode.READ_INPUT_REGISTERS, address, length, name);
+        }
+
+        public int getFunctionCode() {
+            return functionCode;
+        }
+
+        public int getAddress() {
+            return address;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isBit() {
+            return ModbusReadPlanner.isBit(functionCode);
+        }
+
+        int end() {
+            return address + length;
+        }
+
+        @Override
+        public String toString() {
+            return (name == null ? "" : name + " ") + "fc" + functionCode + " " + address + "+" + length;
+        }
+    }
+
+    /**
+     * 一次块读取
+     */
+    public static class Block {
+
+        private final int functionCode;
+        private final int start;
+        private final int count;
+        private final int[] points;
+
+        Block(int functionCode, int start, int count, int[] points) {
+            this.functionCode = functionCode;
+            this.start = start;
+            this.count = count;
+            this.points = points;
+        }
+
+        public int getFunctionCode() {
+            return functionCode;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * 寄存器数或位数
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * 块中包含的点位序号
+         */
+        public int[] getPoints() {
+            return points.clone();
+        }
+
+        @Override
+        public String toString() {
+            return "fc" + functionCode + " " + start + "+" + count + " (" + points.length + " points)";
+        }
+    }
+
+    /**
+     * 读取计划，不可变
+     */
+    public static class ReadPlan {
+
+        private final Point[] points;
+        private final List<Block> blocks;
+        private final int[] valueOffsets;
+        private final int registerLength;
+        private final int bitLength;
+
+        ReadPlan(Point[] points, List<Block> blocks, int[] valueOffsets, int registerLength, int bitLength) {
+            this.points = points;
+            this.blocks = Collections.unmodifiableList(blocks);
+            this.valueOffsets = valueOffsets;
+            this.registerLength = registerLength;
+            this.bitLength = bitLength;
+        }
+
+        public List<Block> getBlocks() {
+            return blocks;
+        }
+
+        public int getPointCount() {
+            return points.length;
+        }
+
+        public Point getPoint(int index) {
+            return points[index];
+        }
+
+        /**
+         * 点位的值在结果数组中的起始下标，寄存器点位对应 short[]，位点位对应 boolean[]
+         */
+        public int getValueOffset(int index) {
+            return valueOffsets[index];
+        }
+
+        /**
+         * 所有寄存器点位的长度之和
+         */
+        public int getRegisterLength() {
+            return registerLength;
+        }
+
+        /**
+         * 所有位点位的长度之和
+         */
+        public int getBitLength() {
+            return bitLength;
+        }
+
+        /**
+         * 把一个块读到的寄存器分发到各点位
+         *
+         * @param data      块读取结果，从块起始地址开始
+         * @param registers 结果数组，长度至少 {@link #getRegisterLength()}
+         */
+        public void scatter(Block block, short[] data, short[] registers) {
+            checkLength(block, data.length);
+            for (int index : block.points) {
+                Point point = points[index];
+                System.arraycopy(data, point.address - block.start, registers, valueOffsets[index], point.length);
+            }
+        }
+
+        /**
+         * 把一个块读到的位分发到各点位
+         *
+         * @param data 块读取结果，从块起始地址开始
+         * @param bits 结果数组，长度至少 {@link #getBitLength()}
+         */
+        public void scatter(Block block, boolean[] data, boolean[] bits) {
+            checkLength(block, data.length);
+            for (int index : block.points) {
+                Point point = points[index];
+                System.arraycopy(data, point.address - block.start, bits, valueOffsets[index], point.length);
+            }
+        }
+
+        /**
+         * 按计划逐块读取并分发结果
+         */
+        public ReadResult read(int slaveId, BlockReader reader) throws Exception {
+            ReadResult result = new ReadResult(this);
+            for (Block block : blocks) {
+                if (isBit(block.functionCode)) {
+                    scatter(block, reader.readBits(slaveId, block.functionCode, block.start, block.count), result.bits);
+                } else {
+                    scatter(block, reader.readRegisters(slaveId, block.functionCode, block.start, block.count), result.registers);
+                }
+            }
+            return result;
+        }
+
+        private static void checkLength(Block block, int length) {
+            if (length < block.count) {
+                throw new IllegalArgumentException("short response for block " + block + ": " + length);
+            }
+        }
+    }
+
+    /**
+     * 读取结果
+     */
+    public static class ReadResult {
+
+        private final ReadPlan plan;
+        private final short[] registers;
+        private final boolean[] bits;
+
+        public ReadResult(ReadPlan plan) {
+            this.plan = plan;
+            this.registers = new short[plan.registerLength];
+            this.bits = new boolean[plan.bitLength];
+        }
+
+        public ReadPlan getPlan() {
+            return plan;
+        }
+
+        /**
+         * 所有寄存器点位的值，按点位顺序拼接
+         */
+        public short[] getRegisterValues() {
+            return registers;
+        }
+
+        /**
+         * 所有位点位的值，按点位顺序拼接
+         */
+        public boolean[] getBitValues() {
+            return bits;
+        }
+
+        /**
+         * 寄存器点位的值
+         */
+        public short[] getRegisters(int index) {
+            int offset = plan.valueOffsets[index];
+            return Arrays.copyOfRange(registers, offset, offset + checkRegister(index).length);
+        }
+
+        /**
+         * 寄存器点位第一个寄存器的无符号值
+         */
+        public int getRegister(int index) {
+            checkRegister(index);
+            return registers[plan.valueOffsets[index]] & 0xFFFF;
+        }
+
+        /**
+         * 位点位的第一个位
+         */
+        public boolean getBit(int index) {
+            if (!plan.points[index].isBit()) {
+                throw new IllegalArgumentException("not a bit point: " + plan.points[index]);
+            }
+            return bits[plan.valueOffsets[index]];
+        }
+
+        private Point checkRegister(int index) {
+            Point point = plan.points[index];
+            if (point.isBit()) {
+                throw new IllegalArgumentException("not a register point: " + point);
+            }
+            return point;
+        }
+    }
+}
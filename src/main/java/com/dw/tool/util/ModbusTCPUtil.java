@@ -6,11 +6,13 @@ import com.serotonin.modbus4j.ModbusMaster;
 import com.serotonin.modbus4j.exception.ModbusInitException;
 import com.serotonin.modbus4j.ip.IpParameters;
 import com.serotonin.modbus4j.msg.*;
-import com.serotonin.modbus4j.sero.util.queue.ByteQueue;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author yanggj
@@ -22,6 +24,26 @@ public class ModbusTCPUtil {
 
     private static final ModbusFactory factory = new ModbusFactory();
 
+    /**
+     * 流水线模式下单个连接同时等待响应的请求数
+     */
+    public static final int PIPELINE_WINDOW = 8;
+
+    /**
+     * 延迟创建流水线客户端，只使用同步接口时不启动 I/O 线程
+     */
+    private static class PipelinedClientHolder {
+        private static final PipelinedModbusTcpClient CLIENT = create();
+
+        private static PipelinedModbusTcpClient create() {
+            try {
+                return new PipelinedModbusTcpClient(Math.min(4, Runtime.getRuntime().availableProcessors()), PIPELINE_WINDOW, 3000);
+            } catch (IOException e) {
+                throw new UncheckedIOException("init PipelinedModbusTcpClient failed", e);
+            }
+        }
+    }
+
     public static ModbusMaster createMaster(String ip, int port) {
         IpParameters params = new IpParameters();
         params.setHost(ip);
@@ -158,19 +180,50 @@ public class ModbusTCPUtil {
         return response.getShortData();
     }
 
+    /**
+     * 按读取计划合并读取多个点位，每块一次请求
+     *
+     * @see ModbusReadPlanner
+     */
+    public static ModbusReadPlanner.ReadResult readPoints(ModbusMaster master, int slaveId, ModbusReadPlanner.ReadPlan plan) throws Exception {
+        return plan.read(slaveId, new ModbusReadPlanner.BlockReader() {
+            @Override
+            public short[] readRegisters(int slaveId, int functionCode, int start, int count) throws Exception {
+                return functionCode == FunctionCode.READ_INPUT_REGISTERS
+                        ? readInputRegisters(master, slaveId, start, count)
+                        : readHoldingRegisters(master, slaveId, start, count);
+            }
+
+            @Override
+            public boolean[] readBits(int slaveId, int functionCode, int start, int count) throws Exception {
+                return functionCode == FunctionCode.READ_DISCRETE_INPUTS
+                        ? readDiscreteInputs(master, slaveId, start, count)
+                        : readCoils(master, slaveId, start, count);
+            }
+        });
+    }
+
+    /**
+     * 读取保持寄存器（功能码03），流水线模式
+     * <p>
+     * 同一 ip:port 的多个请求复用一个连接，不等待前一个响应即可发出，
+     * 按 MBAP 事务标识符匹配响应。同一连接最多 {@value #PIPELINE_WINDOW} 个请求同时等待响应，
+     * 需要其他窗口大小时可自行创建 {@link PipelinedModbusTcpClient}。
+     */
+    public static CompletableFuture<short[]> readHoldingRegistersAsync(String ip, int port, int slaveId, int startOffset, int numberOfRegisters) {
+        return PipelinedClientHolder.CLIENT.readHoldingRegisters(new InetSocketAddress(ip, port), slaveId, startOffset, numberOfRegisters);
+    }
+
+    /**
+     * 读取输入寄存器（功能码04），流水线模式
+     */
+    public static CompletableFuture<short[]> readInputRegistersAsync(String ip, int port, int slaveId, int startOffset, int len) {
+        return PipelinedClientHolder.CLIENT.readInputRegisters(new InetSocketAddress(ip, port), slaveId, startOffset, len);
+    }
+
     public static void doWrite(ModbusMaster master, int slaveId, int funCode, int offset, Integer val) throws Exception {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        outputStream.write(slaveId);
-        outputStream.write(funCode);
-        outputStream.write(ByteArrHelper.getInstance().int2twobytes(offset));
-        if (funCode != FunctionCode.WRITE_COIL) {
-            outputStream.write(ByteArrHelper.getInstance().int2twobytes(val));
-        } else {
-            //写线圈
-            outputStream.write(val);
-        }
-        outputStream.flush();
-        ModbusRequest request = ModbusRequest.createModbusRequest(new ByteQueue(outputStream.toByteArray()));
+        ModbusFrameBuilder builder = ModbusFrameBuilder.local().writeRequest(slaveId, funCode, offset, val);
+        ModbusRequest request = ModbusRequest.createModbusRequest(builder.toByteQueue());
         ModbusResponse response = master.send(request);
         if (response.isException()) {
             throw new RuntimeException(String.format("modbus控制失败！:req is->%s,rsp err->%s", JSONUtil.toJsonStr(request), response.getExceptionMessage()));
@@ -1,173 +1,122 @@
 package com.dw.tool.util;
 
 import cn.hutool.json.JSONUtil;
-import com.serotonin.modbus4j.ModbusFactory;
 import com.serotonin.modbus4j.ModbusMaster;
-import com.serotonin.modbus4j.exception.ModbusInitException;
 import com.serotonin.modbus4j.exception.ModbusTransportException;
-import com.serotonin.modbus4j.ip.IpParameters;
 import com.serotonin.modbus4j.msg.*;
-import com.serotonin.modbus4j.sero.util.queue.ByteQueue;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.ByteArrayOutputStream;
 import java.util.List;
 import java.util.regex.Pattern;
 
 @Slf4j
 public class ModbusUtil {
 
-    private ModbusUtil() {
-    }
-
     /**
-     * @param ip   目的ip
-     * @param port 目的port
-     * @return /
+     * 单个 ip:port 的最大主站数（TCP 连接数）
      */
-    private ModbusMaster getMaster(String ip, int port) {
-        return getMaster(ip, port, true);
-    }
+    private static final int maxMasters = 4;
+    // 获取主站的最长等待时间 单位 ms
+    private static final long borrowTimeout = 3000;
+    // 主站空闲多久后断开 单位 ms
+    private static final long idleTimeout = 60_000;
+    // 主站空闲多久后借出前先探测 单位 ms
+    private static final long healthCheckInterval = 15_000;
 
     /**
-     * @param ip      目的ip
-     * @param port    目的port
-     * @param rtuMode 报文格式  true是rtu报文格式 （默认） false是tcp报文格式
-     * @return /
+     * 所有静态方法共用的主站池，连接在多次调用之间保持
      */
-    private ModbusMaster getMaster(String ip, int port, Boolean rtuMode) {
-        if (rtuMode == null) {
-            rtuMode = true;
-        }
-        IpParameters params = new IpParameters();
-        params.setHost(ip);
-        params.setPort(port);
-        params.setEncapsulated(false);
-        ModbusFactory modbusFactory = new ModbusFactory();
-        ModbusMaster master = modbusFactory.createTcpMaster(params, false);
-        try {
-            master.init();
-        } catch (ModbusInitException e) {
-            log.error("init modbusMaster failed!", e);
-            throw new RuntimeException("nit modbusMaster failed");
-        }
-        return master;
+    private static final ModbusMasterPool masterPool = new ModbusMasterPool(maxMasters, borrowTimeout, idleTimeout, healthCheckInterval);
+
+    private ModbusUtil() {
     }
 
+    /**
+     * @param rtuMode 报文格式  true是rtu报文格式 （默认） false是tcp报文格式，目前均使用 tcp 报文格式
+     */
     public static short[] readHoldingRegisters(String ip, int port, int slaveId, int start, int len, Boolean rtuMode) throws ModbusTransportException {
-        ModbusMaster master = new ModbusUtil().getMaster(ip, port, rtuMode);
-        ReadHoldingRegistersRequest request = new ReadHoldingRegistersRequest(slaveId, start, len);
-        ReadHoldingRegistersResponse response = (ReadHoldingRegistersResponse) master.send(request);
-        master.destroy();
-        if (response.isException()) {
-            log.error("modbus读取失败！:req is->{},rsp err->{}", request, response.getExceptionMessage());
-            throw new BadRequestException("获取数据失败");
-        }
-        return response.getShortData();
+        return masterPool.execute(ip, port, slaveId, master -> {
+            ReadHoldingRegistersRequest request = new ReadHoldingRegistersRequest(slaveId, start, len);
+            ReadHoldingRegistersResponse response = (ReadHoldingRegistersResponse) master.send(request);
+            if (response.isException()) {
+                log.error("modbus读取失败！:req is->{},rsp err->{}", request, response.getExceptionMessage());
+                throw new BadRequestException("获取数据失败");
+            }
+            return response.getShortData();
+        });
     }
 
     public static byte[] readHoldingRegistersAll(String ip, int port, int slaveId, int funCode, int start, int len, Boolean rtuMode) throws ModbusTransportException {
-        ModbusMaster master = new ModbusUtil().getMaster(ip, port, rtuMode);
-
-        ReadHoldingRegistersRequest request = new ReadHoldingRegistersRequest(slaveId, start, len);
-        ReadHoldingRegistersResponse response = (ReadHoldingRegistersResponse) master.send(request);
-        master.destroy();
-        if (response.isException()) {
-            log.error("modbus读取失败！:req is->{},rsp err->{}", request, response.getExceptionMessage());
-            throw new BadRequestException("获取数据失败");
-        }
-        return response.getData();
+        return masterPool.execute(ip, port, slaveId, master -> {
+            ReadHoldingRegistersRequest request = new ReadHoldingRegistersRequest(slaveId, start, len);
+            ReadHoldingRegistersResponse response = (ReadHoldingRegistersResponse) master.send(request);
+            if (response.isException()) {
+                log.error("modbus读取失败！:req is->{},rsp err->{}", request, response.getExceptionMessage());
+                throw new BadRequestException("获取数据失败");
+            }
+            return response.getData();
+        });
     }
 
     public static boolean writeRegister(String ip, int port, int slaveId, int offset, short[] sdata, Boolean rtuMode) throws ModbusTransportException {
-        ModbusMaster master = new ModbusUtil().getMaster(ip, port, rtuMode);
-        WriteRegistersRequest request = new WriteRegistersRequest(slaveId, offset, sdata);
-        WriteRegistersResponse response = (WriteRegistersResponse) master.send(request);
-        master.destroy();
-        if (response.isException()) {
-            log.error("modbus控制失败！:req is->{},rsp err->{}", request, response.getExceptionMessage());
-            return false;
-        }
-        return true;
+        return masterPool.execute(ip, port, slaveId, false, master -> {
+            WriteRegistersRequest request = new WriteRegistersRequest(slaveId, offset, sdata);
+            WriteRegistersResponse response = (WriteRegistersResponse) master.send(request);
+            if (response.isException()) {
+                log.error("modbus控制失败！:req is->{},rsp err->{}", request, response.getExceptionMessage());
+                return false;
+            }
+            return true;
+        });
     }
 
     //多读
     public static byte[] read(String ip, int port, int slaveId, int funCode, int start, int len, Boolean rtuMode) throws Exception {
-
-        ModbusMaster master = null;
-        try {
-            master = new ModbusUtil().getMaster(ip, port, rtuMode);
-            ByteArrayOutputStream head = new ByteArrayOutputStream();
-            head.write(slaveId);
-            head.write(funCode);
-            head.flush();
-            ByteArrayOutputStream body = new ByteArrayOutputStream();
-            body.write(head.toByteArray());
-            body.write(ByteArrHelper.getInstance().int2twobytes(start));
-            body.write(ByteArrHelper.getInstance().int2twobytes(len));
-            body.flush();
-            ModbusRequest request = ModbusRequest.createModbusRequest(new ByteQueue(body.toByteArray()));
+        return masterPool.execute(ip, port, slaveId, master -> {
+            ModbusFrameBuilder builder = ModbusFrameBuilder.local().readRequest(slaveId, funCode, start, len);
+            ModbusRequest request = ModbusRequest.createModbusRequest(builder.toByteQueue());
             ReadResponse response = (ReadResponse) master.send(request);
 
             if (response.isException()) {
                 throw new RuntimeException(String.format("modbus读取失败！:req is->%s,rsp err->%s", JSONUtil.toJsonStr(request), response.getExceptionMessage()));
             }
-            head.write(response.getData().length);
-            head.write(response.getData());
-            return head.toByteArray();
-        } finally {
-            if (master != null) {
-                master.destroy();
-            }
-        }
-    }
-
-    //单独写
+            // 从站地址、功能码、字节数、数据
+            byte[] data = response.getData();
+            byte[] result = new byte[3 + data.length];
+            result[0] = (byte) slaveId;
+            result[1] = (byte) funCode;
+            result[2] = (byte) data.length;
+            System.arraycopy(data, 0, result, 3, data.length);
+            return result;
+        });
+    }
+
+    //单独写，通信失败不重试
     public static void write(String ip, int port, int slaveId, int funCode, int offset, Integer val, Boolean rtuMode) throws Exception {
-        ModbusMaster master = null;
-        try {
-            master = new ModbusUtil().getMaster(ip, port, rtuMode);
+        masterPool.execute(ip, port, slaveId, false, master -> {
             doWrite(master, slaveId, funCode, offset, val);
-        } finally {
-            if (master != null) {
-                master.destroy();
-            }
-        }
+            return null;
+        });
     }
 
     /**
-     * 多次单位置写入
+     * 多次单位置写入，使用同一个主站；通信失败时不重试，之前的写入可能已经生效，由调用方确认设备状态
      */
     public static void batchWrite(String ip, int port, int slaveId, int funCode, List<BatchWriteInfo> batchWriteInfoList, Boolean rtuMode) throws Exception {
-        ModbusMaster master = null;
-        try {
-            master = new ModbusUtil().getMaster(ip, port, rtuMode);
+        masterPool.execute(ip, port, slaveId, false, master -> {
             for (BatchWriteInfo batchWriteInfo : batchWriteInfoList) {
                 int offset = batchWriteInfo.offset;
                 Integer val = batchWriteInfo.getVal();
                 doWrite(master, slaveId, funCode, offset, val);
             }
-        } finally {
-            if (master != null) {
-                master.destroy();
-            }
-        }
+            return null;
+        });
     }
 
-    private static void doWrite(ModbusMaster master, int slaveId, int funCode, int offset, Integer val) throws Exception {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        outputStream.write(slaveId);
-        outputStream.write(funCode);
-        outputStream.write(ByteArrHelper.getInstance().int2twobytes(offset));
-        if (funCode != FunctionCode.WRITE_COIL) {
-            outputStream.write(ByteArrHelper.getInstance().int2twobytes(val));
-        } else {
-            //写线圈
-            outputStream.write(val);
-        }
-        outputStream.flush();
-        ModbusRequest request = ModbusRequest.createModbusRequest(new ByteQueue(outputStream.toByteArray()));
+    private static void doWrite(ModbusMaster master, int slaveId, int funCode, int offset, Integer val) throws ModbusTransportException {
+        ModbusFrameBuilder builder = ModbusFrameBuilder.local().writeRequest(slaveId, funCode, offset, val);
+        ModbusRequest request = ModbusRequest.createModbusRequest(builder.toByteQueue());
         ModbusResponse response = master.send(request);
         if (response.isException()) {
             throw new RuntimeException(String.format("modbus控制失败！:req is->%s,rsp err->%s", JSONUtil.toJsonStr(request), response.getExceptionMessage()));
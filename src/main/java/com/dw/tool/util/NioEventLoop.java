@@ -0,0 +1,129 @@
+package com.dw.tool.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * NIO I/O 线程：一个 Selector 加一个任务队列
+ * <p>
+ * 注册到本线程的连接只能在本线程中访问，其他线程通过 {@link #execute(Runnable)} 投递任务。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 14:20
+ */
+@Slf4j
+class NioEventLoop implements Runnable {
+
+    /**
+     * 连接事件处理器，作为 {@link SelectionKey} 的 attachment
+     */
+    interface Handler {
+        void onReady(SelectionKey key);
+
+        /**
+         * onReady 抛出运行时异常（如调用方提供的分帧器出错）时调用，应结束该连接上的请求并关闭连接
+         */
+        void onError(RuntimeException e);
+    }
+
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile Runnable shutdownHook;
+
+    NioEventLoop(String name) throws IOException {
+        this.selector = Selector.open();
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    void execute(Runnable task) {
+        tasks.add(task);
+        if (Thread.currentThread() != thread) {
+            selector.wakeup();
+        }
+    }
+
+    SelectionKey register(SocketChannel channel, Handler handler) throws ClosedChannelException {
+        return channel.register(selector, 0, handler);
+    }
+
+    /**
+     * 停止 I/O 线程
+     *
+     * @param hook 在 I/O 线程中退出前执行，用于结束未完成的请求
+     */
+    void shutdown(Runnable hook) {
+        this.shutdownHook = hook;
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                runTasks();
+                for (SelectionKey selectionKey : selector.selectedKeys()) {
+                    if (selectionKey.isValid()) {
+                        dispatch(selectionKey);
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            log.error("I/O 线程异常退出", e);
+        } finally {
+            runTasks();
+            Runnable hook = shutdownHook;
+            if (hook != null) {
+                hook.run();
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                log.error("关闭 Selector 异常", e);
+            }
+        }
+    }
+
+    /**
+     * 单个连接的异常只影响该连接，I/O 线程继续处理其他连接
+     */
+    private void dispatch(SelectionKey selectionKey) {
+        Handler handler = (Handler) selectionKey.attachment();
+        try {
+            handler.onReady(selectionKey);
+        } catch (RuntimeException e) {
+            try {
+                handler.onError(e);
+            } catch (RuntimeException e2) {
+                log.error("连接异常处理失败", e2);
+                selectionKey.cancel();
+            }
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("I/O 任务执行异常", e);
+            }
+        }
+    }
+}
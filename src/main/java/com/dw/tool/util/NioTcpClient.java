@@ -0,0 +1,362 @@
+package com.dw.tool.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于 NIO Selector 的非阻塞 TCP 客户端
+ * <p>
+ * 少量 I/O 线程复用所有设备连接：每个 ip:port 一个 {@link SocketChannel}，固定分配给一个 I/O 线程，
+ * 同一连接上的请求按提交顺序依次收发，不同连接之间并行。
+ * 请求超时由共享的定时器触发，不占用等待线程。
+ * <p>
+ * 返回的 {@link CompletableFuture} 在 I/O 线程中完成，回调中不要执行阻塞操作，
+ * 耗时处理请使用 {@code thenApplyAsync} 等异步方法。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 11:02
+ */
+@Slf4j
+public class NioTcpClient implements Closeable {
+
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    /**
+     * 单个响应报文的最大字节数，分帧器一直无法确定帧长时不再扩大缓冲区
+     */
+    private static final int MAX_FRAME_SIZE = 64 * 1024;
+
+    private final NioEventLoop[] loops;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private final Map<InetSocketAddress, Connection> connections = new ConcurrentHashMap<>();
+
+    /**
+     * 请求超时定时器，所有 I/O 线程共用
+     */
+    private final ScheduledExecutorService timer;
+
+    /**
+     * 默认请求超时时间（单位：毫秒），包含建立连接的时间
+     */
+    private final long defaultTimeout;
+
+    private volatile boolean closed;
+
+    /**
+     * 构造函数
+     *
+     * @param ioThreads      I/O 线程数
+     * @param defaultTimeout 默认请求超时时间（单位：毫秒）
+     * @throws IOException 打开 Selector 失败
+     */
+    public NioTcpClient(int ioThreads, long defaultTimeout) throws IOException {
+        if (ioThreads <= 0) {
+            throw new IllegalArgumentException("ioThreads must be positive");
+        }
+        this.defaultTimeout = defaultTimeout;
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "nio-tcp-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 请求正常完成时取消超时任务，避免已取消的任务堆积在队列中
+        executor.setRemoveOnCancelPolicy(true);
+        this.timer = executor;
+        this.loops = new NioEventLoop[ioThreads];
+        for (int i = 0; i < ioThreads; i++) {
+            loops[i] = new NioEventLoop("nio-tcp-io-" + i);
+        }
+    }
+
+    /**
+     * 异步发送报文并接收响应，使用默认超时时间
+     *
+     * @param endpoint 设备地址
+     * @param frame    请求报文
+     * @param decoder  响应报文分帧器
+     * @return 响应报文（不含前导字节）
+     */
+    public CompletableFuture<byte[]> sendAsync(InetSocketAddress endpoint, byte[] frame, FrameDecoder decoder) {
+        return sendAsync(endpoint, frame, decoder, defaultTimeout);
+    }
+
+    /**
+     * 异步发送报文并接收响应
+     *
+     * @param endpoint 设备地址
+     * @param frame    请求报文
+     * @param decoder  响应报文分帧器
+     * @param timeout  超时时间（单位：毫秒），从提交时开始计算
+     * @return 响应报文（不含前导字节）
+     */
+    public CompletableFuture<byte[]> sendAsync(InetSocketAddress endpoint, byte[] frame, FrameDecoder decoder, long timeout) {
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IOException("client is closed"));
+            return future;
+        }
+        Connection connection = connections.get(endpoint);
+        if (connection == null) {
+            connection = connections.computeIfAbsent(endpoint, k -> new Connection(k, nextLoop()));
+        }
+        Request request = new Request(frame, decoder, future);
+        Connection target = connection;
+        request.timeoutTask = timer.schedule(() -> target.loop.execute(() -> target.timeout(request)), timeout, TimeUnit.MILLISECONDS);
+        target.loop.execute(() -> target.submit(request));
+        return future;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        IOException closedException = new IOException("client is closed");
+        for (NioEventLoop loop : loops) {
+            // 已投递的提交任务会因 closed 标记直接失败，已在处理中的请求在 I/O 线程退出前结束
+            loop.shutdown(() -> {
+                for (Connection connection : connections.values()) {
+                    if (connection.loop == loop) {
+                        connection.failAll(closedException);
+                    }
+                }
+            });
+        }
+        timer.shutdownNow();
+    }
+
+    private NioEventLoop nextLoop() {
+        return loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+    }
+
+    /**
+     * 单个请求
+     */
+    private static class Request {
+        private final ByteBuffer frame;
+        private final FrameDecoder decoder;
+        private final CompletableFuture<byte[]> future;
+        private ScheduledFuture<?> timeoutTask;
+
+        Request(byte[] frame, FrameDecoder decoder, CompletableFuture<byte[]> future) {
+            this.frame = ByteBuffer.wrap(frame);
+            this.decoder = decoder;
+            this.future = future;
+        }
+
+        void complete(byte[] response) {
+            timeoutTask.cancel(false);
+            future.complete(response);
+        }
+
+        void fail(Throwable e) {
+            timeoutTask.cancel(false);
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 单个设备连接，所有状态只在所属 I/O 线程中访问
+     */
+    private class Connection implements NioEventLoop.Handler {
+        private final InetSocketAddress endpoint;
+        private final NioEventLoop loop;
+        private final Queue<Request> pending = new ArrayDeque<>();
+        private SocketChannel channel;
+        private SelectionKey key;
+        private Request current;
+        private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+        Connection(InetSocketAddress endpoint, NioEventLoop loop) {
+            this.endpoint = endpoint;
+            this.loop = loop;
+        }
+
+        void submit(Request request) {
+            if (request.future.isDone()) {
+                return;
+            }
+            if (closed) {
+                request.fail(new IOException("client is closed"));
+                return;
+            }
+            pending.add(request);
+            if (current == null) {
+                next();
+            }
+        }
+
+        /**
+         * 开始处理下一个请求，连接未建立时先建立连接
+         */
+        void next() {
+            current = pending.poll();
+            if (current == null) {
+                if (key != null && key.isValid()) {
+                    // 空闲时仍监听读事件，及时发现对端关闭连接
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+                return;
+            }
+            try {
+                if (channel == null) {
+                    connect();
+                } else {
+                    readBuffer.clear();
+                    key.interestOps(SelectionKey.OP_WRITE);
+                }
+            } catch (IOException e) {
+                failAll(e);
+            }
+        }
+
+        void connect() throws IOException {
+            log.debug("创建新连接 >> {}", endpoint);
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            key = loop.register(channel, this);
+            if (channel.connect(endpoint)) {
+                readBuffer.clear();
+                key.interestOps(SelectionKey.OP_WRITE);
+            } else {
+                key.interestOps(SelectionKey.OP_CONNECT);
+            }
+        }
+
+        @Override
+        public void onReady(SelectionKey selectionKey) {
+            try {
+                if (selectionKey.isConnectable()) {
+                    channel.finishConnect();
+                    readBuffer.clear();
+                    key.interestOps(SelectionKey.OP_WRITE);
+                    return;
+                }
+                if (selectionKey.isWritable()) {
+                    write();
+                }
+                if (selectionKey.isValid() && selectionKey.isReadable()) {
+                    read();
+                }
+            } catch (IOException e) {
+                failAll(e);
+            }
+        }
+
+        @Override
+        public void onError(RuntimeException e) {
+            failAll(new IOException("connection handler failed " + endpoint, e));
+        }
+
+        void write() throws IOException {
+            if (current == null) {
+                key.interestOps(0);
+                return;
+            }
+            channel.write(current.frame);
+            if (!current.frame.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        void read() throws IOException {
+            if (!readBuffer.hasRemaining()) {
+                if (readBuffer.capacity() >= MAX_FRAME_SIZE) {
+                    throw new IOException("response exceeds " + MAX_FRAME_SIZE + " bytes from " + endpoint);
+                }
+                ByteBuffer larger = ByteBuffer.allocate(Math.min(readBuffer.capacity() * 2, MAX_FRAME_SIZE));
+                readBuffer.flip();
+                larger.put(readBuffer);
+                readBuffer = larger;
+            }
+            int len = channel.read(readBuffer);
+            if (len == -1) {
+                throw new EOFException("connection closed by peer " + endpoint);
+            }
+            if (current == null) {
+                // 没有等待中的请求，丢弃设备主动上报或迟到的数据
+                readBuffer.clear();
+                return;
+            }
+            readBuffer.flip();
+            int preamble = current.decoder.preambleLength(readBuffer);
+            readBuffer.position(readBuffer.position() + preamble);
+            int frameLength = current.decoder.frameLength(readBuffer);
+            if (frameLength >= 0 && readBuffer.remaining() >= frameLength) {
+                byte[] response = new byte[frameLength];
+                readBuffer.get(response);
+                readBuffer.clear();
+                Request done = current;
+                next();
+                done.complete(response);
+            } else {
+                readBuffer.compact();
+            }
+        }
+
+        /**
+         * 请求超时：未发送的请求直接移除，正在收发的请求需要断开连接，避免迟到的响应被下一个请求读到
+         */
+        void timeout(Request request) {
+            if (request.future.isDone()) {
+                return;
+            }
+            request.future.completeExceptionally(new SocketTimeoutException("request timeout " + endpoint));
+            if (request == current) {
+                closeChannel();
+                next();
+            } else {
+                pending.remove(request);
+            }
+        }
+
+        void failAll(IOException e) {
+            log.error("连接异常 >> {}", endpoint, e);
+            closeChannel();
+            if (current != null) {
+                current.fail(e);
+                current = null;
+            }
+            Request request;
+            while ((request = pending.poll()) != null) {
+                request.fail(e);
+            }
+        }
+
+        void closeChannel() {
+            if (key != null) {
+                key.cancel();
+                key = null;
+            }
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.error("关闭连接异常", e);
+                }
+                channel = null;
+            }
+            readBuffer.clear();
+        }
+    }
+}
@@ -0,0 +1,534 @@
+package com.dw.tool.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 流水线模式的 Modbus TCP 客户端
+ * <p>
+ * 每个 ip:port 一个连接，连接上最多同时有 {@code window} 个未收到响应的请求，
+ * 请求发出后不等待响应即可发送下一个，响应按 MBAP 报文头中的事务标识符与请求匹配，
+ * 因此设备的响应顺序可以与请求顺序不同。
+ * <p>
+ * MBAP 报文头：事务标识符(2) 协议标识符(2) 长度(2) 单元标识符(1)，长度为单元标识符加 PDU 的字节数。
+ * <p>
+ * 部分设备（尤其是 Modbus 网关后挂 RTU 设备）只能逐个处理请求，此时 window 应设置为 1。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 14:20
+ */
+@Slf4j
+public class PipelinedModbusTcpClient implements Closeable {
+
+    private static final int MBAP_HEADER_LENGTH = 7;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private final NioEventLoop[] loops;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private final Map<InetSocketAddress, Connection> connections = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+
+    /**
+     * 单个连接上允许同时等待响应的请求数
+     */
+    private final int window;
+
+    /**
+     * 默认请求超时时间（单位：毫秒）
+     */
+    private final long defaultTimeout;
+
+    private volatile boolean closed;
+
+    /**
+     * 构造函数
+     *
+     * @param ioThreads      I/O 线程数
+     * @param window         单个连接上允许同时等待响应的请求数
+     * @param defaultTimeout 默认请求超时时间（单位：毫秒）
+     * @throws IOException 打开 Selector 失败
+     */
+    public PipelinedModbusTcpClient(int ioThreads, int window, long defaultTimeout) throws IOException {
+        if (ioThreads <= 0 || window <= 0) {
+            throw new IllegalArgumentException("ioThreads and window must be positive");
+        }
+        if (window > 0xFFFF) {
+            throw new IllegalArgumentException("window must not exceed the transaction id range");
+        }
+        this.window = window;
+        this.defaultTimeout = defaultTimeout;
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "modbus-tcp-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.timer = executor;
+        this.loops = new NioEventLoop[ioThreads];
+        for (int i = 0; i < ioThreads; i++) {
+            loops[i] = new NioEventLoop("modbus-tcp-io-" + i);
+        }
+    }
+
+    /**
+     * 读取保持寄存器（功能码03）
+     */
+    public CompletableFuture<short[]> readHoldingRegisters(InetSocketAddress endpoint, int slaveId, int start, int len) {
+        return send(endpoint, slaveId, readRequest(FunctionCode.READ_HOLDING_REGISTERS, start, len))
+                .thenApply(PipelinedModbusTcpClient::toShortArray);
+    }
+
+    /**
+     * 读取输入寄存器（功能码04）
+     */
+    public CompletableFuture<short[]> readInputRegisters(InetSocketAddress endpoint, int slaveId, int start, int len) {
+        return send(endpoint, slaveId, readRequest(FunctionCode.READ_INPUT_REGISTERS, start, len))
+                .thenApply(PipelinedModbusTcpClient::toShortArray);
+    }
+
+    /**
+     * 发送 PDU，使用默认超时时间
+     *
+     * @param endpoint 设备地址
+     * @param slaveId  单元标识符
+     * @param pdu      功能码 + 数据
+     * @return 响应 PDU，设备返回异常响应时以 {@link BadRequestException} 结束
+     */
+    public CompletableFuture<byte[]> send(InetSocketAddress endpoint, int slaveId, byte[] pdu) {
+        return send(endpoint, slaveId, pdu, defaultTimeout);
+    }
+
+    /**
+     * 发送 PDU
+     *
+     * @param endpoint 设备地址
+     * @param slaveId  单元标识符
+     * @param pdu      功能码 + 数据
+     * @param timeout  超时时间（单位：毫秒），从提交时开始计算
+     * @return 响应 PDU，设备返回异常响应时以 {@link BadRequestException} 结束
+     */
+    public CompletableFuture<byte[]> send(InetSocketAddress endpoint, int slaveId, byte[] pdu, long timeout) {
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IOException("client is closed"));
+            return future;
+        }
+        Connection connection = connections.get(endpoint);
+        if (connection == null) {
+            connection = connections.computeIfAbsent(endpoint, k -> new Connection(k, nextLoop()));
+        }
+        Request request = new Request(slaveId, pdu, future);
+        Connection target = connection;
+        request.timeoutTask = timer.schedule(() -> target.loop.execute(() -> target.timeout(request)), timeout, TimeUnit.MILLISECONDS);
+        target.loop.execute(() -> target.submit(request));
+        return future;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        IOException closedException = new IOException("client is closed");
+        for (NioEventLoop loop : loops) {
+            loop.shutdown(() -> {
+                for (Connection connection : connections.values()) {
+                    if (connection.loop == loop) {
+                        connection.failAll(closedException);
+                    }
+                }
+            });
+        }
+        timer.shutdownNow();
+    }
+
+    private NioEventLoop nextLoop() {
+        return loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+    }
+
+    private static byte[] readRequest(int functionCode, int start, int len) {
+        return new byte[]{(byte) functionCode, (byte) (start >>> 8), (byte) start, (byte) (len >>> 8), (byte) len};
+    }
+
+    /**
+     * 读寄存器响应 PDU：功能码(1) 字节数(1) 数据，字节数在匹配响应时已按请求的数量校验
+     */
+    private static short[] toShortArray(byte[] pdu) {
+        int count = (pdu[1] & 0xFF) / 2;
+        short[] data = new short[count];
+        for (int i = 0; i < count; i++) {
+            data[i] = (short) (((pdu[2 + i * 2] & 0xFF) << 8) | (pdu[3 + i * 2] & 0xFF));
+        }
+        return data;
+    }
+
+    /**
+     * 单个请求
+     */
+    private static class Request {
+        private final int slaveId;
+        private final byte[] pdu;
+        private final CompletableFuture<byte[]> future;
+        /**
+         * 请求功能码
+         */
+        private final int functionCode;
+        /**
+         * 请求的线圈或寄存器数量，非读写请求为 -1
+         */
+        private final int quantity;
+        /**
+         * 正常响应 PDU 的长度，无法确定时为 -1
+         */
+        private final int responseLength;
+        private ScheduledFuture<?> timeoutTask;
+        private int transactionId = -1;
+
+        Request(int slaveId, byte[] pdu, CompletableFuture<byte[]> future) {
+            this.slaveId = slaveId;
+            this.pdu = pdu;
+            this.future = future;
+            this.functionCode = pdu.length > 0 ? pdu[0] & 0xFF : -1;
+            this.quantity = pdu.length >= 5 ? ((pdu[3] & 0xFF) << 8) | (pdu[4] & 0xFF) : -1;
+            this.responseLength = responseLength(functionCode, quantity);
+        }
+
+        private static int responseLength(int functionCode, int quantity) {
+            if (quantity < 0) {
+                return -1;
+            }
+            switch (functionCode) {
+                case FunctionCode.READ_COILS:
+                case FunctionCode.READ_DISCRETE_INPUTS:
+                    return 2 + (quantity + 7) / 8;
+                case FunctionCode.READ_HOLDING_REGISTERS:
+                case FunctionCode.READ_INPUT_REGISTERS:
+                    return 2 + quantity * 2;
+                case FunctionCode.WRITE_COIL:
+                case FunctionCode.WRITE_REGISTER:
+                case FunctionCode.WRITE_COILS:
+                case FunctionCode.WRITE_REGISTERS:
+                    return 5;
+                default:
+                    return -1;
+            }
+        }
+
+        /**
+         * 校验响应是否属于该请求，部分网关会复用或清零事务标识符，只按事务标识符匹配不可靠
+         *
+         * @return 不匹配的原因，匹配时返回 null
+         */
+        String mismatch(int unitId, byte[] response) {
+            if (unitId != slaveId) {
+                return String.format("单元标识符:%d, 期望:%d", unitId, slaveId);
+            }
+            int responseCode = response[0] & 0x7F;
+            if (responseCode != functionCode) {
+                return String.format("功能码:%02X, 期望:%02X", responseCode, functionCode);
+            }
+            if ((response[0] & 0x80) != 0) {
+                return response.length == 2 ? null : String.format("异常响应长度:%d, 期望:2", response.length);
+            }
+            if (responseLength >= 0 && response.length != responseLength) {
+                return String.format("响应长度:%d, 期望:%d(数量:%d)", response.length, responseLength, quantity);
+            }
+            if (responseLength >= 0 && functionCode <= FunctionCode.READ_INPUT_REGISTERS
+                    && (response[1] & 0xFF) != responseLength - 2) {
+                return String.format("字节数:%d, 期望:%d(数量:%d)", response[1] & 0xFF, responseLength - 2, quantity);
+            }
+            return null;
+        }
+
+        void complete(byte[] response) {
+            timeoutTask.cancel(false);
+            if ((response[0] & 0x80) != 0) {
+                future.completeExceptionally(new BadRequestException(String.format(
+                        "modbus异常响应 >> 功能码:%02X, 异常码:%02X", response[0] & 0x7F, response.length > 1 ? response[1] : 0)));
+            } else {
+                future.complete(response);
+            }
+        }
+
+        void fail(Throwable e) {
+            timeoutTask.cancel(false);
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 单个设备连接，所有状态只在所属 I/O 线程中访问
+     */
+    private class Connection implements NioEventLoop.Handler {
+        private final InetSocketAddress endpoint;
+        private final NioEventLoop loop;
+        /**
+         * 等待发送的请求
+         */
+        private final Queue<Request> pending = new ArrayDeque<>();
+        /**
+         * 已发送、等待响应的请求，key 为事务标识符
+         */
+        private final Map<Integer, Request> inFlight = new HashMap<>();
+        /**
+         * 已编码、尚未写完的报文
+         */
+        private final Queue<ByteBuffer> writeQueue = new ArrayDeque<>();
+        private SocketChannel channel;
+        private SelectionKey key;
+        private boolean connected;
+        private int nextTransactionId;
+        private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+        Connection(InetSocketAddress endpoint, NioEventLoop loop) {
+            this.endpoint = endpoint;
+            this.loop = loop;
+        }
+
+        void submit(Request request) {
+            if (request.future.isDone()) {
+                return;
+            }
+            if (closed) {
+                request.fail(new IOException("client is closed"));
+                return;
+            }
+            pending.add(request);
+            try {
+                if (channel == null) {
+                    connect();
+                } else if (connected) {
+                    fillWindow();
+                }
+            } catch (IOException e) {
+                failAll(e);
+            }
+        }
+
+        void connect() throws IOException {
+            log.debug("创建新连接 >> {}", endpoint);
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            key = loop.register(channel, this);
+            if (channel.connect(endpoint)) {
+                onConnected();
+            } else {
+                key.interestOps(SelectionKey.OP_CONNECT);
+            }
+        }
+
+        void onConnected() {
+            connected = true;
+            readBuffer.clear();
+            key.interestOps(SelectionKey.OP_READ);
+            fillWindow();
+        }
+
+        /**
+         * 在窗口允许的范围内把等待中的请求编码进写队列
+         */
+        void fillWindow() {
+            Request request;
+            while (inFlight.size() < window && (request = pending.poll()) != null) {
+                if (request.future.isDone()) {
+                    continue;
+                }
+                int transactionId = allocateTransactionId();
+                request.transactionId = transactionId;
+                inFlight.put(transactionId, request);
+                writeQueue.add(encode(transactionId, request));
+            }
+            if (!writeQueue.isEmpty()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+
+        /**
+         * 分配事务标识符，跳过仍在等待响应的标识符
+         */
+        int allocateTransactionId() {
+            int transactionId;
+            do {
+                transactionId = nextTransactionId;
+                nextTransactionId = (nextTransactionId + 1) & 0xFFFF;
+            } while (inFlight.containsKey(transactionId));
+            return transactionId;
+        }
+
+        ByteBuffer encode(int transactionId, Request request) {
+            int length = request.pdu.length + 1;
+            ByteBuffer frame = ByteBuffer.allocate(MBAP_HEADER_LENGTH - 1 + length);
+            frame.putShort((short) transactionId);
+            frame.putShort((short) 0);
+            frame.putShort((short) length);
+            frame.put((byte) request.slaveId);
+            frame.put(request.pdu);
+            frame.flip();
+            return frame;
+        }
+
+        @Override
+        public void onReady(SelectionKey selectionKey) {
+            try {
+                if (selectionKey.isConnectable()) {
+                    channel.finishConnect();
+                    onConnected();
+                    return;
+                }
+                if (selectionKey.isWritable()) {
+                    write();
+                }
+                if (selectionKey.isValid() && selectionKey.isReadable()) {
+                    read();
+                }
+            } catch (IOException e) {
+                failAll(e);
+            }
+        }
+
+        @Override
+        public void onError(RuntimeException e) {
+            failAll(new IOException("connection handler failed " + endpoint, e));
+        }
+
+        void write() throws IOException {
+            ByteBuffer frame;
+            while ((frame = writeQueue.peek()) != null) {
+                channel.write(frame);
+                if (frame.hasRemaining()) {
+                    return;
+                }
+                writeQueue.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        }
+
+        void read() throws IOException {
+            if (!readBuffer.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(readBuffer.capacity() * 2);
+                readBuffer.flip();
+                larger.put(readBuffer);
+                readBuffer = larger;
+            }
+            int len = channel.read(readBuffer);
+            if (len == -1) {
+                throw new EOFException("connection closed by peer " + endpoint);
+            }
+            readBuffer.flip();
+            // 一次读取可能包含多个响应
+            while (readBuffer.remaining() >= MBAP_HEADER_LENGTH - 1) {
+                int position = readBuffer.position();
+                int length = readBuffer.getShort(position + 4) & 0xFFFF;
+                if (length < 2) {
+                    // 长度至少包含单元标识符和功能码，否则后续数据无法再对齐
+                    throw new IOException("invalid MBAP length " + length + " from " + endpoint);
+                }
+                int frameLength = MBAP_HEADER_LENGTH - 1 + length;
+                if (readBuffer.remaining() < frameLength) {
+                    break;
+                }
+                int transactionId = readBuffer.getShort(position) & 0xFFFF;
+                int protocolId = readBuffer.getShort(position + 2) & 0xFFFF;
+                if (protocolId != 0) {
+                    // 不是 Modbus 报文，后续数据同样无法信任
+                    throw new IOException("invalid MBAP protocol id " + protocolId + " from " + endpoint);
+                }
+                int unitId = readBuffer.get(position + MBAP_HEADER_LENGTH - 1) & 0xFF;
+                byte[] pdu = new byte[frameLength - MBAP_HEADER_LENGTH];
+                readBuffer.position(position + MBAP_HEADER_LENGTH);
+                readBuffer.get(pdu);
+                Request request = inFlight.remove(transactionId);
+                if (request == null) {
+                    // 已超时请求的迟到响应
+                    log.debug("丢弃无对应请求的响应 >> {} 事务标识符:{}", endpoint, transactionId);
+                    continue;
+                }
+                String mismatch = request.mismatch(unitId, pdu);
+                if (mismatch != null) {
+                    log.warn("响应与请求不匹配 >> {} 事务标识符:{}, {}", endpoint, transactionId, mismatch);
+                    request.fail(new IOException("response mismatch from " + endpoint
+                            + " transaction " + transactionId + ": " + mismatch));
+                    continue;
+                }
+                request.complete(pdu);
+            }
+            readBuffer.compact();
+            fillWindow();
+        }
+
+        /**
+         * 请求超时：只结束该请求，连接上其他请求不受影响，迟到的响应按事务标识符丢弃；
+         * 连接仍未建立时同时关闭连接，下一个请求重新连接，避免设备不可达时连接一直挂起
+         */
+        void timeout(Request request) {
+            if (request.future.isDone()) {
+                return;
+            }
+            request.future.completeExceptionally(new SocketTimeoutException("request timeout " + endpoint));
+            if (channel != null && !connected) {
+                failAll(new SocketTimeoutException("connect timeout " + endpoint));
+                return;
+            }
+            if (request.transactionId >= 0 && inFlight.get(request.transactionId) == request) {
+                inFlight.remove(request.transactionId);
+                if (connected) {
+                    fillWindow();
+                }
+            } else {
+                pending.remove(request);
+            }
+        }
+
+        void failAll(IOException e) {
+            log.error("连接异常 >> {}", endpoint, e);
+            closeChannel();
+            for (Request request : inFlight.values()) {
+                request.fail(e);
+            }
+            inFlight.clear();
+            Request request;
+            while ((request = pending.poll()) != null) {
+                request.fail(e);
+            }
+        }
+
+        void closeChannel() {
+            if (key != null) {
+                key.cancel();
+                key = null;
+            }
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.error("关闭连接异常", e);
+                }
+                channel = null;
+            }
+            connected = false;
+            writeQueue.clear();
+            readBuffer.clear();
+        }
+    }
+}
@@ -0,0 +1,616 @@
+package com.dw.tool.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 周期轮询调度器
+ * <p>
+ * 点位按扫描组（周期如 100ms、1s、60s）组织，每个周期开始时扫描组的所有任务同时到期，截止时间为下一周期开始。
+ * 同一设备（一般为 ip:port，串口网关即网关地址）的任务依次执行，不同设备由 workers 个工作线程并行执行；
+ * 工作线程总是先执行截止时间最早的设备，慢周期的大量任务不会挤占快周期。
+ * <p>
+ * 任务上一周期还未执行完时不会积压，按扫描组的 {@link OverrunPolicy} 处理：
+ * <ul>
+ *     <li>SKIP：跳过本周期</li>
+ *     <li>MERGE：上一周期在执行中时排队一次，执行完后立即再执行；已在排队时并入排队的那次</li>
+ * </ul>
+ * 每个扫描组统计抖动（到期到开始执行的延迟）、执行耗时、超时（执行完成晚于截止时间）、跳过和合并次数。
+ * <pre>
+ * PollScheduler scheduler = new PollScheduler(32);
+ * PollScheduler.ScanGroup fast = scheduler.addGroup("fast", 100, TimeUnit.MILLISECONDS, PollScheduler.OverrunPolicy.SKIP);
+ * fast.add("192.168.16.253:51001", () -&gt; consume(ModbusTCPUtil.readPoints(master, 1, plan)));
+ * </pre>
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 01:40
+ */
+@Slf4j
+public class PollScheduler implements Closeable {
+
+    /**
+     * 上一周期未执行完时的处理方式
+     */
+    public enum OverrunPolicy {
+        SKIP,
+        MERGE
+    }
+
+    /**
+     * 轮询操作，在工作线程上执行
+     */
+    @FunctionalInterface
+    public interface PollAction {
+        void poll() throws Exception;
+    }
+
+    /**
+     * 以下字段由 lock 保护
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition laneReady = lock.newCondition();
+    private final Condition groupsChanged = lock.newCondition();
+    private final Map<String, Lane> lanes = new HashMap<>();
+    /**
+     * 有任务待执行且没有在执行的设备，按最早截止时间排序
+     */
+    private final PriorityQueue<Lane> ready = new PriorityQueue<>(
+            Comparator.comparingLong((Lane lane) -> lane.readyDeadline).thenComparingLong(lane -> lane.readySequence));
+    /**
+     * 扫描组，按下次到期时间排序
+     */
+    private final PriorityQueue<ScanGroup> releases = new PriorityQueue<>(Comparator.comparingLong(group -> group.nextRelease));
+    private final List<ScanGroup> groups = new ArrayList<>();
+    private long sequence;
+
+    private final Thread[] workers;
+    private final Thread releaser;
+
+    private volatile boolean closed;
+
+    /**
+     * 构造函数，创建后立即启动守护线程
+     *
+     * @param workers 工作线程数，即最多同时轮询的设备数
+     */
+    public PollScheduler(int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("workers must be positive");
+        }
+        this.workers = new Thread[workers];
+        for (int i = 0; i < workers; i++) {
+            this.workers[i] = new Thread(this::work, "poll-scheduler-" + i);
+            this.workers[i].setDaemon(true);
+            this.workers[i].start();
+        }
+        this.releaser = new Thread(this::release, "poll-scheduler-release");
+        this.releaser.setDaemon(true);
+        this.releaser.start();
+    }
+
+    /**
+     * 添加扫描组，添加第一个任务时第一个周期开始
+     *
+     * @param name   名称，用于统计和日志
+     * @param period 周期
+     * @param unit   时间单位
+     * @param policy 上一周期未执行完时的处理方式
+     */
+    public ScanGroup addGroup(String name, long period, TimeUnit unit, OverrunPolicy policy) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+        ScanGroup group = new ScanGroup(name, unit.toNanos(period), policy);
+        lock.lock();
+        try {
+            checkOpen();
+            groups.add(group);
+        } finally {
+            lock.unlock();
+        }
+        return group;
+    }
+
+    /**
+     * 移除扫描组，已开始执行的任务继续执行完
+     */
+    public void removeGroup(ScanGroup group) {
+        lock.lock();
+        try {
+            if (groups.remove(group)) {
+                releases.remove(group);
+                for (PollTask task : new ArrayList<>(group.tasks)) {
+                    task.cancel();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 所有扫描组的统计
+     */
+    public List<GroupStats> snapshot() {
+        List<ScanGroup> copy;
+        lock.lock();
+        try {
+            copy = new ArrayList<>(groups);
+        } finally {
+            lock.unlock();
+        }
+        List<GroupStats> stats = new ArrayList<>(copy.size());
+        for (ScanGroup group : copy) {
+            stats.add(group.snapshot());
+        }
+        return stats;
+    }
+
+    /**
+     * 停止调度，中断工作线程并等待退出
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            laneReady.signalAll();
+            groupsChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        releaser.interrupt();
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        try {
+            for (Thread worker : workers) {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 到期线程：扫描组到期时放入所有任务；本线程被耽误错过的周期不补，计入 missedCycles
+     */
+    private void release() {
+        lock.lock();
+        try {
+            while (!closed) {
+                ScanGroup group = releases.peek();
+                if (group == null) {
+                    groupsChanged.await();
+                    continue;
+                }
+                long wait = group.nextRelease - System.nanoTime();
+                if (wait > 0) {
+                    groupsChanged.awaitNanos(wait);
+                    continue;
+                }
+                releases.poll();
+                long releaseTime = group.nextRelease;
+                for (PollTask task : group.tasks) {
+                    task.release(releaseTime);
+                }
+                group.cycles++;
+                long next = releaseTime + group.periodNanos;
+                long late = System.nanoTime() - next;
+                if (late >= 0) {
+                    long missed = late / group.periodNanos + 1;
+                    group.missedCycles += missed;
+                    next += missed * group.periodNanos;
+                }
+                group.nextRelease = next;
+                releases.add(group);
+            }
+        } catch (InterruptedException e) {
+            // 关闭
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Lane lane;
+            PollTask task;
+            long releaseTime;
+            long deadline;
+            lock.lock();
+            try {
+                while (!closed && ready.isEmpty()) {
+                    try {
+                        laneReady.await();
+                    } catch (InterruptedException e) {
+                        // 只在关闭时退出，其他中断忽略
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+                lane = ready.poll();
+                lane.ready = false;
+                lane.running = true;
+                task = lane.queue.poll();
+                task.queued = false;
+                task.running = true;
+                releaseTime = task.releaseTime;
+                deadline = task.deadline;
+            } finally {
+                lock.unlock();
+            }
+            run(task, releaseTime, deadline);
+            lock.lock();
+            try {
+                task.running = false;
+                lane.running = false;
+                if (!lane.queue.isEmpty()) {
+                    makeReady(lane);
+                } else if (lane.tasks == 0) {
+                    lanes.remove(lane.device);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void run(PollTask task, long releaseTime, long deadline) {
+        ScanGroup group = task.group;
+        long start = System.nanoTime();
+        group.jitter.record(start - releaseTime);
+        try {
+            task.action.poll();
+            group.completed.increment();
+        } catch (Exception e) {
+            group.failures.increment();
+            log.debug("轮询失败 >> {} {} {}", group.name, task.lane.device, e.toString());
+        } catch (Error e) {
+            group.failures.increment();
+            log.error("轮询异常 >> {} {}", group.name, task.lane.device, e);
+        }
+        // 轮询操作留下的中断状态不影响工作线程，工作线程只在关闭时退出
+        Thread.interrupted();
+        long end = System.nanoTime();
+        group.duration.record(end - start);
+        if (end - deadline > 0) {
+            group.overruns.increment();
+        }
+    }
+
+    /**
+     * 设备加入就绪队列，调用时持有 lock
+     */
+    private void makeReady(Lane lane) {
+        lane.readyDeadline = lane.queue.peek().deadline;
+        lane.readySequence = sequence++;
+        lane.ready = true;
+        ready.add(lane);
+        laneReady.signal();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("PollScheduler 已关闭");
+        }
+    }
+
+    /**
+     * 扫描组
+     */
+    public class ScanGroup {
+
+        private final String name;
+        private final long periodNanos;
+        private final OverrunPolicy policy;
+
+        /**
+         * 以下字段由 lock 保护
+         */
+        private final List<PollTask> tasks = new ArrayList<>();
+        private boolean started;
+        private long nextRelease;
+        private long cycles;
+        private long missedCycles;
+        private long skipped;
+        private long merged;
+
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder overruns = new LongAdder();
+        private final LatencyHistogram jitter = new LatencyHistogram();
+        private final LatencyHistogram duration = new LatencyHistogram();
+
+        ScanGroup(String name, long periodNanos, OverrunPolicy policy) {
+            this.name = name;
+            this.periodNanos = periodNanos;
+            this.policy = policy;
+        }
+
+        /**
+         * 添加任务，从下一周期开始执行；扫描组的第一个任务立即执行，扫描组的周期从此时开始
+         *
+         * @param device 设备标识，相同标识的任务依次执行
+         * @param action 轮询操作
+         */
+        public PollTask add(String device, PollAction action) {
+            lock.lock();
+            try {
+                checkOpen();
+                if (!groups.contains(this)) {
+                    throw new IllegalStateException("扫描组已移除: " + name);
+                }
+                Lane lane = lanes.computeIfAbsent(device, Lane::new);
+                lane.tasks++;
+                PollTask task = new PollTask(this, lane, action);
+                tasks.add(task);
+                if (!started) {
+                    started = true;
+                    nextRelease = System.nanoTime();
+                    releases.add(this);
+                    groupsChanged.signal();
+                }
+                return task;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public PollTask add(String ip, int port, PollAction action) {
+            return add(ip + ":" + port, action);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getPeriodMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(periodNanos);
+        }
+
+        public OverrunPolicy getPolicy() {
+            return policy;
+        }
+
+        public GroupStats snapshot() {
+            lock.lock();
+            try {
+                return new GroupStats(name, getPeriodMillis(), tasks.size(), cycles, missedCycles, completed.sum(), failures.sum(),
+                        skipped, merged, overruns.sum(), jitter.snapshot(), duration.snapshot());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 扫描组中的一个任务，同一时间最多一次在排队、一次在执行
+     */
+    public class PollTask {
+
+        private final ScanGroup group;
+        private final Lane lane;
+        private final PollAction action;
+
+        /**
+         * 以下字段由 lock 保护
+         */
+        private boolean queued;
+        private boolean running;
+        private boolean cancelled;
+        private long releaseTime;
+        private long deadline;
+
+        PollTask(ScanGroup group, Lane lane, PollAction action) {
+            this.group = group;
+            this.lane = lane;
+            this.action = action;
+        }
+
+        /**
+         * 周期到期，调用时持有 lock
+         */
+        private void release(long time) {
+            if (queued) {
+                if (group.policy == OverrunPolicy.MERGE) {
+                    group.merged++;
+                } else {
+                    group.skipped++;
+                }
+                return;
+            }
+            if (running && group.policy == OverrunPolicy.SKIP) {
+                group.skipped++;
+                return;
+            }
+            queued = true;
+            releaseTime = time;
+            deadline = time + group.periodNanos;
+            lane.queue.add(this);
+            if (lane.ready && deadline - lane.readyDeadline < 0) {
+                // 截止时间提前，重新排序
+                ready.remove(lane);
+                makeReady(lane);
+            } else if (!lane.ready && !lane.running) {
+                makeReady(lane);
+            }
+        }
+
+        /**
+         * 移除任务，正在执行的继续执行完
+         */
+        public void cancel() {
+            lock.lock();
+            try {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                group.tasks.remove(this);
+                lane.tasks--;
+                if (queued) {
+                    queued = false;
+                    lane.queue.remove(this);
+                    if (lane.ready) {
+                        ready.remove(lane);
+                        lane.ready = false;
+                        if (!lane.queue.isEmpty()) {
+                            makeReady(lane);
+                        }
+                    }
+                }
+                if (lane.tasks == 0 && !lane.running && lane.queue.isEmpty()) {
+                    lanes.remove(lane.device);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public String getDevice() {
+            return lane.device;
+        }
+
+        public ScanGroup getGroup() {
+            return group;
+        }
+    }
+
+    /**
+     * 单个设备的任务队列，由 lock 保护
+     */
+    private static class Lane {
+        private final String device;
+        private final PriorityQueue<PollTask> queue = new PriorityQueue<>(Comparator.comparingLong(task -> task.deadline));
+        private int tasks;
+        private boolean running;
+        private boolean ready;
+        private long readyDeadline;
+        private long readySequence;
+
+        Lane(String device) {
+            this.device = device;
+        }
+    }
+
+    /**
+     * 扫描组统计，时间单位均为微秒
+     */
+    public static class GroupStats {
+        private final String name;
+        private final long periodMillis;
+        private final int tasks;
+        private final long cycles;
+        private final long missedCycles;
+        private final long completed;
+        private final long failures;
+        private final long skipped;
+        private final long merged;
+        private final long overruns;
+        private final LatencyHistogram.Snapshot jitter;
+        private final LatencyHistogram.Snapshot duration;
+
+        public GroupStats(String name, long periodMillis, int tasks, long cycles, long missedCycles, long completed, long failures,
+                          long skipped, long merged, long overruns, LatencyHistogram.Snapshot jitter, LatencyHistogram.Snapshot duration) {
+            this.name = name;
+            this.periodMillis = periodMillis;
+            this.tasks = tasks;
+            this.cycles = cycles;
+            this.missedCycles = missedCycles;
+            this.completed = completed;
+            this.failures = failures;
+            this.skipped = skipped;
+            this.merged = merged;
+            this.overruns = overruns;
+            this.jitter = jitter;
+            this.duration = duration;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getPeriodMillis() {
+            return periodMillis;
+        }
+
+        public int getTasks() {
+            return tasks;
+        }
+
+        /**
+         * 已开始的周期数
+         */
+        public long getCycles() {
+            return cycles;
+        }
+
+        /**
+         * 调度线程被耽误而没有开始的周期数
+         */
+        public long getMissedCycles() {
+            return missedCycles;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * 上一周期未执行完而跳过的任务次数（SKIP）
+         */
+        public long getSkipped() {
+            return skipped;
+        }
+
+        /**
+         * 并入排队中任务的次数（MERGE）
+         */
+        public long getMerged() {
+            return merged;
+        }
+
+        /**
+         * 执行完成晚于截止时间的次数
+         */
+        public long getOverruns() {
+            return overruns;
+        }
+
+        /**
+         * 到期到开始执行的延迟
+         */
+        public LatencyHistogram.Snapshot getJitter() {
+            return jitter;
+        }
+
+        public LatencyHistogram.Snapshot getDuration() {
+            return duration;
+        }
+
+        @Override
+        public String toString() {
+            return name + " {period=" + periodMillis + "ms, tasks=" + tasks + ", cycles=" + cycles + ", missed=" + missedCycles
+                    + ", completed=" + completed + ", failures=" + failures + ", skipped=" + skipped + ", merged=" + merged
+                    + ", overruns=" + overruns + ", jitter=" + jitter + ", duration=" + duration + "}";
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.dw.tool.util;
+
+import java.util.Arrays;
+
+/**
+ * 寄存器批量解码
+ * <p>
+ * 先用 {@link #builder()} 描述一段寄存器中各字段的位置、类型、字节序和换算系数，编译成数组形式的布局，
+ * 之后对每次读到的 short[]（{@link ModbusTCPUtil}）或 byte[]（响应报文中的数据部分，每个寄存器高字节在前）
+ * 一次解码全部字段，写入 double[] 或 long[]。解码过程不装箱、不分配对象，越界只在开始时检查一次。
+ * <p>
+ * 字节序以 32 位值的四个字节 ABCD（A 为最高字节）描述：ABCD 为大端，DCBA 为小端，
+ * CDAB 为字内大端、字序颠倒，BADC 为字序正常、字内字节颠倒；64 位值按同样规则扩展，16 位值只区分字内字节是否颠倒。
+ * 与 {@link ModbusReadPlanner} 配合时，字段的寄存器位置取 {@link ModbusReadPlanner.ReadPlan#getValueOffset(int)}。
+ * <pre>
+ * RegisterDecoder decoder = RegisterDecoder.builder()
+ *         .field(0, RegisterDecoder.DataType.UINT16, RegisterDecoder.RegisterOrder.ABCD, 0.1, 0)
+ *         .field(1, RegisterDecoder.DataType.FLOAT32, RegisterDecoder.RegisterOrder.CDAB)
+ *         .build();
+ * double[] values = new double[decoder.getFieldCount()];
+ * decoder.decode(registers, 0, values, 0);
+ * </pre>
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 02:10
+ */
+public final class RegisterDecoder {
+
+    /**
+     * 字段类型
+     */
+    public enum DataType {
+        INT16(1),
+        UINT16(1),
+        INT32(2),
+        UINT32(2),
+        FLOAT32(2),
+        INT64(4),
+        FLOAT64(4);
+
+        private final int registers;
+
+        DataType(int registers) {
+            this.registers = registers;
+        }
+
+        /**
+         * 占用的寄存器数
+         */
+        public int getRegisters() {
+            return registers;
+        }
+
+        boolean isFloat() {
+            return this == FLOAT32 || this == FLOAT64;
+        }
+    }
+
+    /**
+     * 字节序
+     */
+    public enum RegisterOrder {
+        ABCD(false, false),
+        BADC(false, true),
+        CDAB(true, false),
+        DCBA(true, true);
+
+        private final boolean wordSwap;
+        private final boolean byteSwap;
+
+        RegisterOrder(boolean wordSwap, boolean byteSwap) {
+            this.wordSwap = wordSwap;
+            this.byteSwap = byteSwap;
+        }
+    }
+
+    private static final DataType[] TYPES = DataType.values();
+
+    private static final RegisterOrder[] ORDERS = RegisterOrder.values();
+
+    /**
+     * 编译后的布局，下标为字段序号
+     */
+    private final int[] registers;
+    private final byte[] types;
+    private final byte[] orders;
+    private final double[] scales;
+    private final double[] offsets;
+    private final boolean[] exact;
+    private final int span;
+
+    private RegisterDecoder(Builder builder) {
+        int count = builder.count;
+        this.registers = Arrays.copyOf(builder.registers, count);
+        this.types = Arrays.copyOf(builder.types, count);
+        this.orders = Arrays.copyOf(builder.orders, count);
+        this.scales = Arrays.copyOf(builder.scales, count);
+        this.offsets = Arrays.copyOf(builder.offsets, count);
+        this.exact = new boolean[count];
+        int end = 0;
+        for (int i = 0; i < count; i++) {
+            exact[i] = scales[i] == 1 && offsets[i] == 0;
+            end = Math.max(end, registers[i] + TYPES[types[i]].registers);
+        }
+        this.span = end;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getFieldCount() {
+        return registers.length;
+    }
+
+    /**
+     * 布局覆盖的寄存器数，即最后一个字段的结束位置
+     */
+    public int getRegisterSpan() {
+        return span;
+    }
+
+    /**
+     * 解码全部字段，结果为 原始值 * scale + offset
+     *
+     * @param src    寄存器
+     * @param srcOff 布局第 0 个寄存器在 src 中的下标
+     * @param dst    结果，每个字段一个
+     * @param dstOff 写入起始下标
+     */
+    public void decode(short[] src, int srcOff, double[] dst, int dstOff) {
+        checkBounds(src.length, srcOff, span, dst.length, dstOff, registers.length);
+        for (int i = 0; i < registers.length; i++) {
+            dst[dstOff + i] = scale(i, toDouble(types[i], raw(src, srcOff + registers[i], i)));
+        }
+    }
+
+    /**
+     * 解码全部字段，src 中每个寄存器 2 字节，高字节在前
+     *
+     * @param srcOff 布局第 0 个寄存器在 src 中的字节下标
+     */
+    public void decode(byte[] src, int srcOff, double[] dst, int dstOff) {
+        checkBounds(src.length, srcOff, span * 2, dst.length, dstOff, registers.length);
+        for (int i = 0; i < registers.length; i++) {
+            dst[dstOff + i] = scale(i, toDouble(types[i], raw(src, srcOff + registers[i] * 2, i)));
+        }
+    }
+
+    /**
+     * 解码全部字段为整数：没有换算系数的整数字段保持原值（INT64 不损失精度），其余四舍五入
+     */
+    public void decode(short[] src, int srcOff, long[] dst, int dstOff) {
+        checkBounds(src.length, srcOff, span, dst.length, dstOff, registers.length);
+        for (int i = 0; i < registers.length; i++) {
+            dst[dstOff + i] = toLong(i, raw(src, srcOff + registers[i], i));
+        }
+    }
+
+    /**
+     * 解码全部字段为整数，src 中每个寄存器 2 字节，高字节在前
+     *
+     * @see #decode(short[], int, long[], int)
+     */
+    public void decode(byte[] src, int srcOff, long[] dst, int dstOff) {
+        checkBounds(src.length, srcOff, span * 2, dst.length, dstOff, registers.length);
+        for (int i = 0; i < registers.length; i++) {
+            dst[dstOff + i] = toLong(i, raw(src, srcOff + registers[i] * 2, i));
+        }
+    }
+
+    /**
+     * 解码多条布局相同、等间距排列的记录（如多路通道），结果按记录依次排列
+     *
+     * @param records 记录数
+     * @param stride  相邻记录的寄存器间距，不小于 {@link #getRegisterSpan()} 时记录互不重叠
+     */
+    public void decode(short[] src, int srcOff, int records, int stride, double[] dst, int dstOff) {
+        if (records < 0 || stride <= 0) {
+            throw new IllegalArgumentException("records " + records + ", stride " + stride);
+        }
+        if (records == 0) {
+            return;
+        }
+        checkBounds(src.length, srcOff, (records - 1) * stride + span, dst.length, dstOff, records * registers.length);
+        for (int r = 0; r < records; r++) {
+            decode(src, srcOff + r * stride, dst, dstOff + r * registers.length);
+        }
+    }
+
+    /**
+     * 解码单个字段
+     */
+    public double decodeField(int field, short[] src, int srcOff) {
+        int index = srcOff + registers[field];
+        checkBounds(src.length, index, TYPES[types[field]].registers, 0, 0, 0);
+        return scale(field, toDouble(types[field], raw(src, index, field)));
+    }
+
+    private double scale(int field, double value) {
+        return exact[field] ? value : value * scales[field] + offsets[field];
+    }
+
+    private long toLong(int field, long raw) {
+        int type = types[field];
+        if (exact[field] && !TYPES[type].isFloat()) {
+            return signExtend(type, raw);
+        }
+        return Math.round(scale(field, toDouble(type, raw)));
+    }
+
+    /**
+     * 按字节序拼接字段的寄存器，结果为大端排列的原始位
+     */
+    private long raw(short[] src, int index, int field) {
+        RegisterOrder order = ORDERS[orders[field]];
+        int words = TYPES[types[field]].registers;
+        long raw = 0;
+        for (int k = 0; k < words; k++) {
+            int word = src[index + (order.wordSwap ? words - 1 - k : k)] & 0xFFFF;
+            raw = raw << 16 | (order.byteSwap ? swap(word) : word);
+        }
+        return raw;
+    }
+
+    private long raw(byte[] src, int index, int field) {
+        RegisterOrder order = ORDERS[orders[field]];
+        int words = TYPES[types[field]].registers;
+        long raw = 0;
+        for (int k = 0; k < words; k++) {
+            int p = index + (order.wordSwap ? words - 1 - k : k) * 2;
+            int word = order.byteSwap
+                    ? (src[p + 1] & 0xFF) << 8 | (src[p] & 0xFF)
+                    : (src[p] & 0xFF) << 8 | (src[p + 1] & 0xFF);
+            raw = raw << 16 | word;
+        }
+        return raw;
+    }
+
+    private static int swap(int word) {
+        return (word & 0xFF) << 8 | word >>> 8;
+    }
+
+    private static long signExtend(int type, long raw) {
+        switch (TYPES[type]) {
+            case INT16:
+                return (short) raw;
+            case INT32:
+                return (int) raw;
+            default:
+                return raw;
+        }
+    }
+
+    private static double toDouble(int type, long raw) {
+        switch (TYPES[type]) {
+            case FLOAT32:
+                return Float.intBitsToFloat((int) raw);
+            case FLOAT64:
+                return Double.longBitsToDouble(raw);
+            default:
+                return signExtend(type, raw);
+        }
+    }
+
+    private static void checkBounds(int srcLength, int srcOff, int srcCount, int dstLength, int dstOff, int dstCount) {
+        if (srcOff < 0 || srcOff + srcCount > srcLength) {
+            throw new IndexOutOfBoundsException("source offset " + srcOff + ", required " + srcCount + ", length " + srcLength);
+        }
+        if (dstOff < 0 || dstOff + dstCount > dstLength) {
+            throw new IndexOutOfBoundsException("destination offset " + dstOff + ", required " + dstCount + ", length " + dstLength);
+        }
+    }
+
+    /**
+     * 布局构建器，字段序号为添加顺序
+     */
+    public static final class Builder {
+
+        private int count;
+        private int[] registers = new int[16];
+        private byte[] types = new byte[16];
+        private byte[] orders = new byte[16];
+        private double[] scales = new double[16];
+        private double[] offsets = new double[16];
+
+        private Builder() {
+        }
+
+        /**
+         * @param register 字段第一个寄存器相对布局起点的位置
+         */
+        public Builder field(int register, DataType type, RegisterOrder order) {
+            return field(register, type, order, 1, 0);
+        }
+
+        /**
+         * @param register 字段第一个寄存器相对布局起点的位置
+         * @param scale    系数
+         * @param offset   偏移，结果为 原始值 * scale + offset
+         */
+        public Builder field(int register, DataType type, RegisterOrder order, double scale, double offset) {
+            if (register < 0) {
+                throw new IllegalArgumentException("register must not be negative: " + register);
+            }
+            if (count == registers.length) {
+                int capacity = count * 2;
+                registers = Arrays.copyOf(registers, capacity);
+                types = Arrays.copyOf(types, capacity);
+                orders = Arrays.copyOf(orders, capacity);
+                scales = Arrays.copyOf(scales, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+            }
+            registers[count] = register;
+            types[count] = (byte) type.ordinal();
+            orders[count] = (byte) order.ordinal();
+            scales[count] = scale;
+            offsets[count] = offset;
+            count++;
+            return this;
+        }
+
+        public RegisterDecoder build() {
+            return new RegisterDecoder(this);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.dw.tool.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 重试调度器：指数退避加随机抖动，配合 {@link CircuitBreaker} 对不可达的设备快速失败
+ * <p>
+ * 第 n 次重试前等待 [d/2, d) 毫秒，d = min(maxDelay, baseDelay * 2^(n-1))，
+ * 抖动避免大量设备同时掉线后在同一时刻集中重试。
+ * 异步重试由共享的定时线程调度，等待期间不占用任何线程。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 17:30
+ */
+@Slf4j
+public class RetryScheduler {
+
+    /**
+     * 最大重试次数，不含第一次请求
+     */
+    private final int maxRetries;
+
+    /**
+     * 第一次重试前的基础等待时间（单位：毫秒）
+     */
+    private final long baseDelay;
+
+    /**
+     * 最大等待时间（单位：毫秒）
+     */
+    private final long maxDelay;
+
+    private final ScheduledExecutorService scheduler;
+
+    public RetryScheduler(int maxRetries, long baseDelay, long maxDelay) {
+        this.maxRetries = maxRetries;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "retry-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+    }
+
+    /**
+     * 异步执行，失败后在共享定时线程上按退避时间重新发起
+     *
+     * @param action  每次尝试执行的异步操作
+     * @param breaker 设备熔断器
+     * @return 最后一次尝试的结果，熔断时以 {@link CircuitBreakerOpenException} 结束，
+     * 重试过程中熔断时其 cause 为熔断前最后一次失败的异常
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> action, CircuitBreaker breaker) {
+        return execute(action, breaker, null);
+    }
+
+    /**
+     * 异步执行，失败后在共享定时线程上按退避时间重新发起
+     *
+     * @param action   每次尝试执行的异步操作
+     * @param breaker  设备熔断器
+     * @param listener 每次重试前回调，可以为 null
+     * @return 最后一次尝试的结果，熔断时以 {@link CircuitBreakerOpenException} 结束，
+     * 重试过程中熔断时其 cause 为熔断前最后一次失败的异常
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> action, CircuitBreaker breaker, RetryListener listener) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(action, breaker, listener, 0, null, result);
+        return result;
+    }
+
+    private <T> void attempt(Supplier<CompletableFuture<T>> action, CircuitBreaker breaker, RetryListener listener,
+                             int retryCount, Throwable lastFailure, CompletableFuture<T> result) {
+        if (!breaker.allowRequest()) {
+            result.completeExceptionally(new CircuitBreakerOpenException(breaker.getName(), lastFailure));
+            return;
+        }
+        CompletableFuture<T> future;
+        try {
+            future = action.get();
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                breaker.onSuccess();
+                result.complete(value);
+                return;
+            }
+            Throwable cause = unwrap(throwable);
+            if (!(cause instanceof IOException)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            breaker.onFailure();
+            if (retryCount >= maxRetries) {
+                result.completeExceptionally(new IOException("Exceeded maximum retry count", cause));
+                return;
+            }
+            long delay = backoff(retryCount + 1);
+            log.debug("发送指令失败 >> {}，{}ms后重试第{}次: {}", breaker.getName(), delay, retryCount + 1, cause.toString());
+            if (listener != null) {
+                listener.onRetry();
+            }
+            scheduler.schedule(() -> attempt(action, breaker, listener, retryCount + 1, cause, result), delay, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * 同步执行，用于阻塞式收发，失败后当前线程按退避时间等待再重试
+     *
+     * @param action  每次尝试执行的操作
+     * @param breaker 设备熔断器
+     * @return 执行结果
+     * @throws CircuitBreakerOpenException 设备处于熔断状态，重试过程中熔断时 cause 为最后一次失败的异常
+     * @throws IOException                 超过最大重试次数
+     */
+    public <T> T executeBlocking(IOCallable<T> action, CircuitBreaker breaker) throws IOException {
+        return executeBlocking(action, breaker, null);
+    }
+
+    /**
+     * 同步执行，用于阻塞式收发，失败后当前线程按退避时间等待再重试
+     *
+     * @param action   每次尝试执行的操作
+     * @param breaker  设备熔断器
+     * @param listener 每次重试前回调，可以为 null
+     * @return 执行结果
+     * @throws CircuitBreakerOpenException 设备处于熔断状态，重试过程中熔断时 cause 为最后一次失败的异常
+     * @throws IOException                 超过最大重试次数
+     */
+    public <T> T executeBlocking(IOCallable<T> action, CircuitBreaker breaker, RetryListener listener) throws IOException {
+        IOException lastFailure = null;
+        for (int retryCount = 0; ; retryCount++) {
+            if (!breaker.allowRequest()) {
+                throw new CircuitBreakerOpenException(breaker.getName(), lastFailure);
+            }
+            try {
+                T value = action.call();
+                breaker.onSuccess();
+                return value;
+            } catch (IOException e) {
+                lastFailure = e;
+                breaker.onFailure();
+                log.error("发送指令失败 >> {}: {}", breaker.getName(), e.toString());
+                if (retryCount >= maxRetries) {
+                    throw new IOException("Exceeded maximum retry count", e);
+                }
+                long delay = backoff(retryCount + 1);
+                log.debug("{}ms后，重试第{}次", delay, retryCount + 1);
+                if (listener != null) {
+                    listener.onRetry();
+                }
+                try {
+                    TimeUnit.MILLISECONDS.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("retry interrupted", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 第 retry 次重试前的等待时间，[d/2, d)
+     */
+    long backoff(int retry) {
+        long delay = Math.min(maxDelay, baseDelay << Math.min(retry - 1, 30));
+        long half = Math.max(1, delay / 2);
+        return half + ThreadLocalRandom.current().nextLong(half);
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException)
+                && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * 重试回调
+     */
+    @FunctionalInterface
+    public interface RetryListener {
+        void onRetry();
+    }
+
+    /**
+     * 可抛出 IOException 的操作
+     */
+    @FunctionalInterface
+    public interface IOCallable<T> {
+        T call() throws IOException;
+    }
+}
@@ -0,0 +1,116 @@
+package com.dw.tool.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 阻塞式 Socket 的二进制报文收发
+ * <p>
+ * 每个连接持有一个可复用的接收缓冲区，前导字节在缓冲区内直接跳过，不产生中间字符串。
+ * 与所属连接一样，同一时刻只能由一个线程使用。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 15:36
+ */
+class SocketFrameChannel {
+
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private final Socket socket;
+    private final InputStream inputStream;
+    private final OutputStream outputStream;
+
+    /**
+     * 接收缓冲区，读模式：position 到 limit 之间为已接收、未处理的数据
+     */
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    SocketFrameChannel(Socket socket) throws IOException {
+        this.socket = socket;
+        this.inputStream = socket.getInputStream();
+        this.outputStream = socket.getOutputStream();
+        this.buffer.limit(0);
+    }
+
+    /**
+     * 发送报文，直接写入 Socket，不经过额外的缓冲流
+     */
+    void write(byte[] frame, int offset, int length) throws IOException {
+        if (socket.isOutputShutdown()) {
+            throw new SocketException("output stream is shut down,can't send command");
+        }
+        // 丢弃上一次请求残留的数据，避免被当作本次响应
+        buffer.clear().limit(0);
+        outputStream.write(frame, offset, length);
+        outputStream.flush();
+    }
+
+    /**
+     * 接收一帧完整报文
+     *
+     * @param decoder 分帧器
+     * @param timeout 超时时间（单位：毫秒）
+     * @return 报文内容（不含前导字节），为接收缓冲区的只读视图，下一次收发前有效
+     * @throws SocketTimeoutException 超时未收到完整报文
+     */
+    ByteBuffer read(FrameDecoder decoder, long timeout) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (true) {
+            int preamble = decoder.preambleLength(buffer);
+            if (preamble > 0) {
+                buffer.position(buffer.position() + preamble);
+            }
+            int frameLength = decoder.frameLength(buffer);
+            if (frameLength >= 0 && buffer.remaining() >= frameLength) {
+                ByteBuffer frame = buffer.slice();
+                frame.limit(frameLength);
+                buffer.position(buffer.position() + frameLength);
+                return frame.asReadOnlyBuffer();
+            }
+            fill(deadline);
+        }
+    }
+
+    /**
+     * 从 Socket 读取数据追加到缓冲区，阻塞时间不超过截止时间
+     */
+    private void fill(long deadline) throws IOException {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remaining <= 0) {
+            throw new SocketTimeoutException("receive timeout");
+        }
+        ensureWritable();
+        socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, remaining));
+        int limit = buffer.limit();
+        int len = inputStream.read(buffer.array(), buffer.arrayOffset() + limit, buffer.capacity() - limit);
+        if (len == -1) {
+            throw new EOFException("connection closed by peer");
+        }
+        buffer.limit(limit + len);
+    }
+
+    /**
+     * 保证缓冲区末尾有可写空间：先把未处理数据移到开头，仍然不足时扩容
+     */
+    private void ensureWritable() {
+        if (buffer.limit() < buffer.capacity()) {
+            return;
+        }
+        if (buffer.position() > 0) {
+            buffer.compact().flip();
+            return;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+        larger.put(buffer);
+        larger.flip();
+        buffer = larger;
+    }
+}
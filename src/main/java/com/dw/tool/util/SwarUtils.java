@@ -0,0 +1,161 @@
+package com.dw.tool.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 按 8 字节一组处理的字节运算（SWAR，SIMD within a register）
+ * <p>
+ * 把 8 个字节读成一个 long，用位运算同时处理 8 个字节，字节之间不产生进位；不足 8 字节的部分逐字节处理，
+ * 整体不足 8 字节时不创建 ByteBuffer。
+ * 用于 DL/T 645 数据域加减 0x33、算术和校验、字节反转等，均在原数组上修改，不分配对象。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 22:10
+ */
+public class SwarUtils {
+
+    /**
+     * 每个字节的最高位
+     */
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    /**
+     * 每两个字节的低字节
+     */
+    private static final long EVEN_BYTES = 0x00FF00FF00FF00FFL;
+
+    /**
+     * 校验和分块处理的 long 个数，保证每个 16 位累加槽不溢出：64 * 2 * 255 < 65536；
+     * 4 个槽之和可能超过 16 位，因此分别取出后再相加
+     */
+    private static final int CHECKSUM_BLOCK = 64;
+
+    private SwarUtils() {
+    }
+
+    /**
+     * 每字节加上 operand（模 256），原地修改
+     *
+     * @param bytes   字节数组
+     * @param offset  起始位置
+     * @param length  字节数
+     * @param operand 0 ~ 255
+     */
+    public static void add(byte[] bytes, int offset, int length, int operand) {
+        int i = offset;
+        if (length >= 8) {
+            long y = broadcast(operand);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            for (int end = offset + length - 7; i < end; i += 8) {
+                long x = buffer.getLong(i);
+                // 低 7 位相加，最高位单独异或，进位不会跨字节
+                buffer.putLong(i, ((x & ~HIGH_BITS) + (y & ~HIGH_BITS)) ^ ((x ^ y) & HIGH_BITS));
+            }
+        }
+        for (int end = offset + length; i < end; i++) {
+            bytes[i] += operand;
+        }
+    }
+
+    /**
+     * 每字节减去 operand（模 256），原地修改
+     *
+     * @param bytes   字节数组
+     * @param offset  起始位置
+     * @param length  字节数
+     * @param operand 0 ~ 255
+     */
+    public static void subtract(byte[] bytes, int offset, int length, int operand) {
+        int i = offset;
+        if (length >= 8) {
+            long y = broadcast(operand);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            for (int end = offset + length - 7; i < end; i += 8) {
+                long x = buffer.getLong(i);
+                // 被减数最高位置 1 防止借位跨字节，再修正最高位
+                buffer.putLong(i, ((x | HIGH_BITS) - (y & ~HIGH_BITS)) ^ ((x ^ ~y) & HIGH_BITS));
+            }
+        }
+        for (int end = offset + length; i < end; i++) {
+            bytes[i] -= operand;
+        }
+    }
+
+    /**
+     * DL/T 645 数据域每字节加 0x33
+     */
+    public static void add33(byte[] bytes, int offset, int length) {
+        add(bytes, offset, length, 0x33);
+    }
+
+    /**
+     * DL/T 645 数据域每字节减 0x33
+     */
+    public static void subtract33(byte[] bytes, int offset, int length) {
+        subtract(bytes, offset, length, 0x33);
+    }
+
+    /**
+     * 算术和校验，模 256
+     *
+     * @param bytes  字节数组
+     * @param offset 起始位置
+     * @param length 字节数
+     * @return 0 ~ 255
+     */
+    public static int checksum(byte[] bytes, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        long sum = 0;
+        ByteBuffer buffer = length >= 8 ? ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN) : null;
+        while (end - i >= 8) {
+            // 4 个 16 位累加槽，奇偶字节分别累加
+            long lanes = 0;
+            for (int n = 0; n < CHECKSUM_BLOCK && end - i >= 8; n++, i += 8) {
+                long x = buffer.getLong(i);
+                lanes += (x & EVEN_BYTES) + ((x >>> 8) & EVEN_BYTES);
+            }
+            sum += (lanes & 0xFFFF) + (lanes >>> 16 & 0xFFFF) + (lanes >>> 32 & 0xFFFF) + (lanes >>> 48);
+        }
+        for (; i < end; i++) {
+            sum += bytes[i] & 0xFF;
+        }
+        return (int) (sum & 0xFF);
+    }
+
+    /**
+     * 字节逆序，原地修改，用于 645 地址域、数据域等低字节在前的字段
+     *
+     * @param bytes  字节数组
+     * @param offset 起始位置
+     * @param length 字节数
+     */
+    public static void reverse(byte[] bytes, int offset, int length) {
+        int low = offset;
+        int high = offset + length;
+        ByteBuffer buffer = length >= 16 ? ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN) : null;
+        // 两端各取 8 字节交换并逆序
+        while (high - low >= 16) {
+            long head = buffer.getLong(low);
+            long tail = buffer.getLong(high - 8);
+            buffer.putLong(low, Long.reverseBytes(tail));
+            buffer.putLong(high - 8, Long.reverseBytes(head));
+            low += 8;
+            high -= 8;
+        }
+        for (high--; low < high; low++, high--) {
+            byte b = bytes[low];
+            bytes[low] = bytes[high];
+            bytes[high] = b;
+        }
+    }
+
+    /**
+     * 把一个字节复制到 long 的 8 个字节
+     */
+    private static long broadcast(int b) {
+        return (b & 0xFFL) * 0x0101010101010101L;
+    }
+}
@@ -1,15 +1,23 @@
 package com.dw.tool.util;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.LockSupport;
-import java.util.function.Function;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * @author yanggj
@@ -20,13 +28,46 @@ import java.util.function.Function;
 public class TCPClientUtil {
 
     private static final ConnectionPool connectionPool = new ConnectionPool(6, 3000);
-    private static final ConcurrentHashMap<String, Object> lockMap = new ConcurrentHashMap<>();
+    /**
+     * DL/T 645 按网关串行的门，同步和异步接口共用，key 为 ip:port
+     * <p>
+     * 按到达顺序轮流收发，同一网关下等待的调用方尾延迟更平稳；等待时不持有 synchronized，
+     * 虚拟线程不会占住载体线程（JDK 21 ~ 23）。
+     */
+    private static final ConcurrentHashMap<String, SerialGate> gates = new ConcurrentHashMap<>();
 
 
     private static final int maxRetry = 3;
     private static final int readTimeOut = 3000;
-    // 重试间隔 单位 ms
-    private static final long retryInterval = 1000;
+    // 重试基础间隔 单位 ms，按指数退避并加随机抖动
+    private static final long retryInterval = 500;
+    // 最大重试间隔 单位 ms
+    private static final long maxRetryInterval = 5000;
+    // 连续失败多少次后熔断
+    private static final int breakerFailureThreshold = 5;
+    // 熔断时间 单位 ms，到期后放行一个探测请求
+    private static final long breakerOpenTime = 30_000;
+    // 批量轮询最大并发数
+    private static final int fleetConcurrency = 256;
+    // 每个 ip:port 报文记录的缓冲区大小 单位 byte
+    private static final int wireTraceCapacity = 16 * 1024;
+    // 单条报文最多记录的字节数
+    private static final int wireTraceMaxFrame = 512;
+
+    private static final RetryScheduler retryScheduler = new RetryScheduler(maxRetry, retryInterval, maxRetryInterval);
+    /**
+     * 设备熔断器，key 为 ip:port
+     */
+    private static final ConcurrentHashMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    /**
+     * 收发报文记录，key 为 ip:port
+     */
+    private static final WireTraceRegistry wireTraces = new WireTraceRegistry(wireTraceCapacity, wireTraceMaxFrame);
+
+    static {
+        connectionPool.getMetrics().registerMBean("TCPClientUtil");
+        wireTraces.registerMBean("TCPClientUtil");
+    }
 
     /**
      * 发送指令到TCP服务端
@@ -36,144 +77,409 @@ public class TCPClientUtil {
      * @param command    要发送的指令
      * @throws IOException 发送异常
      */
-    public static synchronized String SendAndReceive645Data(String serverIP, int serverPort, String command) throws IOException {
-        return trySendAndReceive(serverIP, serverPort, command, 0, (msg) -> {
-            String trimMsg = StringUtils.replaceIgnoreCase(msg, "FEFEFEFE", "");
-            String len_s = trimMsg.substring(9 * 2, 9 * 2 + 2);
-            int dataLen = Integer.parseInt(len_s, 16);
-            return (dataLen + 12) * 2;
-        });
+    public static String SendAndReceive645Data(String serverIP, int serverPort, String command) throws IOException {
+        return HexUtils.bytesToHexString(sendAndReceive645(serverIP, serverPort, HexUtils.hexStringToBytes(command)));
     }
 
-
-    public static String modbusSendAndReceiveData(String serverIP, int serverPort, String command) throws IOException {
-        return trySendAndReceive(serverIP, serverPort, command, 0, (msg) -> {
-            int functionCode = Integer.parseInt(msg.substring(2, 4));
-            switch (functionCode) {
-                case FunctionCode.READ_HOLDING_REGISTERS:
-                    int dataLen = Integer.parseInt(msg.substring(4, 6), 16);
-                    return (dataLen + 5) * 2;
-                case FunctionCode.WRITE_REGISTER:
-                    return command.length();
-                default:
-                    return msg.length();
+    /**
+     * 发送 DL/T 645 报文并接收响应，响应报文已去掉 FE 前导字节
+     * <p>
+     * 同一网关（ip:port）下的电表共用一条 RS-485 总线，只能逐个应答，因此按网关串行，
+     * 与 {@link #send645Async(String, int, byte[])} 共用同一队列；不同网关之间并行。
+     *
+     * @param serverIP   服务端IP地址
+     * @param serverPort 服务端端口号
+     * @param command    要发送的报文
+     * @return 响应报文
+     * @throws IOException 发送异常
+     */
+    public static byte[] sendAndReceive645(String serverIP, int serverPort, byte[] command) throws IOException {
+        SerialGate gate = getGate(serverIP, serverPort);
+        // 只在每次收发期间占用网关，重试等待期间同一网关下的其他电表可以继续读取
+        return retryScheduler.executeBlocking(() -> {
+            gate.acquireBlocking();
+            try {
+                return sendCommandAndReceive(serverIP, serverPort, command, Dlt645Codec.FRAME_DECODER);
+            } finally {
+                gate.release();
             }
-        });
+        }, getBreaker(serverIP, serverPort), getEndpointMetrics(serverIP, serverPort));
     }
 
-    private static String trySendAndReceive(String serverIP, int serverPort, String command, int retryCount, Function<String, Integer> calculateMsgLength) throws IOException {
+    /**
+     * 读取 DL/T 645-2007 电表数据（控制码 11H）
+     *
+     * @param serverIP       服务端IP地址
+     * @param serverPort     服务端端口号
+     * @param address        表地址，12 位字符串，高位在前
+     * @param dataIdentifier 数据标识 DI3DI2DI1DI0
+     * @return 应答报文，数据域已减去 0x33
+     * @throws IOException 发送异常
+     */
+    public static Dlt645Frame read645(String serverIP, int serverPort, String address, long dataIdentifier) throws IOException {
+        byte[] response = sendAndReceive645(serverIP, serverPort, Dlt645Codec.encodeRead(address, dataIdentifier));
         try {
-            return sendCommandAndReceive(serverIP, serverPort, command, calculateMsgLength);
-        } catch (IOException e) {
-            log.error("发送指令失败: ", e);
-            if (++retryCount <= maxRetry) {
-                log.debug("{}ms后，重试第{}次", retryInterval, retryCount);
-                LockSupport.parkNanos(retryInterval * 2 * 1000_000);
-                return trySendAndReceive(serverIP, serverPort, command, retryCount, calculateMsgLength);
-            } else {
-                throw new IOException("Exceeded maximum retry count", e);
+            return Dlt645Codec.decode(response);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("invalid DL/T 645 response: " + HexUtils.bytesToHexString(response), e);
+        }
+    }
+
+    /**
+     * 异步发送 DL/T 645 报文，响应报文已去掉 FE 前导字节
+     * <p>
+     * 与 {@link #sendAndReceive645(String, int, byte[])} 按网关共用同一队列，同一条总线上同时只有一帧在收发；
+     * 排队不占用线程。
+     *
+     * @param serverIP   服务端IP地址
+     * @param serverPort 服务端端口号
+     * @param command    要发送的报文
+     * @return 响应报文
+     */
+    public static CompletableFuture<byte[]> send645Async(String serverIP, int serverPort, byte[] command) {
+        return sendAsync(new InetSocketAddress(serverIP, serverPort), command, Dlt645Codec.FRAME_DECODER, getGate(serverIP, serverPort));
+    }
+
+    /**
+     * 异步发送 Modbus RTU 报文
+     *
+     * @param serverIP   服务端IP地址
+     * @param serverPort 服务端端口号
+     * @param command    要发送的报文
+     * @return 响应报文
+     */
+    public static CompletableFuture<byte[]> modbusSendAsync(String serverIP, int serverPort, byte[] command) {
+        return sendAsync(new InetSocketAddress(serverIP, serverPort), command, modbusDecoder(command.length));
+    }
+
+    /**
+     * 异步发送报文并接收响应，不占用调用线程，超时由定时器处理
+     * <p>
+     * 失败后在共享的定时线程上按指数退避重试，设备熔断期间直接失败。
+     *
+     * @param endpoint 设备地址
+     * @param frame    要发送的报文
+     * @param decoder  响应报文分帧器
+     * @return 响应报文
+     */
+    public static CompletableFuture<byte[]> sendAsync(InetSocketAddress endpoint, byte[] frame, FrameDecoder decoder) {
+        return sendAsync(endpoint, frame, decoder, null);
+    }
+
+    /**
+     * @param gate 不为 null 时每次收发前按到达顺序占用，收发结束后归还
+     */
+    private static CompletableFuture<byte[]> sendAsync(InetSocketAddress endpoint, byte[] frame, FrameDecoder decoder, SerialGate gate) {
+        EndpointMetrics metrics = getEndpointMetrics(endpoint.getHostString(), endpoint.getPort());
+        WireTrace trace = getWireTrace(endpoint.getHostString(), endpoint.getPort());
+        return retryScheduler.execute(() -> {
+            if (gate == null) {
+                return sendOnce(endpoint, frame, decoder, metrics, trace);
             }
+            return gate.acquire()
+                    .thenCompose(ignored -> sendOnce(endpoint, frame, decoder, metrics, trace))
+                    .whenComplete((response, e) -> gate.release());
+        }, getBreaker(endpoint.getHostString(), endpoint.getPort()), metrics);
+    }
+
+    private static CompletableFuture<byte[]> sendOnce(InetSocketAddress endpoint, byte[] frame, FrameDecoder decoder,
+                                                      EndpointMetrics metrics, WireTrace trace) {
+        long start = System.nanoTime();
+        trace.send(frame, 0, frame.length);
+        return NioClientHolder.CLIENT.sendAsync(endpoint, frame, decoder)
+                .whenComplete((response, e) -> {
+                    record(metrics, start, e);
+                    if (response != null) {
+                        trace.receive(response, 0, response.length);
+                    }
+                });
+    }
+
+    public static String modbusSendAndReceiveData(String serverIP, int serverPort, String command) throws IOException {
+        return HexUtils.bytesToHexString(modbusSendAndReceive(serverIP, serverPort, HexUtils.hexStringToBytes(command)));
+    }
+
+    /**
+     * 发送 Modbus RTU 报文并接收响应
+     *
+     * @param serverIP   服务端IP地址
+     * @param serverPort 服务端端口号
+     * @param command    要发送的报文
+     * @return 响应报文
+     * @throws IOException 发送异常
+     */
+    public static byte[] modbusSendAndReceive(String serverIP, int serverPort, byte[] command) throws IOException {
+        FrameDecoder decoder = modbusDecoder(command.length);
+        return retryScheduler.executeBlocking(() -> sendCommandAndReceive(serverIP, serverPort, command, decoder),
+                getBreaker(serverIP, serverPort), getEndpointMetrics(serverIP, serverPort));
+    }
+
+    /**
+     * 批量轮询设备，同一 ip:port 串行，不同设备并行，每条指令完成后立即回调结果
+     *
+     * @param commands 指令
+     * @param onResult 结果回调，需线程安全
+     * @return 全部指令完成后结束
+     */
+    public static CompletableFuture<Void> pollAll(List<FleetPoller.EndpointCommand> commands,
+                                                  Consumer<FleetPoller.PollResult> onResult) {
+        return FleetPollerHolder.POLLER.pollAll(commands, onResult);
+    }
+
+    /**
+     * 批量轮询设备并等待全部完成
+     *
+     * @param commands 指令
+     * @return 结果，顺序为完成顺序
+     */
+    public static List<FleetPoller.PollResult> pollAll(List<FleetPoller.EndpointCommand> commands) throws InterruptedException {
+        return FleetPollerHolder.POLLER.pollAll(commands);
+    }
+
+    /**
+     * 连接池与收发指标快照，同样可以通过 JMX（com.dw.tool:type=TransportMetrics,name="TCPClientUtil"）查看
+     */
+    public static List<EndpointMetrics.Snapshot> getMetrics() {
+        return connectionPool.getMetrics().snapshot();
+    }
+
+    /**
+     * 最近收发的报文，每行一帧；同样可以通过 JMX（com.dw.tool:type=WireTrace,name="TCPClientUtil"）的 dump 操作查看
+     */
+    public static String dumpWireTrace(String serverIP, int serverPort) {
+        return wireTraces.dump(serverIP + ":" + serverPort);
+    }
+
+    /**
+     * 开启或关闭报文记录，默认开启
+     */
+    public static void setWireTraceEnabled(boolean enabled) {
+        wireTraces.setEnabled(enabled);
+    }
+
+    private static WireTrace getWireTrace(String serverIP, int serverPort) {
+        return wireTraces.trace(serverIP + ":" + serverPort);
+    }
+
+    private static EndpointMetrics getEndpointMetrics(String serverIP, int serverPort) {
+        return connectionPool.getMetrics().endpoint(serverIP + ":" + serverPort);
+    }
+
+    private static void record(EndpointMetrics metrics, long start, Throwable e) {
+        if (e == null) {
+            metrics.recordRoundTrip(System.nanoTime() - start);
+        } else if (e instanceof SocketTimeoutException) {
+            metrics.recordTimeout();
+        } else {
+            metrics.recordFailure();
         }
     }
 
-    private static String sendCommandAndReceive(String serverIP, int serverPort, String command, Function<String, Integer> calculateMsgLength) throws IOException {
-        Socket socket;
+    /**
+     * 获取设备熔断器
+     */
+    private static CircuitBreaker getBreaker(String serverIP, int serverPort) {
         String key = serverIP + ":" + serverPort;
-        Object lock;
-        synchronized (lockMap) {
-            lock = lockMap.computeIfAbsent(key, k -> new Object());
-            socket = connectionPool.getConnection(serverIP, serverPort);
-        }
+        CircuitBreaker breaker = breakers.get(key);
+        return breaker != null ? breaker : breakers.computeIfAbsent(key,
+                k -> new CircuitBreaker(k, breakerFailureThreshold, breakerOpenTime));
+    }
+
+    private static byte[] sendCommandAndReceive(String serverIP, int serverPort, byte[] command, FrameDecoder decoder) throws IOException {
+        // 连接池中的连接同一时刻只借给一个线程，同一 ip:port 的多个连接可并行收发
+        Socket socket = connectionPool.getConnection(serverIP, serverPort);
+        WireTrace trace = getWireTrace(serverIP, serverPort);
+        long start = System.nanoTime();
         try {
-            synchronized (lock) {
-                try {
-                    sendCommand(socket, command);
-                } catch (SocketException se) {
-                    connectionPool.close(serverIP, serverPort);
-                    socket = connectionPool.getConnection(serverIP, serverPort);
-                    sendCommand(socket, command);
-                }
-                return receiveResponse(socket, calculateMsgLength);
+            SocketFrameChannel channel;
+            try {
+                channel = getChannel(serverIP, serverPort, socket);
+                sendCommand(channel, command, trace);
+            } catch (SocketException se) {
+                connectionPool.close(serverIP, serverPort, socket);
+                socket = connectionPool.getConnection(serverIP, serverPort);
+                channel = getChannel(serverIP, serverPort, socket);
+                sendCommand(channel, command, trace);
             }
+            byte[] response = receiveResponse(channel, decoder, trace);
+            record(getEndpointMetrics(serverIP, serverPort), start, null);
+            return response;
+        } catch (IOException e) {
+            record(getEndpointMetrics(serverIP, serverPort), start, e);
+            // 收发异常的连接中可能残留未读完的报文，不能再归还复用
+            connectionPool.close(serverIP, serverPort, socket);
+            throw e;
         } finally {
-            connectionPool.release(serverIP, serverPort);
+            connectionPool.release(serverIP, serverPort, socket);
         }
     }
 
-
     /**
-     * 发送数据到TCP服务端
-     *
-     * @param socket  要发送数据的Socket对象
-     * @param command 要发送的指令
-     * @throws IOException 发送异常
+     * 获取连接上绑定的报文收发器，收发缓冲区随连接复用
      */
-    private static void sendCommand(Socket socket, String command) throws IOException {
-        OutputStream outputStream = new BufferedOutputStream(socket.getOutputStream());
-        if (socket.isOutputShutdown()) {
-            throw new SocketException("output stream is shut down,can't send command");
-        }
-        outputStream.write(HexUtils.hexStringToBytes(command));
-        outputStream.flush();
-        log.debug("已发送指令到 {} >> command:{}", socket, command);
+    private static SocketFrameChannel getChannel(String serverIP, int serverPort, Socket socket) throws IOException {
+        return connectionPool.getAttachment(serverIP, serverPort, socket, SocketFrameChannel::new);
     }
 
+
     /**
-     * 接收TCP服务端返回的数据
+     * Modbus RTU 分帧：读响应为 地址 功能码 字节数 数据 CRC，写单个线圈/寄存器的响应与请求相同
      *
-     * @param socket TCP客户端Socket对象
-     * @return 返回服务端返回的数据的十六进制字符串
-     * @throws IOException 接收异常
+     * @param requestLength 请求报文长度
      */
-    private static String receiveResponse(Socket socket, Function<String, Integer> calculateMsgLength) throws IOException {
-        InputStream inputStream = new BufferedInputStream(socket.getInputStream());
-        StringBuilder responseBuilder = new StringBuilder();
+    private static FrameDecoder modbusDecoder(int requestLength) {
+        return buffer -> {
+            if (buffer.remaining() < 3) {
+                return -1;
+            }
+            int functionCode = buffer.get(buffer.position() + 1) & 0xFF;
+            if ((functionCode & 0x80) != 0) {
+                // 异常响应：地址 功能码 异常码 CRC
+                return 5;
+            }
+            switch (functionCode) {
+                case FunctionCode.READ_COILS:
+                case FunctionCode.READ_DISCRETE_INPUTS:
+                case FunctionCode.READ_HOLDING_REGISTERS:
+                case FunctionCode.READ_INPUT_REGISTERS:
+                    return (buffer.get(buffer.position() + 2) & 0xFF) + 5;
+                case FunctionCode.WRITE_COIL:
+                case FunctionCode.WRITE_REGISTER:
+                    return requestLength;
+                case FunctionCode.WRITE_COILS:
+                case FunctionCode.WRITE_REGISTERS:
+                    return 8;
+                default:
+                    return buffer.remaining();
+            }
+        };
+    }
 
-        byte[] buffer = new byte[1024];
-        int len;
-        int totalLen = 0;
-        String receiveMsg = "";
+    /**
+     * 延迟创建批量轮询器，不使用批量接口时不创建线程池
+     */
+    private static class FleetPollerHolder {
+        private static final FleetPoller POLLER = new FleetPoller(fleetConcurrency, 1);
+    }
 
-        // 设置超时时间以避免永久阻塞
-        long timeoutMillis = System.currentTimeMillis() + readTimeOut;
+    /**
+     * 延迟创建 NIO 客户端，只使用同步接口时不启动 I/O 线程
+     */
+    private static class NioClientHolder {
+        private static final NioTcpClient CLIENT = create();
 
-        while (totalLen < 4 && System.currentTimeMillis() < timeoutMillis) {
-            len = inputStream.read(buffer);
-            if (len != -1) {
-                responseBuilder.append(HexUtils.bytesToHexString(buffer, 0, len));
-                totalLen += len;
+        private static NioTcpClient create() {
+            try {
+                return new NioTcpClient(Math.min(4, Runtime.getRuntime().availableProcessors()), readTimeOut);
+            } catch (IOException e) {
+                throw new UncheckedIOException("init NioTcpClient failed", e);
             }
         }
+    }
 
-        String msg = responseBuilder.toString();
-        log.debug("读取到数据 >> receive: {}", msg);
-        // 预处理，去掉前导字节
-        msg = StringUtils.replaceIgnoreCase(msg, "FEFEFEFE", "");
-        log.debug("预处理后数据 >> receive: {}", msg);
+    private static SerialGate getGate(String serverIP, int serverPort) {
+        return gates.computeIfAbsent(serverIP + ":" + serverPort, k -> new SerialGate());
+    }
 
-        int msgLen = calculateMsgLength.apply(msg);
+    /**
+     * 按到达顺序逐个放行，同步调用方阻塞等待，异步调用方得到放行时完成的 future；
+     * 放行和归还可以在不同线程，异步收发在 I/O 线程上完成后归还
+     */
+    static final class SerialGate {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+        private boolean busy;
 
-        boolean isCompleteMessageReceived = false;
-        if (msg.length() >= msgLen) {
-            receiveMsg = msg.substring(0, msgLen);
-            isCompleteMessageReceived = true;
+        /**
+         * 占用，返回的 future 完成时已占用，之后必须调用一次 {@link #release()}
+         */
+        CompletableFuture<Void> acquire() {
+            CompletableFuture<Void> granted = new CompletableFuture<>();
+            lock.lock();
+            try {
+                if (busy) {
+                    waiters.add(granted);
+                    return granted;
+                }
+                busy = true;
+            } finally {
+                lock.unlock();
+            }
+            granted.complete(null);
+            return granted;
+        }
+
+        /**
+         * 阻塞直到占用，被中断时放弃排队
+         */
+        void acquireBlocking() throws IOException {
+            CompletableFuture<Void> granted = acquire();
+            try {
+                granted.get();
+            } catch (InterruptedException e) {
+                // 取消失败说明已经放行，需要归还
+                if (!granted.cancel(false)) {
+                    release();
+                }
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for gateway");
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
         }
 
-        if (!isCompleteMessageReceived) {
-            while (System.currentTimeMillis() < timeoutMillis) {
-                len = inputStream.read(buffer);
-                if (len != -1) {
-                    responseBuilder.append(HexUtils.bytesToHexString(buffer, 0, len));
-                    msg = responseBuilder.toString();
-                    if (msg.length() >= msgLen) {
-                        receiveMsg = msg.substring(0, msgLen);
-                        break;
+        /**
+         * 归还，放行下一个仍在等待的调用方
+         */
+        void release() {
+            while (true) {
+                CompletableFuture<Void> next;
+                lock.lock();
+                try {
+                    next = waiters.poll();
+                    if (next == null) {
+                        busy = false;
+                        return;
                     }
+                } finally {
+                    lock.unlock();
+                }
+                // 已取消的同步调用方跳过
+                if (next.complete(null)) {
+                    return;
                 }
             }
         }
-        log.debug("收到服务端返回的数据：{}", receiveMsg);
-        return receiveMsg;
+    }
+
+    /**
+     * 发送数据到TCP服务端
+     *
+     * @param channel 要发送数据的连接
+     * @param command 要发送的指令
+     * @param trace   报文记录
+     * @throws IOException 发送异常
+     */
+    private static void sendCommand(SocketFrameChannel channel, byte[] command, WireTrace trace) throws IOException {
+        channel.write(command, 0, command.length);
+        trace.send(command, 0, command.length);
+    }
+
+    /**
+     * 接收TCP服务端返回的数据
+     *
+     * @param channel 连接
+     * @param decoder 响应报文分帧器
+     * @param trace   报文记录
+     * @return 返回服务端返回的数据，不含前导字节
+     * @throws IOException 接收异常
+     */
+    private static byte[] receiveResponse(SocketFrameChannel channel, FrameDecoder decoder, WireTrace trace) throws IOException {
+        ByteBuffer frame = channel.read(decoder, readTimeOut);
+        byte[] response = new byte[frame.remaining()];
+        frame.get(response);
+        trace.receive(response, 0, response.length);
+        return response;
     }
 
     public static void main(String[] args) throws Exception {
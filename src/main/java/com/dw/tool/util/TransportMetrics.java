@@ -0,0 +1,117 @@
+package com.dw.tool.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 连接池与收发指标，按 ip:port 分组
+ * <p>
+ * 通过 {@link #snapshot()} 获取快照，或调用 {@link #registerMBean(String)} 注册到 JMX，
+ * ObjectName 为 {@code com.dw.tool:type=TransportMetrics,name=名称}。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 19:05
+ */
+@Slf4j
+public class TransportMetrics implements TransportMetricsMXBean {
+
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * 获取 ip:port 的指标，不存在时创建
+     *
+     * @param endpoint ip:port
+     */
+    public EndpointMetrics endpoint(String endpoint) {
+        EndpointMetrics metrics = endpoints.get(endpoint);
+        return metrics != null ? metrics : endpoints.computeIfAbsent(endpoint, EndpointMetrics::new);
+    }
+
+    /**
+     * 所有 ip:port 的指标快照
+     */
+    public List<EndpointMetrics.Snapshot> snapshot() {
+        List<EndpointMetrics.Snapshot> snapshots = new ArrayList<>(endpoints.size());
+        for (EndpointMetrics metrics : endpoints.values()) {
+            snapshots.add(metrics.snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * 注册到平台 MBeanServer，重复注册时替换旧的 MBean
+     *
+     * @param name ObjectName 中的 name 属性
+     */
+    public void registerMBean(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("com.dw.tool:type=TransportMetrics,name=" + ObjectName.quote(name));
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            log.error("注册 JMX 指标失败 >> {}", name, e);
+        }
+    }
+
+    @Override
+    public List<EndpointMetrics.Snapshot> getEndpoints() {
+        return snapshot();
+    }
+
+    @Override
+    public int getActiveConnections() {
+        int sum = 0;
+        for (EndpointMetrics metrics : endpoints.values()) {
+            sum += metrics.activeConnections.get();
+        }
+        return sum;
+    }
+
+    @Override
+    public int getIdleConnections() {
+        int sum = 0;
+        for (EndpointMetrics metrics : endpoints.values()) {
+            sum += Math.max(0, metrics.openConnections.get() - metrics.activeConnections.get());
+        }
+        return sum;
+    }
+
+    @Override
+    public long getRetries() {
+        long sum = 0;
+        for (EndpointMetrics metrics : endpoints.values()) {
+            sum += metrics.retries.sum();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getTimeouts() {
+        long sum = 0;
+        for (EndpointMetrics metrics : endpoints.values()) {
+            sum += metrics.timeouts.sum();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getFailures() {
+        long sum = 0;
+        for (EndpointMetrics metrics : endpoints.values()) {
+            sum += metrics.failures.sum();
+        }
+        return sum;
+    }
+}
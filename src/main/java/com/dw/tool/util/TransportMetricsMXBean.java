@@ -0,0 +1,28 @@
+package com.dw.tool.util;
+
+import java.util.List;
+
+/**
+ * 连接池与收发指标 JMX 接口
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 19:05
+ */
+public interface TransportMetricsMXBean {
+
+    /**
+     * 所有 ip:port 的指标
+     */
+    List<EndpointMetrics.Snapshot> getEndpoints();
+
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    long getRetries();
+
+    long getTimeouts();
+
+    long getFailures();
+}
@@ -0,0 +1,268 @@
+package com.dw.tool.util;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单个 ip:port 的收发报文记录
+ * <p>
+ * 报文原样复制到固定大小的堆外环形缓冲区，写满后覆盖最早的记录；记录时只做内存复制，
+ * 十六进制格式化推迟到 {@link #entries()}、{@link #dump()} 时进行，生产环境可以长期开启。
+ * 缓冲区在第一次记录时分配。每条记录为：总长度（4）、时间戳毫秒（8）、方向（1）、报文原始长度（4）、报文，
+ * 超过 maxFrameLength 的报文只保留前面部分。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 00:10
+ */
+public class WireTrace {
+
+    public enum Direction {
+        SEND(">>"),
+        RECEIVE("<<");
+
+        private final String symbol;
+
+        Direction(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+    }
+
+    private static final int HEADER_LENGTH = 17;
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final String endpoint;
+
+    private final int capacity;
+
+    private final int maxFrameLength;
+
+    private volatile boolean enabled = true;
+
+    /**
+     * 以下字段由 this 保护；head、tail 为累计写入位置，对 capacity 取模得到缓冲区下标
+     */
+    private ByteBuffer ring;
+    private long head;
+    private long tail;
+    private long recorded;
+
+    /**
+     * @param endpoint       ip:port
+     * @param capacity       缓冲区字节数
+     * @param maxFrameLength 单条报文最多保留的字节数
+     */
+    public WireTrace(String endpoint, int capacity, int maxFrameLength) {
+        if (capacity < HEADER_LENGTH + maxFrameLength) {
+            throw new IllegalArgumentException("capacity " + capacity + " too small for frames of " + maxFrameLength + " bytes");
+        }
+        this.endpoint = endpoint;
+        this.capacity = capacity;
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void send(byte[] frame, int offset, int length) {
+        record(Direction.SEND, frame, offset, length);
+    }
+
+    public void receive(byte[] frame, int offset, int length) {
+        record(Direction.RECEIVE, frame, offset, length);
+    }
+
+    /**
+     * 记录一帧报文，不分配对象
+     */
+    public void record(Direction direction, byte[] frame, int offset, int length) {
+        if (!enabled) {
+            return;
+        }
+        int captured = Math.min(length, maxFrameLength);
+        int size = HEADER_LENGTH + captured;
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (ring == null) {
+                ring = ByteBuffer.allocateDirect(capacity);
+            }
+            while (head + size - tail > capacity) {
+                tail += getInt(tail);
+            }
+            long p = head;
+            putInt(p, size);
+            putLong(p + 4, now);
+            putByte(p + 12, direction.ordinal());
+            putInt(p + 13, length);
+            putBytes(p + HEADER_LENGTH, frame, offset, captured);
+            head += size;
+            recorded++;
+        }
+    }
+
+    /**
+     * 累计记录的报文数，包括已被覆盖的
+     */
+    public synchronized long getRecorded() {
+        return recorded;
+    }
+
+    public synchronized void clear() {
+        tail = head;
+    }
+
+    /**
+     * 缓冲区中的记录，从早到晚
+     */
+    public List<Entry> entries() {
+        byte[] copy;
+        synchronized (this) {
+            copy = new byte[(int) (head - tail)];
+            for (long p = tail; p < head; p++) {
+                copy[(int) (p - tail)] = ring.get(index(p));
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(copy);
+        List<Entry> entries = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            int start = buffer.position();
+            int size = buffer.getInt();
+            long time = buffer.getLong();
+            Direction direction = DIRECTIONS[buffer.get()];
+            int length = buffer.getInt();
+            byte[] data = new byte[size - HEADER_LENGTH];
+            buffer.get(data);
+            entries.add(new Entry(time, direction, length, data));
+            buffer.position(start + size);
+        }
+        return entries;
+    }
+
+    /**
+     * 格式化全部记录，每行一帧
+     */
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        for (Entry entry : entries()) {
+            entry.appendTo(sb.append(endpoint).append(' '));
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private int index(long position) {
+        return (int) (position % capacity);
+    }
+
+    private void putByte(long position, int b) {
+        ring.put(index(position), (byte) b);
+    }
+
+    private void putInt(long position, int value) {
+        for (int i = 0; i < 4; i++) {
+            putByte(position + i, value >>> (24 - i * 8));
+        }
+    }
+
+    private void putLong(long position, long value) {
+        putInt(position, (int) (value >>> 32));
+        putInt(position + 4, (int) value);
+    }
+
+    private int getInt(long position) {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = value << 8 | (ring.get(index(position + i)) & 0xFF);
+        }
+        return value;
+    }
+
+    private void putBytes(long position, byte[] src, int offset, int length) {
+        int index = index(position);
+        int first = Math.min(length, capacity - index);
+        ring.position(index);
+        ring.put(src, offset, first);
+        if (first < length) {
+            ring.position(0);
+            ring.put(src, offset + first, length - first);
+        }
+    }
+
+    /**
+     * 一帧报文记录
+     */
+    public static class Entry {
+
+        private final long timeMillis;
+        private final Direction direction;
+        private final int length;
+        private final byte[] data;
+
+        Entry(long timeMillis, Direction direction, int length, byte[] data) {
+            this.timeMillis = timeMillis;
+            this.direction = direction;
+            this.length = length;
+            this.data = data;
+        }
+
+        public long getTimeMillis() {
+            return timeMillis;
+        }
+
+        public Direction getDirection() {
+            return direction;
+        }
+
+        /**
+         * 报文原始长度
+         */
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * 保留的报文内容，超长报文只有前面部分
+         */
+        public byte[] getData() {
+            return data;
+        }
+
+        public boolean isTruncated() {
+            return data.length < length;
+        }
+
+        StringBuilder appendTo(StringBuilder sb) {
+            sb.append(TIME_FORMAT.format(Instant.ofEpochMilli(timeMillis)))
+                    .append(' ').append(direction.getSymbol())
+                    .append(" [").append(length).append("] ");
+            HexUtils.appendHex(sb, data, 0, data.length);
+            return isTruncated() ? sb.append("...") : sb;
+        }
+
+        @Override
+        public String toString() {
+            return appendTo(new StringBuilder()).toString();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.dw.tool.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按 ip:port 管理 {@link WireTrace}
+ * <p>
+ * 可以调用 {@link #registerMBean(String)} 注册到 JMX，ObjectName 为 {@code com.dw.tool:type=WireTrace,name=名称}，
+ * 在 JConsole 中调用 dump 操作查看报文。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 00:10
+ */
+@Slf4j
+public class WireTraceRegistry implements WireTraceRegistryMXBean {
+
+    private final Map<String, WireTrace> traces = new ConcurrentHashMap<>();
+
+    private final int capacity;
+
+    private final int maxFrameLength;
+
+    private volatile boolean enabled = true;
+
+    /**
+     * @param capacity       每个 ip:port 的缓冲区字节数
+     * @param maxFrameLength 单条报文最多保留的字节数
+     */
+    public WireTraceRegistry(int capacity, int maxFrameLength) {
+        this.capacity = capacity;
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    /**
+     * 获取 ip:port 的记录，不存在时创建
+     *
+     * @param endpoint ip:port
+     */
+    public WireTrace trace(String endpoint) {
+        WireTrace trace = traces.get(endpoint);
+        return trace != null ? trace : traces.computeIfAbsent(endpoint, this::create);
+    }
+
+    private WireTrace create(String endpoint) {
+        WireTrace trace = new WireTrace(endpoint, capacity, maxFrameLength);
+        trace.setEnabled(enabled);
+        return trace;
+    }
+
+    public void registerMBean(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("com.dw.tool:type=WireTrace,name=" + ObjectName.quote(name));
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            log.error("注册 JMX 报文记录失败 >> {}", name, e);
+        }
+    }
+
+    @Override
+    public List<String> getEndpoints() {
+        List<String> endpoints = new ArrayList<>(traces.keySet());
+        Collections.sort(endpoints);
+        return endpoints;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        for (WireTrace trace : traces.values()) {
+            trace.setEnabled(enabled);
+        }
+    }
+
+    @Override
+    public String dump(String endpoint) {
+        WireTrace trace = traces.get(endpoint);
+        return trace != null ? trace.dump() : "";
+    }
+
+    @Override
+    public void clear(String endpoint) {
+        WireTrace trace = traces.get(endpoint);
+        if (trace != null) {
+            trace.clear();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.dw.tool.util;
+
+import java.util.List;
+
+/**
+ * 报文记录 JMX 接口
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 00:10
+ */
+public interface WireTraceRegistryMXBean {
+
+    /**
+     * 有记录的 ip:port
+     */
+    List<String> getEndpoints();
+
+    boolean isEnabled();
+
+    /**
+     * 开启或关闭所有 ip:port 的记录
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * 格式化指定 ip:port 的记录，每行一帧
+     */
+    String dump(String endpoint);
+
+    void clear(String endpoint);
+}
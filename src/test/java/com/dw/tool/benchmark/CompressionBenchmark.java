@@ -0,0 +1,203 @@
+package com.dw.tool.benchmark;
+
+import com.dw.tool.util.FrameCompressor;
+import com.dw.tool.util.ModbusCrc16;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 压缩基准测试，输出各语料、各模式的压缩率和压缩、解压速度
+ * <p>
+ * 语料：批量 Modbus 响应帧、十六进制报文日志、JSON 遥测、随机数据；另外逐条压缩短 JSON，对比有无字典。
+ * Base64 一行为原 ByteArrHelper.compress 的效果。
+ * <pre>
+ * java -cp target/classes:target/test-classes com.dw.tool.benchmark.CompressionBenchmark [每项毫秒数]
+ * </pre>
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 23:30
+ */
+public class CompressionBenchmark {
+
+    private static final int BATCH_SIZE = 256 * 1024;
+
+    /**
+     * 防止 JIT 消除没有使用的结果
+     */
+    private static int sink;
+
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        Random random = new Random(42);
+        System.out.printf("%-14s %-16s %-8s %-14s %-14s%n", "corpus", "mode", "ratio", "compress MB/s", "expand MB/s");
+        batch("modbus frames", modbusFrames(random), millis);
+        batch("hex log", hexLog(random), millis);
+        batch("json", join(jsonLines(random, 4000)), millis);
+        byte[] noise = new byte[BATCH_SIZE];
+        random.nextBytes(noise);
+        batch("random", noise, millis);
+
+        List<byte[]> lines = jsonLines(random, 2000);
+        byte[] dictionary = FrameCompressor.buildDictionary(lines.subList(0, 200), 16 * 1024);
+        List<byte[]> frames = lines.subList(200, lines.size());
+        perFrame(frames, "fast", FrameCompressor.FAST, millis);
+        perFrame(frames, "fast+dict", new FrameCompressor(FrameCompressor.Mode.FAST, dictionary), millis);
+        perFrame(frames, "deflate", FrameCompressor.DEFLATE, millis);
+        perFrame(frames, "deflate+dict", new FrameCompressor(FrameCompressor.Mode.DEFLATE, dictionary), millis);
+        System.out.println(sink == 42 ? "" : "done");
+    }
+
+    private static void batch(String corpus, byte[] data, long millis) {
+        byte[] base64 = Base64.getEncoder().encode(data);
+        double base64Speed = measure(millis, data.length, () -> Base64.getEncoder().encode(data).length);
+        double base64Back = measure(millis, data.length, () -> Base64.getDecoder().decode(base64).length);
+        print(corpus, "base64", (double) base64.length / data.length, base64Speed, base64Back);
+        for (FrameCompressor.Mode mode : FrameCompressor.Mode.values()) {
+            FrameCompressor compressor = new FrameCompressor(mode);
+            byte[] compressed = compressor.compress(data);
+            byte[] out = new byte[data.length];
+            byte[] buffer = new byte[FrameCompressor.maxCompressedLength(data.length)];
+            double compress = measure(millis, data.length, () -> compressor.compress(data, 0, data.length, buffer, 0));
+            double expand = measure(millis, data.length, () -> compressor.decompress(compressed, 0, compressed.length, out, 0));
+            print(corpus, mode.name().toLowerCase(), (double) compressed.length / data.length, compress, expand);
+        }
+    }
+
+    private static void perFrame(List<byte[]> frames, String name, FrameCompressor compressor, long millis) {
+        long original = 0;
+        long packed = 0;
+        List<byte[]> compressed = new ArrayList<>(frames.size());
+        for (byte[] frame : frames) {
+            byte[] z = compressor.compress(frame);
+            compressed.add(z);
+            original += frame.length;
+            packed += z.length;
+        }
+        byte[] buffer = new byte[FrameCompressor.maxCompressedLength(1024)];
+        byte[] out = new byte[1024];
+        int average = (int) (original / frames.size());
+        double compress = measure(millis, average, new Task() {
+            int i;
+
+            @Override
+            public int run() {
+                byte[] frame = frames.get(i++ % frames.size());
+                return compressor.compress(frame, 0, frame.length, buffer, 0);
+            }
+        });
+        double expand = measure(millis, average, new Task() {
+            int i;
+
+            @Override
+            public int run() {
+                byte[] z = compressed.get(i++ % compressed.size());
+                return compressor.decompress(z, 0, z.length, out, 0);
+            }
+        });
+        print("json per frame", name, (double) packed / original, compress, expand);
+    }
+
+    /**
+     * @return MB/s
+     */
+    private static double measure(long millis, int bytesPerOp, Task task) {
+        long warmupEnd = System.nanoTime() + millis * 500_000L;
+        while (System.nanoTime() < warmupEnd) {
+            sink += task.run();
+        }
+        long ops = 0;
+        long start = System.nanoTime();
+        long end = start + millis * 1_000_000L;
+        long now;
+        do {
+            sink += task.run();
+            ops++;
+            now = System.nanoTime();
+        } while (now < end);
+        return ops * (double) bytesPerOp * 1e3 / (now - start);
+    }
+
+    private static void print(String corpus, String mode, double ratio, double compress, double expand) {
+        System.out.printf("%-14s %-16s %-8.3f %-14.1f %-14.1f%n", corpus, mode, ratio, compress, expand);
+    }
+
+    /**
+     * 03 功能码读 40 个寄存器的响应，寄存器值缓慢变化
+     */
+    private static byte[] modbusFrames(Random random) {
+        byte[] data = new byte[BATCH_SIZE];
+        int[] registers = new int[40];
+        for (int i = 0; i < registers.length; i++) {
+            registers[i] = 2200 + random.nextInt(100);
+        }
+        int frameLength = 3 + registers.length * 2 + 2;
+        for (int p = 0; p + frameLength <= data.length; p += frameLength) {
+            data[p] = (byte) (1 + random.nextInt(8));
+            data[p + 1] = 3;
+            data[p + 2] = (byte) (registers.length * 2);
+            for (int i = 0; i < registers.length; i++) {
+                registers[i] += random.nextInt(3) - 1;
+                data[p + 3 + i * 2] = (byte) (registers[i] >>> 8);
+                data[p + 4 + i * 2] = (byte) registers[i];
+            }
+            ModbusCrc16.append(data, p, frameLength - 2);
+        }
+        return data;
+    }
+
+    /**
+     * 带时间戳的 DL/T 645 收发日志
+     */
+    private static byte[] hexLog(Random random) {
+        StringBuilder sb = new StringBuilder(BATCH_SIZE);
+        long time = 1_790_000_000_000L;
+        while (sb.length() < BATCH_SIZE - 200) {
+            time += 200 + random.nextInt(50);
+            sb.append(time).append(" 192.168.16.").append(100 + random.nextInt(20)).append(":51001 recv FEFEFEFE68");
+            for (int i = 0; i < 6; i++) {
+                sb.append(String.format("%02X", random.nextInt(4)));
+            }
+            sb.append("68910833333433");
+            for (int i = 0; i < 4; i++) {
+                sb.append(String.format("%02X", 0x33 + random.nextInt(10)));
+            }
+            sb.append(String.format("%02X", random.nextInt(256))).append("16\n");
+        }
+        return sb.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static List<byte[]> jsonLines(Random random, int count) {
+        List<byte[]> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String line = String.format("{\"sn\":\"MTR%06d\",\"ts\":%d,\"ua\":%.1f,\"ub\":%.1f,\"uc\":%.1f,\"ia\":%.2f,\"p\":%.3f,\"ep\":%.2f}",
+                    random.nextInt(500), 1_790_000_000L + i, 220 + random.nextGaussian(), 220 + random.nextGaussian(),
+                    220 + random.nextGaussian(), 5 + random.nextDouble(), 3 + random.nextDouble(), 10_000 + i * 0.01);
+            lines.add(line.getBytes(StandardCharsets.US_ASCII));
+        }
+        return lines;
+    }
+
+    private static byte[] join(List<byte[]> lines) {
+        int total = 0;
+        for (byte[] line : lines) {
+            total += line.length + 1;
+        }
+        byte[] data = new byte[total];
+        int p = 0;
+        for (byte[] line : lines) {
+            System.arraycopy(line, 0, data, p, line.length);
+            p += line.length;
+            data[p++] = '\n';
+        }
+        return data;
+    }
+
+    private interface Task {
+        int run();
+    }
+}
@@ -0,0 +1,114 @@
+package com.dw.tool.benchmark;
+
+import com.dw.tool.util.ConnectionPool;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ConnectionPool 借出/归还竞争基准测试
+ * <p>
+ * 每个线程只访问自己的 ip:port，线程之间没有共享的子池。
+ * 连接池无全局锁时，吞吐量应随线程数近似线性增长（受 CPU 核数限制）。
+ * <pre>
+ * java -cp target/classes:target/test-classes com.dw.tool.benchmark.ConnectionPoolBenchmark [最大线程数] [每轮秒数]
+ * </pre>
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 10:12
+ */
+public class ConnectionPoolBenchmark {
+
+    private static final String HOST = "127.0.0.1";
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        List<ServerSocket> servers = new ArrayList<>();
+        for (int i = 0; i < maxThreads; i++) {
+            servers.add(startServer());
+        }
+        ConnectionPool pool = new ConnectionPool(1, 3000);
+
+        double base = 0;
+        System.out.printf("%-8s %-16s %-10s%n", "threads", "ops/s", "speedup");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double opsPerSecond = run(pool, servers, threads, seconds);
+            if (base == 0) {
+                base = opsPerSecond;
+            }
+            System.out.printf("%-8d %-16.0f %-10.2f%n", threads, opsPerSecond, opsPerSecond / base);
+        }
+        for (ServerSocket server : servers) {
+            server.close();
+        }
+        System.exit(0);
+    }
+
+    private static double run(ConnectionPool pool, List<ServerSocket> servers, int threads, int seconds) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int port = servers.get(t).getLocalPort();
+            Thread thread = new Thread(() -> {
+                try {
+                    // 预热：建立连接并让 JIT 编译热点路径
+                    for (int i = 0; i < 10_000; i++) {
+                        borrowAndRelease(pool, port);
+                    }
+                    while (running.get()) {
+                        borrowAndRelease(pool, port);
+                        ops.increment();
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                } finally {
+                    done.countDown();
+                }
+            }, "bench-" + t);
+            thread.start();
+        }
+        // 预热阶段不计入统计
+        TimeUnit.MILLISECONDS.sleep(500);
+        ops.reset();
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(seconds);
+        long count = ops.sum();
+        long elapsed = System.nanoTime() - start;
+        running.set(false);
+        done.await();
+        return count * 1e9 / elapsed;
+    }
+
+    private static void borrowAndRelease(ConnectionPool pool, int port) throws IOException {
+        Socket socket = pool.getConnection(HOST, port);
+        pool.release(HOST, port, socket);
+    }
+
+    private static ServerSocket startServer() throws IOException {
+        ServerSocket server = new ServerSocket(0);
+        Thread acceptor = new Thread(() -> {
+            List<Socket> accepted = new ArrayList<>();
+            try {
+                while (!server.isClosed()) {
+                    accepted.add(server.accept());
+                }
+            } catch (IOException ignored) {
+                // 服务端关闭
+            }
+        }, "bench-server-" + server.getLocalPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return server;
+    }
+}
@@ -0,0 +1,401 @@
+package com.dw.tool.benchmark;
+
+import com.dw.tool.util.Dlt645Codec;
+import com.dw.tool.util.Dlt645Frame;
+import com.dw.tool.util.ModbusCrc16;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地设备模拟器
+ * <p>
+ * 在 127.0.0.1 上监听若干端口，每个端口模拟一台设备（或网关），按协议应答请求：
+ * <ul>
+ *     <li>MODBUS_RTU：RTU 报文透传（带 CRC），读寄存器返回寄存器地址作为值</li>
+ *     <li>MODBUS_TCP：MBAP 报文，同一连接上的多个请求可以同时在途</li>
+ *     <li>DLT645：DL/T 645-2007 读数据，返回数据标识和 4 字节 BCD 数据</li>
+ * </ul>
+ * 可配置响应延迟、随机抖动、丢包率（不应答）和 645 前导字节。
+ * 所有端口共用一个 NIO 线程，1000 个端口也只占用一个线程。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 20:40
+ */
+public class DeviceSimulator implements Closeable {
+
+    public enum Protocol {
+        MODBUS_RTU, MODBUS_TCP, DLT645
+    }
+
+    private static final String HOST = "127.0.0.1";
+
+    private final Protocol protocol;
+    private final long latencyNanos;
+    private final long jitterNanos;
+    private final double dropRate;
+    private final boolean preamble;
+
+    private final Selector selector;
+    private final List<ServerSocketChannel> servers = new ArrayList<>();
+    private final List<InetSocketAddress> endpoints = new ArrayList<>();
+
+    /**
+     * 延迟发送的响应，按发送时间排序，只由 NIO 线程访问
+     */
+    private final PriorityQueue<Reply> replies = new PriorityQueue<>((a, b) -> Long.compare(a.due, b.due));
+
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /**
+     * 构造函数，创建后立即开始监听
+     *
+     * @param protocol  协议
+     * @param devices   设备数，每台设备一个端口
+     * @param latency   响应延迟（单位：微秒）
+     * @param jitter    随机抖动上限（单位：微秒），实际延迟为 latency + [0, jitter)
+     * @param dropRate  丢包率，0 ~ 1，丢弃的请求不应答
+     * @param preamble  645 响应是否带 FE 前导字节
+     */
+    public DeviceSimulator(Protocol protocol, int devices, long latency, long jitter, double dropRate, boolean preamble) throws IOException {
+        this.protocol = protocol;
+        this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latency);
+        this.jitterNanos = TimeUnit.MICROSECONDS.toNanos(jitter);
+        this.dropRate = dropRate;
+        this.preamble = preamble;
+        this.selector = Selector.open();
+        try {
+            for (int i = 0; i < devices; i++) {
+                ServerSocketChannel server = ServerSocketChannel.open();
+                servers.add(server);
+                server.bind(new InetSocketAddress(HOST, 0), 1024);
+                server.configureBlocking(false);
+                server.register(selector, SelectionKey.OP_ACCEPT);
+                endpoints.add(new InetSocketAddress(HOST, server.socket().getLocalPort()));
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        this.worker = new Thread(this::run, "device-simulator");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 模拟设备的地址
+     */
+    public List<InetSocketAddress> getEndpoints() {
+        return endpoints;
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                flushReplies(now);
+                Reply next = replies.peek();
+                if (next == null) {
+                    selector.select();
+                } else {
+                    long waitMillis = TimeUnit.NANOSECONDS.toMillis(next.due - now);
+                    if (waitMillis > 0) {
+                        selector.select(waitMillis);
+                    } else {
+                        selector.selectNow();
+                    }
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (key.isAcceptable()) {
+                            accept((ServerSocketChannel) key.channel());
+                        } else if (key.isReadable()) {
+                            read(key);
+                        }
+                    } catch (IOException e) {
+                        closeQuietly(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void accept(ServerSocketChannel server) throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.register(selector, SelectionKey.OP_READ, new Session(channel));
+        }
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        Session session = (Session) key.attachment();
+        ByteBuffer in = session.in;
+        if (session.channel.read(in) < 0) {
+            closeQuietly(key);
+            return;
+        }
+        in.flip();
+        int length;
+        while ((length = requestLength(in)) > 0 && in.remaining() >= length) {
+            byte[] request = new byte[length];
+            in.get(request);
+            if (dropRate > 0 && ThreadLocalRandom.current().nextDouble() < dropRate) {
+                continue;
+            }
+            byte[] response = respond(request);
+            if (response != null) {
+                long delay = latencyNanos + (jitterNanos > 0 ? ThreadLocalRandom.current().nextLong(jitterNanos) : 0);
+                // 同一连接上的响应按请求顺序发送
+                long due = Math.max(System.nanoTime() + delay, session.lastDue);
+                session.lastDue = due;
+                replies.add(new Reply(session, ByteBuffer.wrap(response), due));
+            }
+        }
+        if (length < 0) {
+            closeQuietly(key);
+            return;
+        }
+        in.compact();
+        if (!in.hasRemaining()) {
+            closeQuietly(key);
+        }
+    }
+
+    private void flushReplies(long now) {
+        Reply reply;
+        while ((reply = replies.peek()) != null && reply.due - now <= 0) {
+            replies.poll();
+            Session session = reply.session;
+            if (!session.channel.isOpen()) {
+                continue;
+            }
+            try {
+                // 回环网络上响应报文很短，一次写不完时直接重试
+                session.channel.write(reply.data);
+                while (reply.data.hasRemaining()) {
+                    session.channel.write(reply.data);
+                    Thread.yield();
+                }
+            } catch (IOException e) {
+                closeQuietly(session.channel.keyFor(selector));
+            }
+        }
+    }
+
+    /**
+     * 缓冲区中第一条完整请求的长度，数据不足时返回 0，无法识别时返回 -1
+     */
+    private int requestLength(ByteBuffer in) {
+        int p = in.position();
+        int n = in.remaining();
+        switch (protocol) {
+            case MODBUS_TCP:
+                return n < 6 ? 0 : 6 + (((in.get(p + 4) & 0xFF) << 8) | (in.get(p + 5) & 0xFF));
+            case MODBUS_RTU: {
+                if (n < 2) {
+                    return 0;
+                }
+                int fc = in.get(p + 1) & 0xFF;
+                if (fc >= 1 && fc <= 6) {
+                    return 8;
+                }
+                if (fc == 15 || fc == 16) {
+                    return n < 7 ? 0 : 9 + (in.get(p + 6) & 0xFF);
+                }
+                return -1;
+            }
+            default: {
+                int start = 0;
+                while (start < n && in.get(p + start) == Dlt645Codec.PREAMBLE) {
+                    start++;
+                }
+                if (n - start < 10) {
+                    return 0;
+                }
+                return start + 12 + (in.get(p + start + 9) & 0xFF);
+            }
+        }
+    }
+
+    private byte[] respond(byte[] request) {
+        switch (protocol) {
+            case MODBUS_TCP: {
+                byte[] pdu = respondPdu(request, 7, request.length - 7);
+                if (pdu == null) {
+                    return null;
+                }
+                byte[] response = new byte[7 + pdu.length];
+                System.arraycopy(request, 0, response, 0, 4);
+                response[4] = (byte) ((pdu.length + 1) >> 8);
+                response[5] = (byte) (pdu.length + 1);
+                response[6] = request[6];
+                System.arraycopy(pdu, 0, response, 7, pdu.length);
+                return response;
+            }
+            case MODBUS_RTU: {
+                byte[] pdu = respondPdu(request, 1, request.length - 3);
+                if (pdu == null) {
+                    return null;
+                }
+                byte[] response = new byte[pdu.length + 3];
+                response[0] = request[0];
+                System.arraycopy(pdu, 0, response, 1, pdu.length);
+                ModbusCrc16.append(response, 0, response.length - 2);
+                return response;
+            }
+            default:
+                return respond645(request);
+        }
+    }
+
+    /**
+     * Modbus PDU 应答：读寄存器返回寄存器地址，读线圈返回交替的 0/1，写请求原样确认
+     */
+    private static byte[] respondPdu(byte[] request, int offset, int length) {
+        if (length < 5) {
+            return null;
+        }
+        int fc = request[offset] & 0xFF;
+        int address = ((request[offset + 1] & 0xFF) << 8) | (request[offset + 2] & 0xFF);
+        int quantity = ((request[offset + 3] & 0xFF) << 8) | (request[offset + 4] & 0xFF);
+        switch (fc) {
+            case 1:
+            case 2: {
+                int byteCount = (quantity + 7) / 8;
+                byte[] pdu = new byte[2 + byteCount];
+                pdu[0] = (byte) fc;
+                pdu[1] = (byte) byteCount;
+                for (int i = 0; i < byteCount; i++) {
+                    pdu[2 + i] = (byte) 0x55;
+                }
+                return pdu;
+            }
+            case 3:
+            case 4: {
+                byte[] pdu = new byte[2 + quantity * 2];
+                pdu[0] = (byte) fc;
+                pdu[1] = (byte) (quantity * 2);
+                for (int i = 0; i < quantity; i++) {
+                    int value = address + i;
+                    pdu[2 + i * 2] = (byte) (value >> 8);
+                    pdu[3 + i * 2] = (byte) value;
+                }
+                return pdu;
+            }
+            case 5:
+            case 6:
+            case 15:
+            case 16: {
+                byte[] pdu = new byte[5];
+                System.arraycopy(request, offset, pdu, 0, 5);
+                return pdu;
+            }
+            default:
+                return new byte[]{(byte) (fc | 0x80), 0x01};
+        }
+    }
+
+    /**
+     * 645 读数据应答：数据标识 + 4 字节 BCD 数据 00001234
+     */
+    private byte[] respond645(byte[] request) {
+        Dlt645Frame frame;
+        try {
+            frame = Dlt645Codec.decode(request);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (frame.getControlCode() != Dlt645Codec.READ_DATA) {
+            return null;
+        }
+        byte[] data = new byte[8];
+        System.arraycopy(frame.getData(), 0, data, 0, Math.min(4, frame.getData().length));
+        data[4] = 0x34;
+        data[5] = 0x12;
+        return Dlt645Codec.encode(frame.getAddress(), Dlt645Codec.READ_DATA | Dlt645Frame.DIRECTION_RESPONSE,
+                data, 0, data.length, preamble);
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        if (key == null) {
+            return;
+        }
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // 已关闭
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        if (worker != null) {
+            try {
+                worker.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            closeQuietly(key);
+        }
+        for (ServerSocketChannel server : servers) {
+            server.close();
+        }
+        selector.close();
+    }
+
+    /**
+     * 单个连接
+     */
+    private static class Session {
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(4096);
+        private long lastDue;
+
+        private Session(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * 待发送的响应
+     */
+    private static class Reply {
+        private final Session session;
+        private final ByteBuffer data;
+        private final long due;
+
+        private Reply(Session session, ByteBuffer data, long due) {
+            this.session = session;
+            this.data = data;
+            this.due = due;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.dw.tool.benchmark;
+
+import com.dw.tool.util.HexUtils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntSupplier;
+
+/**
+ * 十六进制编解码基准测试，对比查表实现与原实现（Integer.toHexString / String.indexOf）
+ * <pre>
+ * java -cp target/classes:target/test-classes com.dw.tool.benchmark.HexBenchmark [报文字节数] [每项毫秒数]
+ * </pre>
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 21:10
+ */
+public class HexBenchmark {
+
+    private static final String HEX_STR = "0123456789ABCDEF";
+
+    /**
+     * 防止 JIT 消除没有使用的结果
+     */
+    private static int sink;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+
+        byte[] frame = new byte[size];
+        ThreadLocalRandom.current().nextBytes(frame);
+        String hex = HexUtils.bytesToHexString(frame);
+        char[] chars = new char[size * 2];
+        byte[] bytes = new byte[size];
+
+        System.out.printf("报文 %d 字节%n", size);
+        System.out.printf("%-28s %-14s%n", "case", "ops/s");
+        run("encode legacy", millis, () -> legacyToHexString(frame).length());
+        run("encode bytesToHexString", millis, () -> HexUtils.bytesToHexString(frame).length());
+        run("encode into char[]", millis, () -> HexUtils.encode(frame, 0, frame.length, chars, 0));
+        run("decode legacy", millis, () -> legacyHexStr2bytes(hex).length);
+        run("decode hexStringToBytes", millis, () -> HexUtils.hexStringToBytes(hex).length);
+        run("decode into byte[]", millis, () -> HexUtils.decode(hex, 0, hex.length(), bytes, 0));
+        System.out.println(sink == 42 ? "" : "done");
+    }
+
+    private static void run(String name, long millis, IntSupplier task) {
+        // 预热
+        long warmupEnd = System.nanoTime() + millis * 500_000L;
+        while (System.nanoTime() < warmupEnd) {
+            for (int i = 0; i < 1000; i++) {
+                sink += task.getAsInt();
+            }
+        }
+        long ops = 0;
+        long start = System.nanoTime();
+        long end = start + millis * 1_000_000L;
+        long now;
+        do {
+            for (int i = 0; i < 1000; i++) {
+                sink += task.getAsInt();
+            }
+            ops += 1000;
+            now = System.nanoTime();
+        } while (now < end);
+        System.out.printf("%-28s %-14.0f%n", name, ops * 1e9 / (now - start));
+    }
+
+    /**
+     * 原 ByteArrHelper.toHexString
+     */
+    private static String legacyToHexString(byte[] buf) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : buf) {
+            String str = Integer.toHexString(b);
+            if (str.length() > 2) {
+                str = str.substring(str.length() - 2);
+            } else if (str.length() < 2) {
+                str = "0" + str;
+            }
+            sb.append(str);
+        }
+        return sb.toString().toUpperCase();
+    }
+
+    /**
+     * 原 ByteArrHelper.hexStr2bytes
+     */
+    private static byte[] legacyHexStr2bytes(String hex) {
+        hex = hex.toUpperCase();
+        byte[] res = new byte[hex.length() / 2];
+        for (int i = 0; i < res.length; i++) {
+            int buf = HEX_STR.indexOf(hex.charAt(i * 2));
+            int buf1 = HEX_STR.indexOf(hex.charAt(i * 2 + 1));
+            res[i] = (byte) (((buf << 4) & 0x000000F0) ^ (buf1 & 0x0000000f));
+        }
+        return res;
+    }
+}
@@ -0,0 +1,118 @@
+package com.dw.tool.benchmark;
+
+import com.dw.tool.util.SwarUtils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntSupplier;
+
+/**
+ * DL/T 645 字节运算基准测试，对比原十六进制字符串实现、逐字节循环与 {@link SwarUtils}
+ * <p>
+ * 默认数据域长度 4、16、64、200 字节，分别对应单个电量、一组需量、负荷记录和最大帧。
+ * <pre>
+ * java -cp target/classes:target/test-classes com.dw.tool.benchmark.SwarBenchmark [每项毫秒数]
+ * </pre>
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 22:10
+ */
+public class SwarBenchmark {
+
+    private static final int[] SIZES = {4, 16, 64, 200};
+
+    /**
+     * 防止 JIT 消除没有使用的结果
+     */
+    private static int sink;
+
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        System.out.printf("%-6s %-22s %-14s%n", "bytes", "case", "ops/s");
+        for (int size : SIZES) {
+            byte[] data = new byte[size];
+            ThreadLocalRandom.current().nextBytes(data);
+            String hex = toHex(data);
+            run(size, "add33 hex string", millis, () -> legacyAdd33(hex).length());
+            run(size, "add33 byte loop", millis, () -> {
+                for (int i = 0; i < data.length; i++) {
+                    data[i] += 0x33;
+                }
+                return data[0];
+            });
+            run(size, "add33 swar", millis, () -> {
+                SwarUtils.add33(data, 0, data.length);
+                return data[0];
+            });
+            run(size, "checksum %= 256", millis, () -> {
+                int checksum = 0;
+                for (byte b : data) {
+                    checksum += b & 0xFF;
+                    checksum %= 256;
+                }
+                return checksum;
+            });
+            run(size, "checksum swar", millis, () -> SwarUtils.checksum(data, 0, data.length));
+            run(size, "reverse hex string", millis, () -> legacyReverse(hex).length());
+            run(size, "reverse swar", millis, () -> {
+                SwarUtils.reverse(data, 0, data.length);
+                return data[0];
+            });
+        }
+        System.out.println(sink == 42 ? "" : "done");
+    }
+
+    private static void run(int size, String name, long millis, IntSupplier task) {
+        long warmupEnd = System.nanoTime() + millis * 500_000L;
+        while (System.nanoTime() < warmupEnd) {
+            for (int i = 0; i < 1000; i++) {
+                sink += task.getAsInt();
+            }
+        }
+        long ops = 0;
+        long start = System.nanoTime();
+        long end = start + millis * 1_000_000L;
+        long now;
+        do {
+            for (int i = 0; i < 1000; i++) {
+                sink += task.getAsInt();
+            }
+            ops += 1000;
+            now = System.nanoTime();
+        } while (now < end);
+        System.out.printf("%-6d %-22s %-14.0f%n", size, name, ops * 1e9 / (now - start));
+    }
+
+    private static String toHex(byte[] data) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : data) {
+            sb.append(String.format("%02X", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 原 HexUtils.operateOnHexString
+     */
+    private static String legacyAdd33(String hexString) {
+        StringBuilder result = new StringBuilder(hexString.length());
+        for (int i = 0; i < hexString.length(); i += 2) {
+            int byteValue = (Character.digit(hexString.charAt(i), 16) << 4) | Character.digit(hexString.charAt(i + 1), 16);
+            byteValue += 0x33;
+            byteValue %= 256;
+            result.append(String.format("%02X", byteValue));
+        }
+        return result.toString();
+    }
+
+    /**
+     * 原 HexUtils.reverseHexString
+     */
+    private static String legacyReverse(String hexString) {
+        StringBuilder reversedBuilder = new StringBuilder();
+        for (int i = hexString.length() - 2; i >= 0; i -= 2) {
+            reversedBuilder.append(hexString.substring(i, i + 2));
+        }
+        return reversedBuilder.toString();
+    }
+}
@@ -0,0 +1,110 @@
+package com.dw.tool.benchmark;
+
+import com.dw.tool.util.Dlt645Codec;
+import com.dw.tool.util.LatencyHistogram;
+import com.dw.tool.util.TCPClientUtil;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TCPClientUtil 吞吐量与延迟基准测试
+ * <p>
+ * 使用 {@link DeviceSimulator} 在本机模拟 1、10、1000 台设备，在不同并发线程数下
+ * 循环调用 {@link TCPClientUtil#modbusSendAndReceive} 或 {@link TCPClientUtil#sendAndReceive645}，
+ * 输出每秒请求数与 p50/p99 延迟。
+ * <pre>
+ * java -cp target/classes:target/test-classes com.dw.tool.benchmark.TransportBenchmark [modbus|645] [设备延迟微秒] [每轮秒数]
+ * </pre>
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/18 20:40
+ */
+public class TransportBenchmark {
+
+    private static final int[] DEVICES = {1, 10, 1000};
+    private static final int[] THREADS = {1, 8, 64};
+
+    /**
+     * 读保持寄存器 0x0000 开始 10 个
+     */
+    private static final byte[] MODBUS_READ = {0x01, 0x03, 0x00, 0x00, 0x00, 0x0A, (byte) 0xC5, (byte) 0xCD};
+
+    private static final byte[] DLT645_READ = Dlt645Codec.encodeRead("000000000001", 0x00010000L);
+
+    public static void main(String[] args) throws Exception {
+        boolean dlt645 = args.length > 0 && "645".equals(args[0]);
+        long latency = args.length > 1 ? Long.parseLong(args[1]) : 200;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        DeviceSimulator.Protocol protocol = dlt645 ? DeviceSimulator.Protocol.DLT645 : DeviceSimulator.Protocol.MODBUS_RTU;
+
+        System.out.printf("协议 %s，设备延迟 %dus%n", protocol, latency);
+        System.out.printf("%-8s %-8s %-12s %-10s %-10s %-8s%n", "devices", "threads", "req/s", "p50(us)", "p99(us)", "errors");
+        for (int devices : DEVICES) {
+            try (DeviceSimulator simulator = new DeviceSimulator(protocol, devices, latency, latency / 4, 0, true)) {
+                for (int threads : THREADS) {
+                    run(simulator.getEndpoints(), dlt645, devices, threads, seconds);
+                }
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void run(List<InetSocketAddress> endpoints, boolean dlt645, int devices, int threads, int seconds)
+            throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean measuring = new AtomicBoolean(false);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            Thread thread = new Thread(() -> {
+                // 每个线程从不同的设备开始轮询，线程数少于设备数时覆盖所有设备
+                int index = first % endpoints.size();
+                while (running.get()) {
+                    InetSocketAddress endpoint = endpoints.get(index);
+                    index = (index + threads) % endpoints.size();
+                    long start = System.nanoTime();
+                    try {
+                        request(endpoint, dlt645);
+                        if (measuring.get()) {
+                            histogram.record(System.nanoTime() - start);
+                        }
+                    } catch (IOException e) {
+                        errors.increment();
+                    }
+                }
+                done.countDown();
+            }, "bench-" + t);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        // 预热阶段建立连接并让 JIT 编译热点路径，不计入统计
+        TimeUnit.MILLISECONDS.sleep(1000);
+        measuring.set(true);
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(seconds);
+        measuring.set(false);
+        long elapsed = System.nanoTime() - start;
+        running.set(false);
+        done.await();
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        System.out.printf("%-8d %-8d %-12.0f %-10d %-10d %-8d%n", devices, threads,
+                snapshot.getCount() * 1e9 / elapsed, snapshot.getP50Micros(), snapshot.getP99Micros(), errors.sum());
+    }
+
+    private static void request(InetSocketAddress endpoint, boolean dlt645) throws IOException {
+        if (dlt645) {
+            TCPClientUtil.sendAndReceive645(endpoint.getHostString(), endpoint.getPort(), DLT645_READ);
+        } else {
+            TCPClientUtil.modbusSendAndReceive(endpoint.getHostString(), endpoint.getPort(), MODBUS_READ);
+        }
+    }
+}
@@ -0,0 +1,3 @@
+// 性能基准测试和设备模拟器，只在测试 classpath 中，不打包进 jar；
+// mvn test-compile 后以 target/classes、target/test-classes 及依赖为 classpath 运行各类的 main 方法
+package com.dw.tool.benchmark;
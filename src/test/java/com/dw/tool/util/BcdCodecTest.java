@@ -0,0 +1,105 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * BcdCodec 与按十进制字符串处理的实现对比
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 09:25
+ */
+class BcdCodecTest {
+
+    @Test
+    void decodeMatchesDigits() {
+        Random random = new Random(645);
+        for (int i = 0; i < 5000; i++) {
+            int length = random.nextInt(BcdCodec.MAX_LENGTH + 1);
+            byte[] bytes = randomBcd(random, length);
+            assertEquals(referenceDecode(bytes, false), BcdCodec.decode(bytes, 0, length));
+            assertEquals(referenceDecode(bytes, true), BcdCodec.decodeLE(bytes, 0, length));
+        }
+    }
+
+    @Test
+    void encodeRoundTrip() {
+        Random random = new Random(2007);
+        for (int i = 0; i < 5000; i++) {
+            int length = 1 + random.nextInt(BcdCodec.MAX_LENGTH);
+            byte[] expected = randomBcd(random, length);
+            long value = referenceDecode(expected, false);
+
+            byte[] bytes = new byte[length + 2];
+            BcdCodec.encode(value, bytes, 1, length);
+            assertArrayEquals(expected, Arrays.copyOfRange(bytes, 1, length + 1));
+            assertEquals(value, BcdCodec.decode(bytes, 1, length));
+
+            BcdCodec.encodeLE(value, bytes, 1, length);
+            assertEquals(value, BcdCodec.decodeLE(bytes, 1, length));
+        }
+    }
+
+    @Test
+    void batchDecode() {
+        Random random = new Random(4);
+        byte[] bytes = randomBcd(random, 4 * 5 + 3);
+        long[] be = new long[6];
+        long[] le = new long[6];
+        BcdCodec.decode(bytes, 3, 4, 5, be, 1);
+        BcdCodec.decodeLE(bytes, 3, 4, 5, le, 1);
+        for (int i = 0; i < 5; i++) {
+            byte[] field = Arrays.copyOfRange(bytes, 3 + i * 4, 3 + i * 4 + 4);
+            assertEquals(referenceDecode(field, false), be[1 + i]);
+            assertEquals(referenceDecode(field, true), le[1 + i]);
+        }
+    }
+
+    @Test
+    void everyByte() {
+        for (int b = 0; b < 256; b++) {
+            int high = b >>> 4;
+            int low = b & 0x0F;
+            if (high <= 9 && low <= 9) {
+                assertEquals(high * 10 + low, BcdCodec.decodeByte(b));
+                assertEquals("" + high + low, BcdCodec.toDigits((byte) b));
+            } else {
+                int invalid = b;
+                assertThrows(IllegalArgumentException.class, () -> BcdCodec.decodeByte(invalid));
+                assertEquals("99", BcdCodec.toDigits((byte) b));
+            }
+        }
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> BcdCodec.decode(new byte[]{0x12, 0x3A}, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> BcdCodec.decode(new byte[10], 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> BcdCodec.encode(-1, new byte[4], 0, 4));
+        assertThrows(IllegalArgumentException.class, () -> BcdCodec.encode(10000, new byte[2], 0, 2));
+    }
+
+    private static byte[] randomBcd(Random random, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (random.nextInt(10) << 4 | random.nextInt(10));
+        }
+        return bytes;
+    }
+
+    private static long referenceDecode(byte[] bytes, boolean littleEndian) {
+        StringBuilder digits = new StringBuilder("0");
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[littleEndian ? bytes.length - 1 - i : i] & 0xFF;
+            digits.append(String.format("%02X", b));
+        }
+        return Long.parseLong(digits.toString());
+    }
+}
@@ -0,0 +1,62 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * ChangeDetector 死区与刷新
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 10:10
+ */
+class ChangeDetectorTest {
+
+    @Test
+    void absoluteAndPercentDeadband() {
+        ChangeDetector detector = ChangeDetector.builder().absolute(0.5).percent(10).build();
+        int[] changed = new int[2];
+        assertEquals(2, detector.compare(new double[]{10, 100}, 0, 0, changed));
+        assertEquals(0, detector.compare(new double[]{10.5, 109}, 0, 1, changed));
+        assertEquals(1, detector.compare(new double[]{10.6, 109}, 0, 2, changed));
+        assertEquals(0, changed[0]);
+        assertEquals(1, detector.compare(new double[]{10.6, 111}, 0, 3, changed));
+        assertEquals(1, changed[0]);
+        // 死区按新的上送值 111 计算
+        assertEquals(0, detector.compare(new double[]{10.6, 121}, 0, 4, changed));
+    }
+
+    @Test
+    void percentAfterNonFiniteValue() {
+        ChangeDetector detector = ChangeDetector.builder().percent(3, 10).build();
+        int[] changed = new int[3];
+        double[] values = {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN};
+        assertEquals(3, detector.compare(values, 0, 0, changed));
+        assertEquals(0, detector.compare(values, 0, 1, changed));
+        assertEquals(3, detector.compare(new double[]{1, 2, 3}, 0, 2, changed));
+        assertEquals(0, detector.compare(new double[]{1, 2, 3}, 0, 3, changed));
+    }
+
+    @Test
+    void refreshAndReset() {
+        ChangeDetector detector = ChangeDetector.builder().anyChange().bits(2).refresh(1, TimeUnit.SECONDS).build();
+        int[] changed = new int[2];
+        long second = TimeUnit.SECONDS.toNanos(1);
+        assertEquals(1, detector.compare(new double[]{1}, 0, 0, changed));
+        assertEquals(0, detector.compare(new double[]{1}, 0, second - 1, changed));
+        assertEquals(1, detector.compare(new double[]{1}, 0, second, changed));
+
+        boolean[] bits = {true, false};
+        assertEquals(2, detector.compareBits(bits, 0, 0, changed));
+        assertEquals(0, detector.compareBits(bits, 0, 1, changed));
+        assertEquals(1, detector.compareBits(new boolean[]{true, true}, 0, 2, changed));
+        assertEquals(1, changed[0]);
+
+        detector.reset();
+        assertEquals(1, detector.compare(new double[]{1}, 0, second + 1, changed));
+        assertEquals(2, detector.compareBits(new boolean[]{true, true}, 0, 3, changed));
+    }
+}
@@ -0,0 +1,76 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 熔断器状态转换
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 14:05
+ */
+class CircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 3, 60_000);
+        breaker.onFailure();
+        breaker.onFailure();
+        // 成功清零连续失败次数
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void halfOpenAllowsSingleProbe() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 50);
+        breaker.onFailure();
+        assertFalse(breaker.allowRequest());
+
+        Thread.sleep(80);
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void failedProbeReopens() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 50);
+        breaker.onFailure();
+        Thread.sleep(80);
+        assertTrue(breaker.allowRequest());
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        Thread.sleep(80);
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void lostProbeIsReplaced() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 50);
+        breaker.onFailure();
+        Thread.sleep(80);
+        assertTrue(breaker.allowRequest());
+        // 探测请求超过熔断时间仍未返回结果，放行新的探测请求
+        Thread.sleep(80);
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+}
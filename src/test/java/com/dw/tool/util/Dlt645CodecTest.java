@@ -0,0 +1,124 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DL/T 645-2007 报文编解码
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 14:30
+ */
+class Dlt645CodecTest {
+
+    /**
+     * 读 000000000001 表正向有功总电能
+     */
+    private static final String READ_ENERGY = "FEFEFEFE" + "68010000000000" + "681104" + "33333433" + "B316";
+
+    @Test
+    void encodesReadRequest() {
+        assertArrayEquals(HexUtils.hexStringToBytes(READ_ENERGY), Dlt645Codec.encodeRead("000000000001", 0x00010000));
+        // 不足 12 位时前面补 0
+        assertArrayEquals(Dlt645Codec.encodeRead("000000000001", 0x00010000), Dlt645Codec.encodeRead("1", 0x00010000));
+    }
+
+    @Test
+    void decodesResponseWithPreamble() {
+        byte[] address = Dlt645Codec.encodeAddress("201907150001");
+        byte[] data = {0x00, 0x00, 0x01, 0x00, 0x78, 0x56, 0x34, 0x12};
+        byte[] frame = Dlt645Codec.encode(address, 0x91, data, 0, data.length, true);
+        assertEquals(Dlt645Codec.PREAMBLE, frame[0]);
+
+        Dlt645Frame decoded = Dlt645Codec.decode(frame);
+        assertEquals("201907150001", decoded.getAddressString());
+        assertEquals(0x91, decoded.getControlCode());
+        assertEquals(Dlt645Codec.READ_DATA, decoded.getFunctionCode());
+        assertTrue(decoded.isResponse());
+        assertFalse(decoded.isError());
+        assertEquals(0x00010000L, decoded.getDataIdentifier());
+        assertArrayEquals(data, decoded.getData());
+    }
+
+    @Test
+    void roundTripsRandomFrames() {
+        Random random = new Random(645);
+        for (int i = 0; i < 500; i++) {
+            byte[] address = new byte[Dlt645Codec.ADDRESS_LENGTH];
+            random.nextBytes(address);
+            byte[] data = new byte[random.nextInt(256)];
+            random.nextBytes(data);
+            int controlCode = random.nextInt(256);
+            boolean preamble = random.nextBoolean();
+            byte[] frame = Dlt645Codec.encode(address, controlCode, data, 0, data.length, preamble);
+
+            // 放在更大的数组中间，验证 offset/length
+            byte[] padded = new byte[frame.length + 6];
+            System.arraycopy(frame, 0, padded, 3, frame.length);
+            Dlt645Frame decoded = Dlt645Codec.decode(padded, 3, frame.length);
+            assertArrayEquals(address, decoded.getAddress());
+            assertEquals(controlCode, decoded.getControlCode());
+            assertArrayEquals(data, decoded.getData());
+        }
+    }
+
+    @Test
+    void rejectsBadChecksum() {
+        byte[] frame = HexUtils.hexStringToBytes(READ_ENERGY);
+        frame[frame.length - 2]++;
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Dlt645Codec.decode(frame));
+        assertTrue(e.getMessage().contains("checksum"), e.getMessage());
+
+        byte[] data = HexUtils.hexStringToBytes(READ_ENERGY);
+        data[15]++;
+        assertThrows(IllegalArgumentException.class, () -> Dlt645Codec.decode(data));
+    }
+
+    @Test
+    void rejectsMalformedFrames() {
+        byte[] frame = HexUtils.hexStringToBytes(READ_ENERGY);
+        assertThrows(IllegalArgumentException.class, () -> Dlt645Codec.decode(frame, 0, frame.length - 1));
+        assertThrows(IllegalArgumentException.class, () -> Dlt645Codec.decode(frame, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> Dlt645Codec.decode(new byte[]{(byte) 0xFE, (byte) 0xFE}));
+
+        byte[] badStart = frame.clone();
+        badStart[11] = 0x00;
+        assertThrows(IllegalArgumentException.class, () -> Dlt645Codec.decode(badStart));
+        byte[] badEnd = frame.clone();
+        badEnd[badEnd.length - 1] = 0x00;
+        assertThrows(IllegalArgumentException.class, () -> Dlt645Codec.decode(badEnd));
+    }
+
+    @Test
+    void frameDecoderSkipsPreamble() {
+        byte[] frame = HexUtils.hexStringToBytes(READ_ENERGY);
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        assertEquals(4, Dlt645Codec.FRAME_DECODER.preambleLength(buffer));
+        buffer.position(4);
+        assertEquals(frame.length - 4, Dlt645Codec.FRAME_DECODER.frameLength(buffer));
+
+        // 长度字节未到达时无法判断帧长
+        ByteBuffer partial = ByteBuffer.wrap(frame, 4, 9);
+        assertEquals(-1, Dlt645Codec.FRAME_DECODER.frameLength(partial));
+        assertEquals(4, partial.position());
+    }
+
+    @Test
+    void convertsAddress() {
+        byte[] address = Dlt645Codec.encodeAddress("123456789012");
+        assertArrayEquals(new byte[]{0x12, (byte) 0x90, 0x78, 0x56, 0x34, 0x12}, address);
+        assertEquals("123456789012", Dlt645Codec.decodeAddress(address));
+        assertEquals(Dlt645Codec.BROADCAST_ADDRESS, Dlt645Codec.decodeAddress(Dlt645Codec.encodeAddress(Dlt645Codec.BROADCAST_ADDRESS)));
+        assertThrows(IllegalArgumentException.class, () -> Dlt645Codec.encodeAddress("1234567890123"));
+        assertThrows(IllegalArgumentException.class, () -> Dlt645Codec.encodeAddress("12345678901G"));
+    }
+}
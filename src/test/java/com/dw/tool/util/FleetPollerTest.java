@@ -0,0 +1,144 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量轮询的并发限制，指令不经过网络，执行时记录并发数
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 15:30
+ */
+class FleetPollerTest {
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final Map<String, AtomicInteger> runningByEndpoint = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> maxByEndpoint = new ConcurrentHashMap<>();
+
+    @Test
+    void sameEndpointRunsInOrderOneAtATime() throws Exception {
+        List<FleetPoller.EndpointCommand> commands = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            commands.add(new FakeCommand(i % 3, i, false));
+        }
+        List<FleetPoller.PollResult> results;
+        try (FleetPoller poller = new FleetPoller(8, 1)) {
+            results = poller.pollAll(commands);
+        }
+        assertEquals(30, results.size());
+        int[] last = {-1, -1, -1};
+        for (FleetPoller.PollResult result : results) {
+            assertTrue(result.isSuccess());
+            int endpoint = result.getCommand().getPort() - 502;
+            int sequence = result.getResponse()[0];
+            // 同一设备的指令按提交顺序完成
+            assertTrue(sequence > last[endpoint], "endpoint " + endpoint + " out of order");
+            last[endpoint] = sequence;
+        }
+        for (AtomicInteger max : maxByEndpoint.values()) {
+            assertEquals(1, max.get());
+        }
+        assertTrue(maxRunning.get() <= 3);
+    }
+
+    @Test
+    void totalConcurrencyIsCapped() throws Exception {
+        List<FleetPoller.EndpointCommand> commands = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            commands.add(new FakeCommand(i % 20, i, false));
+        }
+        try (FleetPoller poller = new FleetPoller(3, 2)) {
+            assertEquals(40, poller.pollAll(commands).size());
+        }
+        assertTrue(maxRunning.get() <= 3, "max running " + maxRunning.get());
+        for (AtomicInteger max : maxByEndpoint.values()) {
+            assertTrue(max.get() <= 2);
+        }
+    }
+
+    @Test
+    void failuresAndCallbackErrorsDoNotStallBatch() throws Exception {
+        List<FleetPoller.EndpointCommand> commands = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            commands.add(new FakeCommand(i % 2, i, i % 3 == 0));
+        }
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger callbacks = new AtomicInteger();
+        try (FleetPoller poller = new FleetPoller(4, 1)) {
+            poller.pollAll(commands, result -> {
+                callbacks.incrementAndGet();
+                if (!result.isSuccess()) {
+                    assertTrue(result.getError() instanceof IOException);
+                    assertNull(result.getResponse());
+                    failures.incrementAndGet();
+                    throw new IllegalStateException("callback failed");
+                }
+            }).get(5, TimeUnit.SECONDS);
+            assertTrue(poller.pollAll(new ArrayList<>(), result -> {
+            }).isDone());
+        }
+        assertEquals(10, callbacks.get());
+        assertEquals(4, failures.get());
+    }
+
+    @Test
+    void reportsElapsedTime() throws Exception {
+        List<FleetPoller.EndpointCommand> commands = new ArrayList<>();
+        commands.add(new FakeCommand(0, 0, false));
+        try (FleetPoller poller = new FleetPoller(1, 1)) {
+            FleetPoller.PollResult result = poller.pollAll(commands).get(0);
+            assertTrue(result.getElapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(2));
+            assertArrayEquals(new byte[]{0}, result.getResponse());
+            assertFalse(result.getCommand().getEndpoint().isEmpty());
+        }
+    }
+
+    /**
+     * 不经过网络的指令，执行时休眠 2ms
+     */
+    private class FakeCommand extends FleetPoller.EndpointCommand {
+        private final int sequence;
+        private final boolean fail;
+
+        FakeCommand(int endpoint, int sequence, boolean fail) {
+            super("127.0.0.1", 502 + endpoint, new byte[0], Protocol.MODBUS_RTU);
+            this.sequence = sequence;
+            this.fail = fail;
+        }
+
+        @Override
+        byte[] execute() throws IOException {
+            AtomicInteger endpointRunning = runningByEndpoint.computeIfAbsent(getEndpoint(), k -> new AtomicInteger());
+            AtomicInteger endpointMax = maxByEndpoint.computeIfAbsent(getEndpoint(), k -> new AtomicInteger());
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            endpointMax.accumulateAndGet(endpointRunning.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                endpointRunning.decrementAndGet();
+                running.decrementAndGet();
+            }
+            if (fail) {
+                throw new IOException("device offline");
+            }
+            return new byte[]{(byte) sequence};
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * FrameCompressor 各模式压缩后解压与原数据对比
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 09:40
+ */
+class FrameCompressorTest {
+
+    private static final int[] SIZES = {0, 1, 2, 11, 12, 13, 100, 1000, 4096,
+            FrameCompressor.BLOCK_SIZE - 1, FrameCompressor.BLOCK_SIZE, FrameCompressor.BLOCK_SIZE + 1, 200_000};
+
+    @Test
+    void byteArrayRoundTrip() {
+        Random random = new Random(23);
+        for (FrameCompressor.Mode mode : FrameCompressor.Mode.values()) {
+            FrameCompressor compressor = new FrameCompressor(mode);
+            for (int size : SIZES) {
+                for (byte[] data : Arrays.asList(randomBytes(random, size), telemetry(random, size))) {
+                    byte[] packed = compressor.compress(data);
+                    assertTrue(packed.length <= FrameCompressor.maxCompressedLength(size), mode + " " + size);
+                    assertTrue(FrameCompressor.isCompressed(packed, 0, packed.length));
+                    assertEquals(size, FrameCompressor.decompressedLength(packed, 0, packed.length));
+                    assertArrayEquals(data, compressor.decompress(packed), mode + " " + size);
+                }
+                byte[] compressible = telemetry(random, size);
+                if (size >= 1000) {
+                    assertTrue(compressor.compress(compressible).length < size / 2, mode + " " + size);
+                }
+            }
+        }
+    }
+
+    @Test
+    void offsetsAndCallerArrays() {
+        Random random = new Random(24);
+        for (FrameCompressor.Mode mode : FrameCompressor.Mode.values()) {
+            FrameCompressor compressor = new FrameCompressor(mode);
+            for (int i = 0; i < 200; i++) {
+                byte[] data = telemetry(random, random.nextInt(3000));
+                int offset = random.nextInt(data.length + 1);
+                int length = random.nextInt(data.length - offset + 1);
+                byte[] expected = Arrays.copyOfRange(data, offset, offset + length);
+
+                byte[] packed = new byte[5 + FrameCompressor.maxCompressedLength(length)];
+                int n = compressor.compress(data, offset, length, packed, 5);
+                byte[] out = new byte[length + 3];
+                assertEquals(length, compressor.decompress(packed, 5, n, out, 3));
+                assertArrayEquals(expected, Arrays.copyOfRange(out, 3, 3 + length));
+            }
+        }
+    }
+
+    @Test
+    void byteBufferRoundTrip() {
+        Random random = new Random(25);
+        for (FrameCompressor.Mode mode : FrameCompressor.Mode.values()) {
+            FrameCompressor compressor = new FrameCompressor(mode);
+            for (int size : SIZES) {
+                byte[] data = telemetry(random, size);
+                for (boolean direct : new boolean[]{false, true}) {
+                    ByteBuffer src = allocate(direct, size);
+                    src.put(data).flip();
+                    ByteBuffer packed = allocate(!direct, FrameCompressor.maxCompressedLength(size));
+                    compressor.compress(src, packed);
+                    assertEquals(0, src.remaining());
+                    packed.flip();
+
+                    ByteBuffer out = allocate(direct, size);
+                    compressor.decompress(packed, out);
+                    assertEquals(0, packed.remaining());
+                    assertEquals(size, out.position());
+                    out.flip();
+                    byte[] actual = new byte[size];
+                    out.get(actual);
+                    assertArrayEquals(data, actual, mode + " " + size + " direct " + direct);
+                }
+            }
+        }
+    }
+
+    @Test
+    void streamRoundTrip() throws IOException {
+        Random random = new Random(26);
+        for (FrameCompressor.Mode mode : FrameCompressor.Mode.values()) {
+            FrameCompressor compressor = new FrameCompressor(mode);
+            byte[] data = telemetry(random, 3 * FrameCompressor.BLOCK_SIZE + 123);
+            ByteArrayOutputStream sink = new ByteArrayOutputStream();
+            try (OutputStream out = compressor.compressingStream(sink)) {
+                int p = 0;
+                while (p < data.length) {
+                    int n = Math.min(random.nextInt(5000), data.length - p);
+                    if (n == 1) {
+                        out.write(data[p]);
+                    } else {
+                        out.write(data, p, n);
+                    }
+                    p += n;
+                    if (random.nextInt(10) == 0) {
+                        out.flush();
+                    }
+                }
+            }
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            try (InputStream in = compressor.decompressingStream(new ByteArrayInputStream(sink.toByteArray()))) {
+                byte[] buffer = new byte[1 + random.nextInt(10000)];
+                int n;
+                while ((n = in.read(buffer, 0, buffer.length)) > 0) {
+                    actual.write(buffer, 0, n);
+                }
+                assertEquals(-1, in.read());
+            }
+            assertArrayEquals(data, actual.toByteArray(), mode.toString());
+        }
+    }
+
+    @Test
+    void dictionary() {
+        Random random = new Random(27);
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            samples.add(telemetry(random, 64));
+        }
+        byte[] dictionary = FrameCompressor.buildDictionary(samples, 2048);
+        assertEquals(2048, dictionary.length);
+        byte[] last = samples.get(samples.size() - 1);
+        assertArrayEquals(last, Arrays.copyOfRange(dictionary, dictionary.length - last.length, dictionary.length));
+
+        for (FrameCompressor.Mode mode : FrameCompressor.Mode.values()) {
+            FrameCompressor withDictionary = new FrameCompressor(mode, dictionary);
+            FrameCompressor plain = new FrameCompressor(mode);
+            byte[] frame = samples.get(7).clone();
+            byte[] packed = withDictionary.compress(frame);
+            assertTrue(packed.length < plain.compress(frame).length, mode.toString());
+            assertArrayEquals(frame, withDictionary.decompress(packed));
+            if (packed.length < FrameCompressor.maxCompressedLength(frame.length)) {
+                assertThrows(IllegalArgumentException.class, () -> plain.decompress(packed));
+            }
+            byte[] other = dictionary.clone();
+            other[0] ^= 1;
+            assertThrows(IllegalArgumentException.class, () -> new FrameCompressor(mode, other).decompress(packed));
+        }
+    }
+
+    @Test
+    void randomDataIsStored() {
+        byte[] data = randomBytes(new Random(28), 5000);
+        for (FrameCompressor.Mode mode : FrameCompressor.Mode.values()) {
+            byte[] packed = new FrameCompressor(mode).compress(data);
+            assertTrue(packed.length <= FrameCompressor.maxCompressedLength(data.length));
+            assertArrayEquals(data, new FrameCompressor(mode).decompress(packed));
+        }
+    }
+
+    @Test
+    void rejectsCorruptData() {
+        Random random = new Random(29);
+        assertFalse(FrameCompressor.isCompressed(new byte[]{0x68, 0x01, 0x02}, 0, 3));
+        for (FrameCompressor.Mode mode : FrameCompressor.Mode.values()) {
+            FrameCompressor compressor = new FrameCompressor(mode);
+            byte[] data = telemetry(random, 3000);
+            byte[] packed = compressor.compress(data);
+            for (int i = 0; i < 500; i++) {
+                byte[] damaged;
+                if (random.nextBoolean()) {
+                    damaged = Arrays.copyOf(packed, random.nextInt(packed.length));
+                } else {
+                    damaged = packed.clone();
+                    damaged[random.nextInt(damaged.length)] ^= (byte) (1 + random.nextInt(255));
+                }
+                try {
+                    compressor.decompress(damaged);
+                } catch (IllegalArgumentException expected) {
+                    // 损坏的数据只允许抛出 IllegalArgumentException
+                } catch (RuntimeException e) {
+                    fail(mode + " unexpected " + e);
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsForgedLength() {
+        // 7 字节的输入声明 2GB 原始长度，必须在分配输出之前拒绝
+        byte[] stored = {0x1F, 0x00, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        byte[] fast = {0x1F, 0x02, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0x00};
+        byte[] deflate = {0x1F, 0x01, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0x03, 0x00};
+        for (byte[] forged : Arrays.asList(stored, fast, deflate)) {
+            assertThrows(IllegalArgumentException.class, () -> FrameCompressor.decompressedLength(forged, 0, forged.length));
+            assertThrows(IllegalArgumentException.class, () -> FrameCompressor.DEFLATE.decompress(forged));
+            assertThrows(IllegalArgumentException.class, () -> FrameCompressor.FAST.decompress(ByteBuffer.wrap(forged), ByteBuffer.allocate(16)));
+        }
+        assertThrows(IllegalArgumentException.class, () -> ByteArrHelper.uncompress(Base64.getEncoder().encodeToString(stored)));
+
+        // 头部任意位置单字节损坏时，声明的长度不超过压缩数据可能解出的长度
+        Random random = new Random(30);
+        for (FrameCompressor.Mode mode : FrameCompressor.Mode.values()) {
+            byte[] packed = new FrameCompressor(mode).compress(telemetry(random, 5000));
+            for (int i = 0; i < 2000; i++) {
+                byte[] damaged = packed.clone();
+                damaged[random.nextInt(Math.min(7, damaged.length))] = (byte) random.nextInt(256);
+                try {
+                    assertTrue(FrameCompressor.decompressedLength(damaged, 0, damaged.length) <= 1032L * (damaged.length + 1));
+                } catch (IllegalArgumentException expected) {
+                    // 损坏的头部
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer allocate(boolean direct, int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private static byte[] randomBytes(Random random, int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * 模拟 645 报文流：固定帧头、少量变化的数据域
+     */
+    private static byte[] telemetry(Random random, int size) {
+        byte[] bytes = new byte[size];
+        byte[] frame = {0x68, 0x11, 0x22, 0x33, 0x44, 0x55, 0x66, 0x68, (byte) 0x91, 0x08, 0x33, 0x33, 0x34, 0x33};
+        for (int i = 0; i < size; i++) {
+            bytes[i] = frame[i % frame.length];
+            if (random.nextInt(16) == 0) {
+                bytes[i] = (byte) random.nextInt(10);
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,119 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 报文视图，与 {@link ByteBuffer} 的读取结果对照
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 14:50
+ */
+class FrameViewTest {
+
+    @Test
+    void matchesByteBufferOnArrayAndDirectBuffer() {
+        Random random = new Random(15);
+        byte[] bytes = new byte[64];
+        random.nextBytes(bytes);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        direct.position(3);
+        FrameView[] views = {
+                new FrameView(bytes, 3, bytes.length - 3),
+                new FrameView(ByteBuffer.wrap(bytes, 3, bytes.length - 3)),
+                new FrameView(direct)
+        };
+        ByteBuffer big = ByteBuffer.wrap(bytes, 3, bytes.length - 3).slice();
+        ByteBuffer little = big.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        for (FrameView view : views) {
+            assertEquals(bytes.length - 3, view.length());
+            for (int i = 0; i + 8 <= view.length(); i++) {
+                assertEquals(big.get(i) & 0xFF, view.u8(i));
+                assertEquals(big.get(i), view.i8(i));
+                assertEquals(big.getShort(i), view.i16(i));
+                assertEquals(little.getShort(i), view.i16LE(i));
+                assertEquals(big.getShort(i) & 0xFFFF, view.u16(i));
+                assertEquals(little.getShort(i) & 0xFFFF, view.u16LE(i));
+                assertEquals(big.getInt(i), view.i32(i));
+                assertEquals(little.getInt(i), view.i32LE(i));
+                assertEquals(big.getInt(i) & 0xFFFFFFFFL, view.u32(i));
+                assertEquals(big.getLong(i), view.i64(i));
+                assertEquals(little.getLong(i), view.i64LE(i));
+                assertEquals(Float.floatToRawIntBits(big.getFloat(i)), Float.floatToRawIntBits(view.float32(i)));
+                assertEquals(Double.doubleToRawLongBits(little.getDouble(i)), Double.doubleToRawLongBits(view.float64LE(i)));
+                // CDAB：交换两个字后按大端读取
+                int cdab = (big.getShort(i + 2) & 0xFFFF) << 16 | (big.getShort(i) & 0xFFFF);
+                assertEquals(cdab, view.i32WordSwap(i));
+                long ghefcdab = (long) ((big.getShort(i + 6) & 0xFFFF) << 16 | (big.getShort(i + 4) & 0xFFFF)) << 32
+                        | (cdab & 0xFFFFFFFFL);
+                assertEquals(ghefcdab, view.i64WordSwap(i));
+            }
+            assertEquals(HexUtils.bytesToHexString(bytes, 3, bytes.length - 3), view.toString());
+            byte[] copy = new byte[bytes.length - 3];
+            System.arraycopy(bytes, 3, copy, 0, copy.length);
+            assertArrayEquals(copy, view.toByteArray());
+        }
+    }
+
+    @Test
+    void decodesModbusRegisterOrders() {
+        // 123.456f = 0x42F6E979
+        assertEquals(123.456f, new FrameView(new byte[]{0x42, (byte) 0xF6, (byte) 0xE9, 0x79}).float32(0));
+        assertEquals(123.456f, new FrameView(new byte[]{(byte) 0xE9, 0x79, 0x42, (byte) 0xF6}).float32WordSwap(0));
+        assertEquals(123.456f, new FrameView(new byte[]{0x79, (byte) 0xE9, (byte) 0xF6, 0x42}).float32LE(0));
+        assertEquals(0x89ABCDEFL, new FrameView(new byte[]{(byte) 0xCD, (byte) 0xEF, (byte) 0x89, (byte) 0xAB}).u32WordSwap(0));
+    }
+
+    @Test
+    void decodesBcd() {
+        FrameView view = new FrameView(new byte[]{0x12, 0x34, 0x56});
+        assertEquals(123456L, view.bcd(0, 3));
+        assertEquals(563412L, view.bcdLE(0, 3));
+        assertEquals(34L, view.bcd(1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new FrameView(new byte[]{0x1A}).bcd(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new FrameView(new byte[10]).bcd(0, 10));
+    }
+
+    @Test
+    void sliceSharesDataAndChecksBounds() {
+        byte[] bytes = {0, 1, 2, 3, 4, 5, 6, 7};
+        FrameView view = new FrameView(bytes, 2, 6);
+        FrameView slice = view.slice(1, 3);
+        assertEquals(3, slice.length());
+        assertEquals(3, slice.u8(0));
+        bytes[3] = 9;
+        assertEquals(9, slice.u8(0));
+
+        // 复用当前视图
+        assertTrue(view.slice(2, 2, view) == view);
+        assertEquals(0x0405, view.u16(0));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> slice.u8(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> slice.u16(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> slice.u8(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> slice.slice(2, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> new FrameView(bytes, 4, 5));
+    }
+
+    @Test
+    void byteBufferViewIgnoresLaterPositionChanges() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4);
+        buffer.put(new byte[]{1, 2, 3, 4}).flip();
+        buffer.position(1);
+        FrameView view = new FrameView(buffer);
+        buffer.position(3).limit(3);
+        assertEquals(3, view.length());
+        assertEquals(0x020304, view.u16(0) << 8 | view.u8(2));
+        assertEquals("020304", view.toString());
+    }
+}
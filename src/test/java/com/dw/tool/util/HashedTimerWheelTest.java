@@ -0,0 +1,82 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 哈希时间轮
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 13:40
+ */
+class HashedTimerWheelTest {
+
+    @Test
+    void firesNotBeforeDeadline() throws Exception {
+        HashedTimerWheel wheel = new HashedTimerWheel("timer-wheel-test", 10, TimeUnit.MILLISECONDS, 8);
+        int count = 40;
+        long start = System.nanoTime();
+        AtomicLongArray fired = new AtomicLongArray(count);
+        CountDownLatch latch = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            // 最长延迟超过一圈，覆盖多圈的任务
+            wheel.schedule(() -> {
+                fired.set(index, System.nanoTime());
+                latch.countDown();
+            }, i * 7L, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < count; i++) {
+            long elapsed = fired.get(i) - start;
+            assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(i * 7L), "task " + i + " fired early");
+        }
+    }
+
+    @Test
+    void cancelledTaskNeverRuns() throws Exception {
+        HashedTimerWheel wheel = new HashedTimerWheel("timer-wheel-test", 10, TimeUnit.MILLISECONDS, 4);
+        AtomicInteger runs = new AtomicInteger();
+        HashedTimerWheel.Timeout cancelled = wheel.schedule(runs::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+        HashedTimerWheel.Timeout fired = wheel.schedule(runs::incrementAndGet, 100, TimeUnit.MILLISECONDS);
+        assertTrue(cancelled.cancel());
+        assertTrue(cancelled.isCancelled());
+        assertFalse(cancelled.cancel());
+
+        waitUntil(() -> runs.get() == 1);
+        Thread.sleep(50);
+        assertEquals(1, runs.get());
+        // 已执行的任务不能再取消
+        assertFalse(fired.cancel());
+        assertFalse(fired.isCancelled());
+    }
+
+    @Test
+    void failingTaskDoesNotStopWheel() throws Exception {
+        HashedTimerWheel wheel = new HashedTimerWheel("timer-wheel-test", 5, TimeUnit.MILLISECONDS, 16);
+        AtomicInteger runs = new AtomicInteger();
+        wheel.schedule(() -> {
+            throw new IllegalStateException("task failed");
+        }, 0, TimeUnit.MILLISECONDS);
+        wheel.schedule(runs::incrementAndGet, 20, TimeUnit.MILLISECONDS);
+        waitUntil(() -> runs.get() == 1);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() - deadline < 0, "timed out");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * HexUtils 与 String.format、Character.digit 实现对比
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 09:30
+ */
+class HexUtilsTest {
+
+    @Test
+    void encodeMatchesFormat() {
+        Random random = new Random(16);
+        for (int i = 0; i < 1000; i++) {
+            byte[] bytes = new byte[random.nextInt(200)];
+            random.nextBytes(bytes);
+            String expected = referenceHex(bytes);
+            assertEquals(expected, HexUtils.bytesToHexString(bytes));
+            assertEquals(expected, HexUtils.appendHex(new StringBuilder(), bytes, 0, bytes.length).toString());
+
+            char[] chars = new char[bytes.length * 2];
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+            direct.put(bytes).flip();
+            assertEquals(chars.length, HexUtils.encode(direct, chars, 0));
+            assertEquals(expected, new String(chars));
+        }
+        for (int b = 0; b < 256; b++) {
+            assertEquals(String.format("%02X", b), HexUtils.byteToHex((byte) b));
+        }
+    }
+
+    @Test
+    void decodeRoundTrip() {
+        Random random = new Random(17);
+        for (int i = 0; i < 1000; i++) {
+            byte[] bytes = new byte[random.nextInt(200)];
+            random.nextBytes(bytes);
+            String hex = referenceHex(bytes);
+            String text = random.nextBoolean() ? hex : hex.toLowerCase(Locale.ROOT);
+            assertArrayEquals(bytes, HexUtils.hexStringToBytes(text));
+
+            ByteBuffer heap = ByteBuffer.allocate(bytes.length + 1);
+            heap.position(1);
+            assertEquals(bytes.length, HexUtils.decode(text, 0, text.length(), heap));
+            assertEquals(bytes.length + 1, heap.position());
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+            HexUtils.decode(text, 0, text.length(), direct);
+            byte[] decoded = new byte[bytes.length];
+            direct.flip();
+            direct.get(decoded);
+            assertArrayEquals(bytes, decoded);
+        }
+    }
+
+    @Test
+    void decodeRejectsInvalidInput() {
+        byte[] dst = new byte[4];
+        assertThrows(IllegalArgumentException.class, () -> HexUtils.decode("ABC", 0, 3, dst, 0));
+        assertThrows(IllegalArgumentException.class, () -> HexUtils.decode("0G", 0, 2, dst, 0));
+        assertThrows(IllegalArgumentException.class, () -> HexUtils.decode("0é", 0, 2, dst, 0));
+    }
+
+    @Test
+    void checksumMatchesByteSum() {
+        Random random = new Random(68);
+        for (int i = 0; i < 500; i++) {
+            byte[] bytes = new byte[random.nextInt(500)];
+            random.nextBytes(bytes);
+            int sum = 0;
+            for (byte b : bytes) {
+                sum += b & 0xFF;
+            }
+            assertEquals(String.format("%02x", sum & 0xFF), HexUtils.calculateChecksum(bytes));
+        }
+    }
+
+    @Test
+    void add33AndReverse() {
+        Random random = new Random(33);
+        for (int i = 0; i < 500; i++) {
+            byte[] bytes = new byte[1 + random.nextInt(64)];
+            random.nextBytes(bytes);
+            byte[] added = new byte[bytes.length];
+            byte[] reversed = new byte[bytes.length];
+            for (int j = 0; j < bytes.length; j++) {
+                added[j] = (byte) (bytes[j] + 0x33);
+                reversed[j] = bytes[bytes.length - 1 - j];
+            }
+            String hex = referenceHex(bytes);
+            assertEquals(referenceHex(added), HexUtils.add33FromHexString(hex));
+            assertEquals(hex, HexUtils.subtract33FromHexString(referenceHex(added)));
+            assertEquals(referenceHex(reversed), HexUtils.reverseHexString(hex));
+        }
+    }
+
+    @Test
+    void bcdHexString() {
+        assertEquals(0, HexUtils.bcdHexStringToLong(""));
+        assertEquals(0, HexUtils.bcdHexStringToLong(null));
+        assertEquals(123456789012345678L, HexUtils.bcdHexStringToLong("123456789012345678"));
+        assertEquals(2147483647, HexUtils.bcdHexStringToDecimal("002147483647"));
+        assertThrows(ArithmeticException.class, () -> HexUtils.bcdHexStringToDecimal("002147483648"));
+        assertThrows(IllegalArgumentException.class, () -> HexUtils.bcdHexStringToLong("123"));
+        assertThrows(IllegalArgumentException.class, () -> HexUtils.bcdHexStringToLong("12345678901234567890"));
+        assertThrows(IllegalArgumentException.class, () -> HexUtils.bcdHexStringToLong("12G4"));
+        // A ~ F 与原实现一致按数值计算，不抛出异常
+        assertEquals(15554, HexUtils.bcdHexStringToLong("EEEE"));
+
+        Random random = new Random(645);
+        for (int i = 0; i < 1000; i++) {
+            long value = (random.nextLong() & Long.MAX_VALUE) % 1_000_000_000_000_000_000L;
+            assertEquals(value, HexUtils.bcdHexStringToLong(String.format("%018d", value)));
+        }
+    }
+
+    @Test
+    void toHexStringPads() {
+        assertEquals("000a", HexUtils.toHexString(10, 2));
+        assertEquals("12345678", HexUtils.toHexString(0x12345678, 4));
+    }
+
+    private static String referenceHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02X", b & 0xFF));
+        }
+        return sb.toString();
+    }
+}
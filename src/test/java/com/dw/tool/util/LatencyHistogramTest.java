@@ -0,0 +1,63 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 耗时直方图分位数
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 16:00
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void percentilesAreBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(5000));
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.getCount());
+        // 100us 落在 [64, 128)
+        assertEquals(127, snapshot.getP50Micros());
+        assertEquals(127, snapshot.getP90Micros());
+        assertEquals(5000, snapshot.getP99Micros());
+        assertEquals(5000, snapshot.getMaxMicros());
+        assertEquals(590, snapshot.getMeanMicros());
+    }
+
+    @Test
+    void percentilesNeverExceedMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(1025));
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1025, snapshot.getP50Micros());
+        assertEquals(1025, snapshot.getP99Micros());
+
+        // 最后一个桶没有上界
+        LatencyHistogram slow = new LatencyHistogram();
+        slow.record(TimeUnit.SECONDS.toNanos(7200));
+        assertEquals(TimeUnit.SECONDS.toMicros(7200), slow.snapshot().getP99Micros());
+    }
+
+    @Test
+    void emptyAndNegativeSamples() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.snapshot().getP99Micros());
+        histogram.record(-5);
+        histogram.record(999);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.getCount());
+        assertEquals(0, snapshot.getP99Micros());
+        assertTrue(snapshot.toString().contains("p99=0us"));
+    }
+}
@@ -0,0 +1,98 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ModbusCrc16 与逐位实现对比
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 09:20
+ */
+class ModbusCrc16Test {
+
+    @Test
+    void knownFrame() {
+        byte[] frame = {0x01, 0x03, 0x00, 0x00, 0x00, 0x0A, 0, 0};
+        assertEquals(8, ModbusCrc16.append(frame, 0, 6));
+        assertEquals(0xC5, frame[6] & 0xFF);
+        assertEquals(0xCD, frame[7] & 0xFF);
+        assertTrue(ModbusCrc16.verify(frame, 0, 8));
+        assertEquals("C5CD", HexUtils.calModbusCRC("01030000000A"));
+    }
+
+    @Test
+    void matchesBitwise() {
+        Random random = new Random(0xA001);
+        for (int i = 0; i < 2000; i++) {
+            byte[] bytes = new byte[random.nextInt(600)];
+            random.nextBytes(bytes);
+            int offset = bytes.length == 0 ? 0 : random.nextInt(bytes.length);
+            int length = random.nextInt(bytes.length - offset + 1);
+            assertEquals(referenceCrc(bytes, offset, length), ModbusCrc16.crc16(bytes, offset, length), "length " + length);
+        }
+    }
+
+    @Test
+    void incrementalUpdates() {
+        Random random = new Random(485);
+        for (int i = 0; i < 500; i++) {
+            byte[] bytes = new byte[random.nextInt(300)];
+            random.nextBytes(bytes);
+            int expected = referenceCrc(bytes, 0, bytes.length);
+            int split = random.nextInt(bytes.length + 1);
+
+            int crc = ModbusCrc16.update(ModbusCrc16.INITIAL, bytes, 0, split);
+            for (int j = split; j < bytes.length; j++) {
+                crc = ModbusCrc16.update(crc, bytes[j]);
+            }
+            assertEquals(expected, crc);
+
+            ModbusCrc16 checksum = new ModbusCrc16();
+            checksum.update(bytes, 0, split);
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length - split);
+            direct.put(bytes, split, bytes.length - split).flip();
+            checksum.update(direct);
+            assertEquals(expected, checksum.getValue());
+            assertEquals(0, direct.remaining());
+
+            checksum.reset();
+            checksum.update(ByteBuffer.wrap(bytes));
+            assertEquals(expected, checksum.getValue());
+        }
+    }
+
+    @Test
+    void verifyDetectsCorruption() {
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            byte[] frame = new byte[3 + random.nextInt(250)];
+            random.nextBytes(frame);
+            int end = ModbusCrc16.append(frame, 0, frame.length - 2);
+            assertEquals(frame.length, end);
+            assertTrue(ModbusCrc16.verify(frame, 0, frame.length));
+
+            frame[random.nextInt(frame.length)] ^= (byte) (1 << random.nextInt(8));
+            assertFalse(ModbusCrc16.verify(frame, 0, frame.length));
+        }
+        assertFalse(ModbusCrc16.verify(new byte[2], 0, 2));
+    }
+
+    private static int referenceCrc(byte[] bytes, int offset, int length) {
+        int crc = 0xFFFF;
+        for (int i = offset; i < offset + length; i++) {
+            crc ^= bytes[i] & 0xFF;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0xA001 : crc >>> 1;
+            }
+        }
+        return crc;
+    }
+}
@@ -0,0 +1,183 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ModbusReadPlanner 合并读取的结果与逐点读取对比
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 09:50
+ */
+class ModbusReadPlannerTest {
+
+    @Test
+    void mergedReadMatchesPointReads() throws Exception {
+        Random random = new Random(125);
+        for (int round = 0; round < 300; round++) {
+            int registerGap = random.nextInt(20);
+            int bitGap = random.nextInt(50);
+            int maxRegisters = 1 + random.nextInt(ModbusReadPlanner.MAX_REGISTERS);
+            int maxBits = 1 + random.nextInt(ModbusReadPlanner.MAX_BITS);
+            ModbusReadPlanner planner = new ModbusReadPlanner(registerGap, bitGap, maxRegisters, maxBits);
+            List<ModbusReadPlanner.Point> points = randomPoints(random, maxRegisters);
+            ModbusReadPlanner.ReadPlan plan = planner.plan(points);
+
+            FakeDevice device = new FakeDevice();
+            ModbusReadPlanner.ReadResult result = plan.read(1, device);
+
+            int[] owners = new int[points.size()];
+            Arrays.fill(owners, -1);
+            for (int b = 0; b < plan.getBlocks().size(); b++) {
+                ModbusReadPlanner.Block block = plan.getBlocks().get(b);
+                int limit = ModbusReadPlanner.isBit(block.getFunctionCode()) ? maxBits : maxRegisters;
+                assertTrue(block.getCount() <= limit, block.toString());
+                assertTrue(block.getStart() + block.getCount() <= 0x10000, block.toString());
+                for (int index : block.getPoints()) {
+                    ModbusReadPlanner.Point point = plan.getPoint(index);
+                    assertEquals(point.getFunctionCode(), block.getFunctionCode());
+                    assertTrue(point.getAddress() >= block.getStart()
+                            && point.getAddress() + point.getLength() <= block.getStart() + block.getCount(), block + " " + point);
+                    assertEquals(-1, owners[index], "point in two blocks");
+                    owners[index] = b;
+                }
+            }
+            for (int i = 0; i < points.size(); i++) {
+                assertTrue(owners[i] >= 0, "point not planned: " + points.get(i));
+                ModbusReadPlanner.Point point = points.get(i);
+                if (point.isBit()) {
+                    assertEquals(FakeDevice.bit(point.getFunctionCode(), point.getAddress()), result.getBit(i));
+                } else {
+                    short[] expected = new short[point.getLength()];
+                    for (int k = 0; k < expected.length; k++) {
+                        expected[k] = FakeDevice.register(point.getFunctionCode(), point.getAddress() + k);
+                    }
+                    assertArrayEquals(expected, result.getRegisters(i));
+                    assertEquals(expected[0] & 0xFFFF, result.getRegister(i));
+                }
+            }
+            assertEquals(plan.getBlocks().size(), device.reads);
+        }
+    }
+
+    @Test
+    void mergesWithinGap() {
+        List<ModbusReadPlanner.Point> points = Arrays.asList(
+                ModbusReadPlanner.Point.holding(0, 2, "a"),
+                ModbusReadPlanner.Point.holding(5, 2, "b"),
+                ModbusReadPlanner.Point.holding(1, 1, "overlap"),
+                ModbusReadPlanner.Point.input(2, 1, "input"),
+                ModbusReadPlanner.Point.coil(0, "c0"),
+                ModbusReadPlanner.Point.coil(9, "c9"));
+        assertEquals(5, new ModbusReadPlanner().plan(points).getBlocks().size());
+
+        ModbusReadPlanner.ReadPlan plan = new ModbusReadPlanner(3, 8).plan(points);
+        // 按功能码排序：01、03、04
+        assertEquals(3, plan.getBlocks().size());
+        ModbusReadPlanner.Block holding = plan.getBlocks().get(1);
+        assertEquals(0, holding.getStart());
+        assertEquals(7, holding.getCount());
+        assertEquals(6, plan.getRegisterLength());
+        assertEquals(2, plan.getBitLength());
+    }
+
+    @Test
+    void splitsAtBlockLimit() {
+        List<ModbusReadPlanner.Point> points = new ArrayList<>();
+        for (int address = 0; address < 300; address += 2) {
+            points.add(ModbusReadPlanner.Point.holding(address, 2, "p" + address));
+        }
+        Collections.shuffle(points, new Random(3));
+        ModbusReadPlanner.ReadPlan plan = new ModbusReadPlanner().plan(points);
+        assertEquals(3, plan.getBlocks().size());
+        for (ModbusReadPlanner.Block block : plan.getBlocks()) {
+            assertTrue(block.getCount() <= ModbusReadPlanner.MAX_REGISTERS);
+        }
+    }
+
+    @Test
+    void rejectsInvalidPoints() {
+        ModbusReadPlanner planner = new ModbusReadPlanner();
+        assertThrows(IllegalArgumentException.class,
+                () -> planner.plan(Collections.singletonList(ModbusReadPlanner.Point.holding(0, 126, "big"))));
+        assertThrows(IllegalArgumentException.class, () -> ModbusReadPlanner.Point.holding(0xFFFF, 2, "end"));
+        assertThrows(IllegalArgumentException.class, () -> new ModbusReadPlanner.Point(6, 0, 1, "write"));
+        assertThrows(IllegalArgumentException.class, () -> new ModbusReadPlanner(-1, 0));
+
+        ModbusReadPlanner.ReadPlan plan = planner.plan(Collections.singletonList(ModbusReadPlanner.Point.holding(0, 4, "a")));
+        assertThrows(IllegalArgumentException.class,
+                () -> plan.scatter(plan.getBlocks().get(0), new short[3], new short[4]));
+    }
+
+    private static List<ModbusReadPlanner.Point> randomPoints(Random random, int maxRegisters) {
+        int count = 1 + random.nextInt(60);
+        int base = random.nextInt(0x10000 - 2000);
+        List<ModbusReadPlanner.Point> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int address = base + random.nextInt(1500);
+            switch (random.nextInt(4)) {
+                case 0:
+                    points.add(ModbusReadPlanner.Point.holding(address, 1 + random.nextInt(Math.min(4, maxRegisters)), "h" + i));
+                    break;
+                case 1:
+                    points.add(ModbusReadPlanner.Point.input(address, 1 + random.nextInt(Math.min(4, maxRegisters)), "i" + i));
+                    break;
+                case 2:
+                    points.add(ModbusReadPlanner.Point.coil(address, "c" + i));
+                    break;
+                default:
+                    points.add(ModbusReadPlanner.Point.discreteInput(address, "d" + i));
+                    break;
+            }
+        }
+        return points;
+    }
+
+    /**
+     * 每个地址的值由功能码和地址决定
+     */
+    private static final class FakeDevice implements ModbusReadPlanner.BlockReader {
+
+        private int reads;
+
+        static short register(int functionCode, int address) {
+            return (short) (address * 31 + functionCode * 7919);
+        }
+
+        static boolean bit(int functionCode, int address) {
+            return ((address * 13 + functionCode) & 4) != 0;
+        }
+
+        @Override
+        public short[] readRegisters(int slaveId, int functionCode, int start, int count) {
+            reads++;
+            short[] data = new short[count];
+            for (int i = 0; i < count; i++) {
+                data[i] = register(functionCode, start + i);
+            }
+            return data;
+        }
+
+        @Override
+        public boolean[] readBits(int slaveId, int functionCode, int start, int count) {
+            reads++;
+            // 按字节返回，多出的位应被忽略
+            boolean[] data = new boolean[(count + 7) / 8 * 8];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = bit(functionCode, start + i);
+            }
+            return data;
+        }
+    }
+}
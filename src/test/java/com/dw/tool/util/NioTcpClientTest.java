@@ -0,0 +1,213 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * NIO 客户端与 I/O 线程的回环测试
+ * <p>
+ * 测试报文：长度(1) 数据，设备原样返回并在前面加两个 FE 前导字节。
+ * 数据以 {@code S} 开头时不应答，以 {@code P} 开头时分两次写出，以 {@code B} 开头时持续写出无法分帧的数据。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 13:10
+ */
+class NioTcpClientTest {
+
+    private static final FrameDecoder DECODER = new FrameDecoder() {
+        @Override
+        public int frameLength(ByteBuffer buffer) {
+            return buffer.remaining() < 1 ? -1 : 1 + (buffer.get(buffer.position()) & 0xFF);
+        }
+
+        @Override
+        public int preambleLength(ByteBuffer buffer) {
+            int count = 0;
+            while (count < buffer.remaining() && buffer.get(buffer.position() + count) == (byte) 0xFE) {
+                count++;
+            }
+            return count;
+        }
+    };
+
+    @Test
+    void requestsOnOneConnectionRunInOrder() throws Exception {
+        try (Device device = new Device();
+             NioTcpClient client = new NioTcpClient(1, 5000)) {
+            List<CompletableFuture<byte[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(client.sendAsync(device.endpoint(), frame("r" + i), DECODER));
+            }
+            for (int i = 0; i < 20; i++) {
+                assertArrayEquals(frame("r" + i), futures.get(i).get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, device.accepted.get());
+        }
+    }
+
+    @Test
+    void splitResponseIsReassembled() throws Exception {
+        try (Device device = new Device();
+             NioTcpClient client = new NioTcpClient(1, 5000)) {
+            assertArrayEquals(frame("Psplit"), client.sendAsync(device.endpoint(), frame("Psplit"), DECODER).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void timeoutDoesNotFailQueuedRequests() throws Exception {
+        try (Device device = new Device();
+             NioTcpClient client = new NioTcpClient(1, 5000)) {
+            CompletableFuture<byte[]> silent = client.sendAsync(device.endpoint(), frame("Silent"), DECODER, 200);
+            CompletableFuture<byte[]> queued = client.sendAsync(device.endpoint(), frame("queued"), DECODER);
+            CompletableFuture<byte[]> dropped = client.sendAsync(device.endpoint(), frame("dropped"), DECODER, 100);
+
+            assertTrue(causeOf(dropped) instanceof SocketTimeoutException);
+            assertTrue(causeOf(silent) instanceof SocketTimeoutException);
+            // 正在收发的请求超时后断开连接，排队的请求在新连接上发送
+            assertArrayEquals(frame("queued"), queued.get(5, TimeUnit.SECONDS));
+            assertEquals(2, device.accepted.get());
+        }
+    }
+
+    @Test
+    void oversizedResponseFailsConnection() throws Exception {
+        try (Device device = new Device();
+             NioTcpClient client = new NioTcpClient(1, 5000)) {
+            Throwable cause = causeOf(client.sendAsync(device.endpoint(), frame("Big"), buffer -> -1));
+            assertTrue(cause instanceof IOException);
+            assertTrue(cause.getMessage().contains("exceeds"), cause.getMessage());
+            assertArrayEquals(frame("after"), client.sendAsync(device.endpoint(), frame("after"), DECODER).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void decoderFailureKeepsIoThreadAlive() throws Exception {
+        try (Device device = new Device();
+             NioTcpClient client = new NioTcpClient(1, 5000)) {
+            FrameDecoder broken = buffer -> {
+                throw new IllegalStateException("broken decoder");
+            };
+            Throwable cause = causeOf(client.sendAsync(device.endpoint(), frame("x"), broken));
+            assertTrue(cause instanceof IOException);
+            assertTrue(cause.getCause() instanceof IllegalStateException);
+            assertArrayEquals(frame("y"), client.sendAsync(device.endpoint(), frame("y"), DECODER).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void closedClientRejectsRequests() throws Exception {
+        try (Device device = new Device()) {
+            NioTcpClient client = new NioTcpClient(1, 5000);
+            client.close();
+            assertTrue(causeOf(client.sendAsync(device.endpoint(), frame("x"), DECODER)) instanceof IOException);
+        }
+    }
+
+    private static byte[] frame(String payload) {
+        byte[] data = payload.getBytes();
+        byte[] frame = new byte[data.length + 1];
+        frame[0] = (byte) data.length;
+        System.arraycopy(data, 0, frame, 1, data.length);
+        return frame;
+    }
+
+    private static Throwable causeOf(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        fail("expected failure");
+        return null;
+    }
+
+    /**
+     * 回环测试设备
+     */
+    private static class Device implements AutoCloseable {
+        private final ServerSocket server;
+        private final AtomicInteger accepted = new AtomicInteger();
+
+        Device() throws IOException {
+            server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread thread = new Thread(() -> {
+                while (!server.isClosed()) {
+                    try {
+                        Socket socket = server.accept();
+                        accepted.incrementAndGet();
+                        Thread worker = new Thread(() -> serve(socket));
+                        worker.setDaemon(true);
+                        worker.start();
+                    } catch (IOException ignored) {
+                    }
+                }
+            }, "nio-test-device");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private static void serve(Socket socket) {
+            try (Socket s = socket) {
+                DataInputStream in = new DataInputStream(s.getInputStream());
+                OutputStream out = s.getOutputStream();
+                while (true) {
+                    int length = in.readUnsignedByte();
+                    byte[] data = new byte[length];
+                    in.readFully(data);
+                    if (length > 0 && data[0] == 'S') {
+                        continue;
+                    }
+                    if (length > 0 && data[0] == 'B') {
+                        byte[] garbage = new byte[8192];
+                        for (int i = 0; i < 16; i++) {
+                            out.write(garbage);
+                        }
+                        out.flush();
+                        continue;
+                    }
+                    out.write(new byte[]{(byte) 0xFE, (byte) 0xFE, (byte) length});
+                    if (length > 0 && data[0] == 'P') {
+                        out.write(data, 0, length / 2);
+                        out.flush();
+                        Thread.sleep(50);
+                        out.write(data, length / 2, length - length / 2);
+                    } else {
+                        out.write(data);
+                    }
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException ignored) {
+            }
+        }
+
+        InetSocketAddress endpoint() {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort());
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+    }
+}
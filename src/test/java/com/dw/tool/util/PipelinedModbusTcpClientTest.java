@@ -0,0 +1,231 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 流水线 Modbus TCP 客户端的回环测试
+ * <p>
+ * 测试设备把寄存器值设为地址本身，特殊起始地址用于构造异常响应。
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 11:30
+ */
+class PipelinedModbusTcpClientTest {
+
+    private static final int NO_REPLY = 300;
+    private static final int WRONG_UNIT = 100;
+    private static final int SHORT_REPLY = 200;
+    private static final int WRONG_PROTOCOL = 400;
+
+    @Test
+    void outOfOrderResponsesMatchByTransactionId() throws Exception {
+        try (Device device = new Device(3);
+             PipelinedModbusTcpClient client = new PipelinedModbusTcpClient(1, 4, 5000)) {
+            List<CompletableFuture<short[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                futures.add(client.readHoldingRegisters(device.endpoint(), 1, i * 10, 2));
+            }
+            for (int i = 0; i < 3; i++) {
+                assertArrayEquals(new short[]{(short) (i * 10), (short) (i * 10 + 1)}, futures.get(i).get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, device.accepted.get());
+        }
+    }
+
+    @Test
+    void timeoutKeepsConnection() throws Exception {
+        try (Device device = new Device(1);
+             PipelinedModbusTcpClient client = new PipelinedModbusTcpClient(1, 4, 5000)) {
+            CompletableFuture<byte[]> timedOut = client.send(device.endpoint(), 1,
+                    new byte[]{4, (byte) (NO_REPLY >>> 8), (byte) NO_REPLY, 0, 1}, 200);
+            assertTrue(causeOf(timedOut) instanceof SocketTimeoutException);
+
+            assertArrayEquals(new short[]{7}, client.readInputRegisters(device.endpoint(), 1, 7, 1).get(5, TimeUnit.SECONDS));
+            assertEquals(1, device.accepted.get());
+        }
+    }
+
+    @Test
+    void mismatchedResponseFails() throws Exception {
+        try (Device device = new Device(1);
+             PipelinedModbusTcpClient client = new PipelinedModbusTcpClient(1, 4, 5000)) {
+            Throwable wrongUnit = causeOf(client.readHoldingRegisters(device.endpoint(), 1, WRONG_UNIT, 2));
+            assertTrue(wrongUnit instanceof IOException);
+            assertTrue(wrongUnit.getMessage().contains("mismatch"), wrongUnit.getMessage());
+
+            Throwable shortReply = causeOf(client.readHoldingRegisters(device.endpoint(), 1, SHORT_REPLY, 2));
+            assertTrue(shortReply instanceof IOException);
+            assertTrue(shortReply.getMessage().contains("mismatch"), shortReply.getMessage());
+
+            // 单个响应不匹配不影响连接
+            assertArrayEquals(new short[]{5, 6}, client.readHoldingRegisters(device.endpoint(), 1, 5, 2).get(5, TimeUnit.SECONDS));
+            assertEquals(1, device.accepted.get());
+
+            // 协议标识符错误时后续数据无法对齐，连接被关闭
+            assertTrue(causeOf(client.readHoldingRegisters(device.endpoint(), 1, WRONG_PROTOCOL, 1)) instanceof IOException);
+            assertArrayEquals(new short[]{9}, client.readHoldingRegisters(device.endpoint(), 1, 9, 1).get(5, TimeUnit.SECONDS));
+            assertEquals(2, device.accepted.get());
+        }
+    }
+
+    @Test
+    void connectTimeoutClosesChannel() throws Exception {
+        // backlog 占满后新的 SYN 被丢弃，连接一直挂起
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             PipelinedModbusTcpClient client = new PipelinedModbusTcpClient(1, 4, 5000)) {
+            InetSocketAddress endpoint = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort());
+            List<Socket> fillers = new ArrayList<>();
+            try {
+                for (int i = 0; i < 2; i++) {
+                    Socket socket = new Socket();
+                    socket.connect(endpoint, 1000);
+                    fillers.add(socket);
+                }
+                CompletableFuture<byte[]> first = client.send(endpoint, 1, new byte[]{3, 0, 0, 0, 1}, 200);
+                assertTrue(causeOf(first) instanceof IOException);
+            } finally {
+                for (Socket socket : fillers) {
+                    socket.close();
+                }
+            }
+            for (int i = 0; i < 2; i++) {
+                server.accept().close();
+            }
+            // 挂起的连接已关闭，下一个请求重新连接，不需要等待 SYN 重传
+            Thread acceptor = new Thread(() -> {
+                try (Socket socket = server.accept()) {
+                    serve(socket, 1);
+                } catch (IOException ignored) {
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+            assertArrayEquals(new short[]{0}, client.readHoldingRegisters(endpoint, 1, 0, 1).get(600, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private static Throwable causeOf(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        fail("expected failure");
+        return null;
+    }
+
+    /**
+     * 每攒够 batch 个请求按相反顺序应答
+     */
+    private static void serve(Socket socket, int batch) throws IOException {
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        OutputStream out = socket.getOutputStream();
+        List<byte[]> requests = new ArrayList<>();
+        while (true) {
+            byte[] header = new byte[6];
+            in.readFully(header);
+            byte[] body = new byte[((header[4] & 0xFF) << 8) | (header[5] & 0xFF)];
+            in.readFully(body);
+            byte[] request = new byte[header.length + body.length];
+            System.arraycopy(header, 0, request, 0, header.length);
+            System.arraycopy(body, 0, request, header.length, body.length);
+            requests.add(request);
+            if (requests.size() < batch) {
+                continue;
+            }
+            Collections.reverse(requests);
+            for (byte[] r : requests) {
+                byte[] response = respond(r);
+                if (response != null) {
+                    out.write(response);
+                }
+            }
+            out.flush();
+            requests.clear();
+        }
+    }
+
+    private static byte[] respond(byte[] request) {
+        int start = ((request[8] & 0xFF) << 8) | (request[9] & 0xFF);
+        int quantity = ((request[10] & 0xFF) << 8) | (request[11] & 0xFF);
+        if (start == NO_REPLY) {
+            return null;
+        }
+        int count = start == SHORT_REPLY ? quantity - 1 : quantity;
+        byte[] response = new byte[9 + count * 2];
+        response[0] = request[0];
+        response[1] = request[1];
+        response[3] = (byte) (start == WRONG_PROTOCOL ? 1 : 0);
+        response[5] = (byte) (3 + count * 2);
+        response[6] = (byte) (start == WRONG_UNIT ? request[6] + 1 : request[6]);
+        response[7] = request[7];
+        response[8] = (byte) (count * 2);
+        for (int i = 0; i < count; i++) {
+            response[9 + i * 2] = (byte) ((start + i) >>> 8);
+            response[10 + i * 2] = (byte) (start + i);
+        }
+        return response;
+    }
+
+    /**
+     * 回环测试设备
+     */
+    private static class Device implements AutoCloseable {
+        private final ServerSocket server;
+        private final AtomicInteger accepted = new AtomicInteger();
+
+        Device(int batch) throws IOException {
+            server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread thread = new Thread(() -> {
+                while (!server.isClosed()) {
+                    try {
+                        Socket socket = server.accept();
+                        accepted.incrementAndGet();
+                        Thread worker = new Thread(() -> {
+                            try (Socket s = socket) {
+                                serve(s, batch);
+                            } catch (IOException ignored) {
+                            }
+                        });
+                        worker.setDaemon(true);
+                        worker.start();
+                    } catch (IOException ignored) {
+                    }
+                }
+            }, "modbus-test-device");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        InetSocketAddress endpoint() {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort());
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PollScheduler 调度与工作线程存活
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 10:20
+ */
+class PollSchedulerTest {
+
+    @Test
+    void workersSurviveInterruptedActions() throws Exception {
+        try (PollScheduler scheduler = new PollScheduler(2)) {
+            PollScheduler.ScanGroup failing = scheduler.addGroup("failing", 20, TimeUnit.MILLISECONDS, PollScheduler.OverrunPolicy.SKIP);
+            failing.add("a", () -> {
+                throw new InterruptedException("test");
+            });
+            failing.add("b", () -> Thread.currentThread().interrupt());
+            waitUntil(() -> failing.snapshot().getFailures() >= 4 && failing.snapshot().getCompleted() >= 2);
+
+            AtomicInteger polls = new AtomicInteger();
+            PollScheduler.ScanGroup later = scheduler.addGroup("later", 20, TimeUnit.MILLISECONDS, PollScheduler.OverrunPolicy.SKIP);
+            later.add("c", polls::incrementAndGet);
+            waitUntil(() -> polls.get() >= 3);
+            assertTrue(later.snapshot().getCompleted() >= 3);
+        }
+    }
+
+    @Test
+    void firstTaskRunsWhenAdded() throws Exception {
+        try (PollScheduler scheduler = new PollScheduler(1)) {
+            PollScheduler.ScanGroup group = scheduler.addGroup("slow", 1, TimeUnit.HOURS, PollScheduler.OverrunPolicy.SKIP);
+            Thread.sleep(50);
+            assertEquals(0, group.snapshot().getCycles());
+            AtomicInteger polls = new AtomicInteger();
+            group.add("a", polls::incrementAndGet);
+            waitUntil(() -> polls.get() == 1);
+            assertEquals(1, group.snapshot().getCycles());
+        }
+    }
+
+    @Test
+    void sameDeviceRunsSerially() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger polls = new AtomicInteger();
+        PollScheduler.PollAction action = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(2);
+            running.decrementAndGet();
+            polls.incrementAndGet();
+        };
+        try (PollScheduler scheduler = new PollScheduler(4)) {
+            PollScheduler.ScanGroup fast = scheduler.addGroup("fast", 10, TimeUnit.MILLISECONDS, PollScheduler.OverrunPolicy.MERGE);
+            PollScheduler.ScanGroup slow = scheduler.addGroup("slow", 30, TimeUnit.MILLISECONDS, PollScheduler.OverrunPolicy.MERGE);
+            for (int i = 0; i < 3; i++) {
+                fast.add("gateway", action);
+                slow.add("gateway", action);
+            }
+            waitUntil(() -> polls.get() >= 30);
+        }
+        assertEquals(1, maxRunning.get());
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() - deadline < 0, "timed out");
+            Thread.sleep(5);
+        }
+    }
+}
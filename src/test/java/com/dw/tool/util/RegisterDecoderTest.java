@@ -0,0 +1,168 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * RegisterDecoder 与 ByteBuffer 解码对比
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 10:00
+ */
+class RegisterDecoderTest {
+
+    private static final RegisterDecoder.DataType[] TYPES = RegisterDecoder.DataType.values();
+
+    private static final RegisterDecoder.RegisterOrder[] ORDERS = RegisterDecoder.RegisterOrder.values();
+
+    @Test
+    void matchesByteBuffer() {
+        Random random = new Random(502);
+        for (int round = 0; round < 500; round++) {
+            int fields = 1 + random.nextInt(20);
+            int[] positions = new int[fields];
+            RegisterDecoder.DataType[] types = new RegisterDecoder.DataType[fields];
+            RegisterDecoder.RegisterOrder[] orders = new RegisterDecoder.RegisterOrder[fields];
+            RegisterDecoder.Builder builder = RegisterDecoder.builder();
+            for (int i = 0; i < fields; i++) {
+                positions[i] = random.nextInt(40);
+                types[i] = TYPES[random.nextInt(TYPES.length)];
+                orders[i] = ORDERS[random.nextInt(ORDERS.length)];
+                builder.field(positions[i], types[i], orders[i]);
+            }
+            RegisterDecoder decoder = builder.build();
+
+            int srcOff = random.nextInt(5);
+            short[] registers = new short[srcOff + decoder.getRegisterSpan()];
+            for (int i = 0; i < registers.length; i++) {
+                registers[i] = (short) random.nextInt();
+            }
+            byte[] bytes = toBytes(registers);
+
+            double[] fromShorts = new double[fields + 1];
+            double[] fromBytes = new double[fields + 1];
+            long[] longs = new long[fields];
+            long[] longsFromBytes = new long[fields];
+            decoder.decode(registers, srcOff, fromShorts, 1);
+            decoder.decode(bytes, srcOff * 2, fromBytes, 1);
+            decoder.decode(registers, srcOff, longs, 0);
+            decoder.decode(bytes, srcOff * 2, longsFromBytes, 0);
+            for (int i = 0; i < fields; i++) {
+                double expected = reference(registers, srcOff + positions[i], types[i], orders[i]);
+                String message = types[i] + " " + orders[i];
+                assertEquals(expected, fromShorts[1 + i], message);
+                assertEquals(expected, fromBytes[1 + i], message);
+                assertEquals(expected, decoder.decodeField(i, registers, srcOff), message);
+                long expectedLong = types[i] == RegisterDecoder.DataType.INT64
+                        ? referenceBuffer(registers, srcOff + positions[i], 4, orders[i]).getLong()
+                        : types[i] == RegisterDecoder.DataType.FLOAT32 || types[i] == RegisterDecoder.DataType.FLOAT64
+                        ? Math.round(expected) : (long) expected;
+                assertEquals(expectedLong, longs[i], message);
+                assertEquals(expectedLong, longsFromBytes[i], message);
+            }
+        }
+    }
+
+    @Test
+    void scaleAndStride() {
+        RegisterDecoder decoder = RegisterDecoder.builder()
+                .field(0, RegisterDecoder.DataType.UINT16, RegisterDecoder.RegisterOrder.ABCD, 0.1, 0)
+                .field(1, RegisterDecoder.DataType.INT16, RegisterDecoder.RegisterOrder.ABCD, 1, -40)
+                .field(2, RegisterDecoder.DataType.INT32, RegisterDecoder.RegisterOrder.CDAB, 0.01, 0)
+                .build();
+        assertEquals(4, decoder.getRegisterSpan());
+
+        int stride = 6;
+        int records = 3;
+        short[] registers = new short[1 + stride * records];
+        double[] expected = new double[records * 3];
+        for (int r = 0; r < records; r++) {
+            int base = 1 + r * stride;
+            int voltage = 2200 + r;
+            int temperature = -5 - r;
+            int energy = -123456 * (r + 1);
+            registers[base] = (short) voltage;
+            registers[base + 1] = (short) temperature;
+            registers[base + 2] = (short) energy;
+            registers[base + 3] = (short) (energy >> 16);
+            expected[r * 3] = voltage * 0.1;
+            expected[r * 3 + 1] = temperature - 40;
+            expected[r * 3 + 2] = energy * 0.01;
+        }
+        double[] values = new double[records * 3];
+        decoder.decode(registers, 1, records, stride, values, 0);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(expected[i], values[i], 1e-9);
+        }
+
+        long[] rounded = new long[3];
+        decoder.decode(registers, 1, rounded, 0);
+        assertEquals(220, rounded[0]);
+        assertEquals(-45, rounded[1]);
+        assertEquals(-1235, rounded[2]);
+    }
+
+    @Test
+    void checksBounds() {
+        RegisterDecoder decoder = RegisterDecoder.builder()
+                .field(2, RegisterDecoder.DataType.FLOAT32, RegisterDecoder.RegisterOrder.ABCD)
+                .build();
+        assertThrows(IndexOutOfBoundsException.class, () -> decoder.decode(new short[3], 0, new double[1], 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> decoder.decode(new short[5], 2, new double[1], 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> decoder.decode(new byte[7], 0, new double[1], 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> decoder.decode(new short[4], 0, new double[1], 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> decoder.decode(new short[9], 0, 2, 4, new double[1], 0));
+        assertThrows(IllegalArgumentException.class, () -> decoder.decode(new short[4], 0, 1, 0, new double[1], 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> RegisterDecoder.builder().field(-1, RegisterDecoder.DataType.INT16, RegisterDecoder.RegisterOrder.ABCD));
+    }
+
+    private static double reference(short[] registers, int index, RegisterDecoder.DataType type, RegisterDecoder.RegisterOrder order) {
+        ByteBuffer buffer = referenceBuffer(registers, index, type.getRegisters(), order);
+        switch (type) {
+            case INT16:
+                return buffer.getShort();
+            case UINT16:
+                return buffer.getShort() & 0xFFFF;
+            case INT32:
+                return buffer.getInt();
+            case UINT32:
+                return buffer.getInt() & 0xFFFFFFFFL;
+            case FLOAT32:
+                return buffer.getFloat();
+            case INT64:
+                return buffer.getLong();
+            default:
+                return buffer.getDouble();
+        }
+    }
+
+    /**
+     * 按字节序还原为大端字节：CDAB、DCBA 颠倒字序，BADC、DCBA 颠倒字内字节
+     */
+    private static ByteBuffer referenceBuffer(short[] registers, int index, int words, RegisterDecoder.RegisterOrder order) {
+        boolean wordSwap = order == RegisterDecoder.RegisterOrder.CDAB || order == RegisterDecoder.RegisterOrder.DCBA;
+        boolean byteSwap = order == RegisterDecoder.RegisterOrder.BADC || order == RegisterDecoder.RegisterOrder.DCBA;
+        ByteBuffer buffer = ByteBuffer.allocate(words * 2);
+        for (int k = 0; k < words; k++) {
+            short word = registers[index + (wordSwap ? words - 1 - k : k)];
+            buffer.putShort(byteSwap ? Short.reverseBytes(word) : word);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static byte[] toBytes(short[] registers) {
+        ByteBuffer buffer = ByteBuffer.allocate(registers.length * 2);
+        for (short register : registers) {
+            buffer.putShort(register);
+        }
+        return buffer.array();
+    }
+}
@@ -0,0 +1,142 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 重试调度器
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 14:05
+ */
+class RetrySchedulerTest {
+
+    @Test
+    void backoffStaysInJitterRange() {
+        RetryScheduler scheduler = new RetryScheduler(3, 100, 1000);
+        for (int i = 0; i < 1000; i++) {
+            long first = scheduler.backoff(1);
+            assertTrue(first >= 50 && first < 100, "first " + first);
+            long third = scheduler.backoff(3);
+            assertTrue(third >= 200 && third < 400, "third " + third);
+            long capped = scheduler.backoff(40);
+            assertTrue(capped >= 500 && capped < 1000, "capped " + capped);
+        }
+    }
+
+    @Test
+    void blockingRetriesUntilSuccess() throws Exception {
+        RetryScheduler scheduler = new RetryScheduler(3, 1, 2);
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 60_000);
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger retries = new AtomicInteger();
+        String value = scheduler.executeBlocking(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new IOException("fail " + calls.get());
+            }
+            return "ok";
+        }, breaker, retries::incrementAndGet);
+        assertEquals("ok", value);
+        assertEquals(3, calls.get());
+        assertEquals(2, retries.get());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void blockingGivesUpAfterMaxRetries() {
+        RetryScheduler scheduler = new RetryScheduler(2, 1, 2);
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 60_000);
+        AtomicInteger calls = new AtomicInteger();
+        IOException e = assertThrows(IOException.class, () -> scheduler.executeBlocking(() -> {
+            throw new IOException("fail " + calls.incrementAndGet());
+        }, breaker));
+        assertEquals(3, calls.get());
+        assertEquals("fail 3", e.getCause().getMessage());
+    }
+
+    @Test
+    void blockingBreakerOpenKeepsLastFailure() {
+        RetryScheduler scheduler = new RetryScheduler(5, 1, 2);
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 60_000);
+        AtomicInteger calls = new AtomicInteger();
+        CircuitBreakerOpenException e = assertThrows(CircuitBreakerOpenException.class, () -> scheduler.executeBlocking(() -> {
+            throw new IOException("fail " + calls.incrementAndGet());
+        }, breaker));
+        assertEquals(2, calls.get());
+        assertEquals("fail 2", e.getCause().getMessage());
+
+        // 已熔断时不发送请求，也没有失败原因
+        e = assertThrows(CircuitBreakerOpenException.class, () -> scheduler.executeBlocking(() -> "ok", breaker));
+        assertNull(e.getCause());
+    }
+
+    @Test
+    void asyncRetriesUntilSuccess() throws Exception {
+        RetryScheduler scheduler = new RetryScheduler(3, 1, 2);
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 60_000);
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> result = scheduler.execute(() -> {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            if (calls.incrementAndGet() < 3) {
+                future.completeExceptionally(new IOException("fail"));
+            } else {
+                future.complete("ok");
+            }
+            return future;
+        }, breaker);
+        assertEquals("ok", result.get(5, TimeUnit.SECONDS));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void asyncBreakerOpenKeepsLastFailure() throws Exception {
+        RetryScheduler scheduler = new RetryScheduler(5, 1, 2);
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 60_000);
+        AtomicInteger calls = new AtomicInteger();
+        Throwable cause = causeOf(scheduler.execute(() -> {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            future.completeExceptionally(new IOException("fail " + calls.incrementAndGet()));
+            return future;
+        }, breaker));
+        assertTrue(cause instanceof CircuitBreakerOpenException);
+        assertEquals(2, calls.get());
+        assertEquals("fail 2", cause.getCause().getMessage());
+    }
+
+    @Test
+    void asyncDoesNotRetryNonIoFailures() throws Exception {
+        RetryScheduler scheduler = new RetryScheduler(5, 1, 2);
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 60_000);
+        AtomicInteger calls = new AtomicInteger();
+        Throwable cause = causeOf(scheduler.execute(() -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("bug");
+        }, breaker));
+        assertTrue(cause instanceof IllegalStateException);
+        assertEquals(1, calls.get());
+        // 非 I/O 异常不计入熔断
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private static Throwable causeOf(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        fail("expected failure");
+        return null;
+    }
+}
@@ -0,0 +1,114 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DL/T 645 同步、异步收发共用的网关门
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 10:40
+ */
+class SerialGateTest {
+
+    @Test
+    void grantsInArrivalOrder() {
+        TCPClientUtil.SerialGate gate = new TCPClientUtil.SerialGate();
+        CompletableFuture<Void> first = gate.acquire();
+        CompletableFuture<Void> second = gate.acquire();
+        CompletableFuture<Void> third = gate.acquire();
+        assertTrue(first.isDone());
+        assertFalse(second.isDone());
+
+        gate.release();
+        assertTrue(second.isDone());
+        assertFalse(third.isDone());
+        gate.release();
+        assertTrue(third.isDone());
+        gate.release();
+        assertTrue(gate.acquire().isDone());
+    }
+
+    @Test
+    void syncAndAsyncCallersNeverOverlap() throws Exception {
+        TCPClientUtil.SerialGate gate = new TCPClientUtil.SerialGate();
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        AtomicInteger done = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    try {
+                        gate.acquireBlocking();
+                    } catch (IOException e) {
+                        return;
+                    }
+                    if (inside.incrementAndGet() != 1) {
+                        overlaps.incrementAndGet();
+                    }
+                    inside.decrementAndGet();
+                    gate.release();
+                    done.incrementAndGet();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        List<CompletableFuture<Void>> async = new ArrayList<>();
+        for (int i = 0; i < 800; i++) {
+            async.add(gate.acquire().thenRunAsync(() -> {
+                if (inside.incrementAndGet() != 1) {
+                    overlaps.incrementAndGet();
+                }
+                inside.decrementAndGet();
+            }).whenComplete((v, e) -> gate.release()));
+        }
+        for (Thread thread : threads) {
+            thread.join(10_000);
+        }
+        CompletableFuture.allOf(async.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(800, done.get());
+        assertEquals(0, overlaps.get());
+    }
+
+    @Test
+    void interruptedWaiterIsSkipped() throws Exception {
+        TCPClientUtil.SerialGate gate = new TCPClientUtil.SerialGate();
+        gate.acquire();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            started.countDown();
+            try {
+                gate.acquireBlocking();
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        waiter.start();
+        started.await();
+        Thread.sleep(50);
+        waiter.interrupt();
+        waiter.join(5000);
+        assertTrue(failure.get() instanceof InterruptedIOException);
+
+        CompletableFuture<Void> next = gate.acquire();
+        gate.release();
+        assertTrue(next.isDone());
+    }
+}
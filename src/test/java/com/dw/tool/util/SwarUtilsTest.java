@@ -0,0 +1,91 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * SwarUtils 与逐字节实现对比
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 09:10
+ */
+class SwarUtilsTest {
+
+    private static final int MAX_LENGTH = 8 * 1024;
+
+    @Test
+    void checksumMatchesByteLoop() {
+        Random random = new Random(16);
+        for (int i = 0; i < 2000; i++) {
+            byte[] bytes = new byte[random.nextInt(MAX_LENGTH)];
+            random.nextBytes(bytes);
+            int offset = bytes.length == 0 ? 0 : random.nextInt(Math.min(bytes.length, 16));
+            int length = bytes.length - offset;
+            assertEquals(referenceChecksum(bytes, offset, length), SwarUtils.checksum(bytes, offset, length), "length " + length);
+        }
+    }
+
+    @Test
+    void checksumAllOnes() {
+        for (int length = 0; length <= MAX_LENGTH; length++) {
+            byte[] bytes = new byte[length];
+            Arrays.fill(bytes, (byte) 0xFF);
+            assertEquals(referenceChecksum(bytes, 0, length), SwarUtils.checksum(bytes, 0, length), "length " + length);
+        }
+    }
+
+    @Test
+    void addAndSubtractMatchByteLoop() {
+        Random random = new Random(33);
+        for (int i = 0; i < 2000; i++) {
+            byte[] bytes = new byte[random.nextInt(300)];
+            random.nextBytes(bytes);
+            int offset = bytes.length == 0 ? 0 : random.nextInt(bytes.length);
+            int length = random.nextInt(bytes.length - offset + 1);
+            int operand = random.nextInt(256);
+
+            byte[] expected = bytes.clone();
+            for (int j = offset; j < offset + length; j++) {
+                expected[j] += operand;
+            }
+            byte[] actual = bytes.clone();
+            SwarUtils.add(actual, offset, length, operand);
+            assertArrayEquals(expected, actual);
+
+            SwarUtils.subtract(actual, offset, length, operand);
+            assertArrayEquals(bytes, actual);
+        }
+    }
+
+    @Test
+    void reverseMatchesByteLoop() {
+        Random random = new Random(645);
+        for (int i = 0; i < 2000; i++) {
+            byte[] bytes = new byte[random.nextInt(100)];
+            random.nextBytes(bytes);
+            int offset = bytes.length == 0 ? 0 : random.nextInt(bytes.length);
+            int length = random.nextInt(bytes.length - offset + 1);
+
+            byte[] expected = bytes.clone();
+            for (int j = 0; j < length; j++) {
+                expected[offset + j] = bytes[offset + length - 1 - j];
+            }
+            SwarUtils.reverse(bytes, offset, length);
+            assertArrayEquals(expected, bytes);
+        }
+    }
+
+    private static int referenceChecksum(byte[] bytes, int offset, int length) {
+        int sum = 0;
+        for (int i = offset; i < offset + length; i++) {
+            sum += bytes[i] & 0xFF;
+        }
+        return sum & 0xFF;
+    }
+}
@@ -0,0 +1,110 @@
+package com.dw.tool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 收发报文环形记录，与按字节数淘汰最早记录的参考实现对照
+ *
+ * @author yanggj
+ * @version 1.0.0
+ * @date 2026/10/19 15:10
+ */
+class WireTraceTest {
+
+    private static final int HEADER_LENGTH = 17;
+
+    @Test
+    void wrapsAroundAndKeepsNewestRecords() {
+        int capacity = 211;
+        int maxFrameLength = 40;
+        WireTrace trace = new WireTrace("127.0.0.1:502", capacity, maxFrameLength);
+        Deque<Object[]> expected = new ArrayDeque<>();
+        int expectedBytes = 0;
+        Random random = new Random(20);
+        for (int i = 0; i < 2000; i++) {
+            byte[] frame = new byte[random.nextInt(60)];
+            random.nextBytes(frame);
+            WireTrace.Direction direction = random.nextBoolean() ? WireTrace.Direction.SEND : WireTrace.Direction.RECEIVE;
+            int offset = frame.length == 0 ? 0 : random.nextInt(frame.length);
+            int length = frame.length - offset;
+            trace.record(direction, frame, offset, length);
+
+            byte[] captured = Arrays.copyOfRange(frame, offset, offset + Math.min(length, maxFrameLength));
+            expected.addLast(new Object[]{direction, length, captured});
+            expectedBytes += HEADER_LENGTH + captured.length;
+            while (expectedBytes > capacity) {
+                expectedBytes -= HEADER_LENGTH + ((byte[]) expected.removeFirst()[2]).length;
+            }
+            if (i % 37 == 0) {
+                assertEntries(expected, trace.entries());
+            }
+        }
+        assertEntries(expected, trace.entries());
+        assertEquals(2000, trace.getRecorded());
+    }
+
+    @Test
+    void truncatesLongFrames() {
+        WireTrace trace = new WireTrace("127.0.0.1:502", 256, 4);
+        trace.send(new byte[]{1, 2, 3, 4, 5, 6}, 0, 6);
+        trace.receive(new byte[]{7, 8}, 0, 2);
+        List<WireTrace.Entry> entries = trace.entries();
+        assertEquals(2, entries.size());
+        assertTrue(entries.get(0).isTruncated());
+        assertEquals(6, entries.get(0).getLength());
+        assertArrayEquals(new byte[]{1, 2, 3, 4}, entries.get(0).getData());
+        assertFalse(entries.get(1).isTruncated());
+
+        String[] lines = trace.dump().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("127.0.0.1:502 "));
+        assertTrue(lines[0].endsWith(">> [6] 01020304..."), lines[0]);
+        assertTrue(lines[1].endsWith("<< [2] 0708"), lines[1]);
+    }
+
+    @Test
+    void disabledAndClearedTraceIsEmpty() {
+        WireTrace trace = new WireTrace("127.0.0.1:502", 256, 16);
+        assertTrue(trace.entries().isEmpty());
+        trace.setEnabled(false);
+        trace.send(new byte[]{1}, 0, 1);
+        assertEquals(0, trace.getRecorded());
+        assertTrue(trace.entries().isEmpty());
+
+        trace.setEnabled(true);
+        trace.send(new byte[]{1}, 0, 1);
+        trace.clear();
+        assertTrue(trace.entries().isEmpty());
+        assertEquals(1, trace.getRecorded());
+        trace.receive(new byte[]{2}, 0, 1);
+        assertEquals(1, trace.entries().size());
+    }
+
+    @Test
+    void rejectsCapacitySmallerThanOneFrame() {
+        assertThrows(IllegalArgumentException.class, () -> new WireTrace("127.0.0.1:502", HEADER_LENGTH + 15, 16));
+    }
+
+    private static void assertEntries(Deque<Object[]> expected, List<WireTrace.Entry> actual) {
+        assertEquals(expected.size(), actual.size());
+        int i = 0;
+        for (Object[] e : expected) {
+            WireTrace.Entry entry = actual.get(i++);
+            assertEquals(e[0], entry.getDirection());
+            assertEquals((int) (Integer) e[1], entry.getLength());
+            assertArrayEquals((byte[]) e[2], entry.getData());
+        }
+    }
+}